@@ -0,0 +1,19 @@
+import { apiCurrentUserFixtures } from "fixtures/currentUserFixtures";
+import { systemInfoFixtures } from "fixtures/systemInfoFixtures";
+
+const bootstrapFixtures = {
+  adminUser: {
+    currentUser: apiCurrentUserFixtures.adminUser,
+    systemInfo: systemInfoFixtures.showingBoth,
+  },
+  userOnly: {
+    currentUser: apiCurrentUserFixtures.userOnly,
+    systemInfo: systemInfoFixtures.showingNeither,
+  },
+  notLoggedIn: {
+    currentUser: null,
+    systemInfo: systemInfoFixtures.showingNeither,
+  },
+};
+
+export { bootstrapFixtures };
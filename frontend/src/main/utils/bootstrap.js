@@ -0,0 +1,19 @@
+import axios from "axios";
+
+// Everything the app needs on first paint (current user, system info and
+// reference data) comes from a single GET /api/bootstrap.  useCurrentUser and
+// useSystemInfo both read their data from this query, and react-query shares
+// one in-flight request between them, so loading a page costs one round trip
+// instead of one per hook.
+export const bootstrapQueryKey = "bootstrap";
+
+export async function fetchBootstrap() {
+  const response = await axios.get("/api/bootstrap");
+  return response.data;
+}
+
+// fetchQuery joins a request that is already in flight rather than starting
+// another, so hooks that refetch together still cost one request.
+export function getBootstrap(queryClient) {
+  return queryClient.fetchQuery(bootstrapQueryKey, fetchBootstrap);
+}
@@ -1,21 +1,28 @@
 import { useMutation, useQuery, useQueryClient } from "react-query";
 import axios from "axios";
 import { useNavigate } from "react-router-dom";
+import { bootstrapQueryKey, getBootstrap } from "main/utils/bootstrap";
 
 export function useCurrentUser() {
+  const queryClient = useQueryClient();
   let rolesList = ["ERROR_GETTING_ROLES"];
   return useQuery(
     "current user",
     async () => {
       try {
-        const response = await axios.get("/api/currentUser");
+        const bootstrap = await getBootstrap(queryClient);
+        if (!bootstrap.currentUser) {
+          return { loggedIn: false, root: null };
+        }
         try {
-          rolesList = response.data.roles.map((r) => r.authority);
+          rolesList = bootstrap.currentUser.roles.map((r) => r.authority);
         } catch (e) {
           console.error("Error getting roles: ", e);
         }
-        response.data = { ...response.data, rolesList: rolesList };
-        return { loggedIn: true, root: response.data };
+        return {
+          loggedIn: true,
+          root: { ...bootstrap.currentUser, rolesList: rolesList },
+        };
       } catch (e) {
         console.error("Error invoking axios.get: ", e);
       }
@@ -31,6 +38,7 @@ export function useLogout() {
   const navigate = useNavigate();
   const mutation = useMutation(async () => {
     await axios.post("/logout");
+    queryClient.removeQueries(bootstrapQueryKey, { exact: true });
     await queryClient.resetQueries("current user", { exact: true });
     navigate("/");
   });
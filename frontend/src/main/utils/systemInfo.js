@@ -1,13 +1,14 @@
-import { useQuery } from "react-query";
-import axios from "axios";
+import { useQuery, useQueryClient } from "react-query";
+import { getBootstrap } from "main/utils/bootstrap";
 
 export function useSystemInfo() {
+  const queryClient = useQueryClient();
   return useQuery(
     "systemInfo",
     async () => {
       try {
-        const response = await axios.get("/api/systemInfo");
-        return response.data;
+        const bootstrap = await getBootstrap(queryClient);
+        return bootstrap.systemInfo;
       } catch (e) {
         console.error("Error invoking axios.get: ", e);
         return {};
@@ -1,5 +1,4 @@
-import { apiCurrentUserFixtures } from "fixtures/currentUserFixtures";
-import { systemInfoFixtures } from "fixtures/systemInfoFixtures";
+import { bootstrapFixtures } from "fixtures/bootstrapFixtures";
 import { http, HttpResponse } from "msw";
 
 import ProfilePage from "main/pages/ProfilePage";
@@ -15,11 +14,8 @@ export const RegularUser = Template.bind({});
 RegularUser.parameters = {
   msw: {
     handlers: [
-      http.get("/api/currentUser", () => {
-        return HttpResponse.json(apiCurrentUserFixtures.userOnly);
-      }),
-      http.get("/api/systemInfo", () => {
-        return HttpResponse.json(systemInfoFixtures.showingNeither);
+      http.get("/api/bootstrap", () => {
+        return HttpResponse.json(bootstrapFixtures.userOnly);
       }),
     ],
   },
@@ -29,11 +25,8 @@ export const AdminUser = Template.bind({});
 AdminUser.parameters = {
   msw: {
     handlers: [
-      http.get("/api/currentUser", () => {
-        return HttpResponse.json(apiCurrentUserFixtures.adminUser);
-      }),
-      http.get("/api/systemInfo", () => {
-        return HttpResponse.json(systemInfoFixtures.showingBoth);
+      http.get("/api/bootstrap", () => {
+        return HttpResponse.json(bootstrapFixtures.adminUser);
       }),
     ],
   },
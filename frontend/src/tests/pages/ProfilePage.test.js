@@ -1,24 +1,18 @@
 import { render, screen } from "@testing-library/react";
 import { QueryClient, QueryClientProvider } from "react-query";
 import { MemoryRouter } from "react-router-dom";
-import { apiCurrentUserFixtures } from "fixtures/currentUserFixtures";
 
 import axios from "axios";
 import AxiosMockAdapter from "axios-mock-adapter";
 import ProfilePage from "main/pages/ProfilePage";
-import { systemInfoFixtures } from "fixtures/systemInfoFixtures";
+import { bootstrapFixtures } from "fixtures/bootstrapFixtures";
 
 describe("ProfilePage tests", () => {
   const queryClient = new QueryClient();
 
   test("renders correctly for regular logged in user", async () => {
     const axiosMock = new AxiosMockAdapter(axios);
-    axiosMock
-      .onGet("/api/currentUser")
-      .reply(200, apiCurrentUserFixtures.userOnly);
-    axiosMock
-      .onGet("/api/systemInfo")
-      .reply(200, systemInfoFixtures.showingNeither);
+    axiosMock.onGet("/api/bootstrap").reply(200, bootstrapFixtures.userOnly);
 
     render(
       <QueryClientProvider client={queryClient}>
@@ -34,12 +28,7 @@ describe("ProfilePage tests", () => {
 
   test("renders correctly for admin user", async () => {
     const axiosMock = new AxiosMockAdapter(axios);
-    axiosMock
-      .onGet("/api/currentUser")
-      .reply(200, apiCurrentUserFixtures.adminUser);
-    axiosMock
-      .onGet("/api/systemInfo")
-      .reply(200, systemInfoFixtures.showingNeither);
+    axiosMock.onGet("/api/bootstrap").reply(200, bootstrapFixtures.adminUser);
 
     render(
       <QueryClientProvider client={queryClient}>
@@ -0,0 +1,64 @@
+import { QueryClient, QueryClientProvider } from "react-query";
+import { renderHook, waitFor } from "@testing-library/react";
+import { useCurrentUser } from "main/utils/currentUser";
+import { useSystemInfo } from "main/utils/systemInfo";
+import { fetchBootstrap, getBootstrap } from "main/utils/bootstrap";
+import { bootstrapFixtures } from "fixtures/bootstrapFixtures";
+import { currentUserFixtures } from "fixtures/currentUserFixtures";
+import { systemInfoFixtures } from "fixtures/systemInfoFixtures";
+
+import axios from "axios";
+import AxiosMockAdapter from "axios-mock-adapter";
+
+describe("utils/bootstrap tests", () => {
+  test("fetchBootstrap returns the body of /api/bootstrap", async () => {
+    const axiosMock = new AxiosMockAdapter(axios);
+    axiosMock.onGet("/api/bootstrap").reply(200, bootstrapFixtures.adminUser);
+
+    await expect(fetchBootstrap()).resolves.toEqual(
+      bootstrapFixtures.adminUser,
+    );
+  });
+
+  test("getBootstrap joins a request already in flight", async () => {
+    const queryClient = new QueryClient();
+    const axiosMock = new AxiosMockAdapter(axios);
+    axiosMock.onGet("/api/bootstrap").reply(200, bootstrapFixtures.userOnly);
+
+    await Promise.all([getBootstrap(queryClient), getBootstrap(queryClient)]);
+
+    expect(axiosMock.history.get.length).toBe(1);
+    expect(queryClient.getQueryData("bootstrap")).toEqual(
+      bootstrapFixtures.userOnly,
+    );
+    queryClient.clear();
+  });
+
+  test("useCurrentUser and useSystemInfo share one request", async () => {
+    const queryClient = new QueryClient();
+    const wrapper = ({ children }) => (
+      <QueryClientProvider client={queryClient}>{children}</QueryClientProvider>
+    );
+
+    const axiosMock = new AxiosMockAdapter(axios);
+    axiosMock.onGet("/api/bootstrap").reply(200, bootstrapFixtures.userOnly);
+
+    const { result } = renderHook(
+      () => ({ currentUser: useCurrentUser(), systemInfo: useSystemInfo() }),
+      { wrapper },
+    );
+
+    await waitFor(() =>
+      expect(result.current.currentUser.data).toEqual(
+        currentUserFixtures.userOnly,
+      ),
+    );
+    await waitFor(() =>
+      expect(result.current.systemInfo.data).toEqual(
+        systemInfoFixtures.showingNeither,
+      ),
+    );
+    expect(axiosMock.history.get.length).toBe(1);
+    queryClient.clear();
+  });
+});
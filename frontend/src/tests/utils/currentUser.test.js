@@ -7,7 +7,7 @@ import {
 } from "fixtures/currentUserFixtures";
 import mockConsole from "jest-mock-console";
 import { useNavigate } from "react-router-dom";
-import { systemInfoFixtures } from "fixtures/systemInfoFixtures";
+import { bootstrapFixtures } from "fixtures/bootstrapFixtures";
 
 import axios from "axios";
 import AxiosMockAdapter from "axios-mock-adapter";
@@ -26,10 +26,10 @@ describe("utils/currentUser tests", () => {
       );
 
       const axiosMock = new AxiosMockAdapter(axios);
-      axiosMock.onGet("/api/currentUser").timeoutOnce();
+      axiosMock.onGet("/api/bootstrap").timeoutOnce();
       axiosMock
-        .onGet("/api/systemInfo")
-        .reply(200, systemInfoFixtures.showingNeither);
+        .onGet("/api/bootstrap")
+        .reply(200, bootstrapFixtures.notLoggedIn);
 
       const restoreConsole = mockConsole();
 
@@ -62,18 +62,34 @@ describe("utils/currentUser tests", () => {
       );
 
       const axiosMock = new AxiosMockAdapter(axios);
-      axiosMock
-        .onGet("/api/currentUser")
-        .reply(200, apiCurrentUserFixtures.userOnly);
-      axiosMock
-        .onGet("/api/systemInfo")
-        .reply(200, systemInfoFixtures.showingNeither);
+      axiosMock.onGet("/api/bootstrap").reply(200, bootstrapFixtures.userOnly);
 
       const { result } = renderHook(() => useCurrentUser(), { wrapper });
 
-      await waitFor(() => result.current.isFetched);
+      await waitFor(() =>
+        expect(result.current.data).toEqual(currentUserFixtures.userOnly),
+      );
+      queryClient.clear();
+    });
 
-      expect(result.current.data).toEqual(currentUserFixtures.userOnly);
+    test("useCurrentUser reports logged out when bootstrap has no user", async () => {
+      const queryClient = new QueryClient();
+      const wrapper = ({ children }) => (
+        <QueryClientProvider client={queryClient}>
+          {children}
+        </QueryClientProvider>
+      );
+
+      const axiosMock = new AxiosMockAdapter(axios);
+      axiosMock
+        .onGet("/api/bootstrap")
+        .reply(200, bootstrapFixtures.notLoggedIn);
+
+      const { result } = renderHook(() => useCurrentUser(), { wrapper });
+
+      await waitFor(() =>
+        expect(result.current.data).toEqual({ loggedIn: false, root: null }),
+      );
       queryClient.clear();
     });
 
@@ -86,7 +102,7 @@ describe("utils/currentUser tests", () => {
       );
 
       const axiosMock = new AxiosMockAdapter(axios);
-      axiosMock.onGet("/api/currentUser").reply(404);
+      axiosMock.onGet("/api/bootstrap").reply(404);
 
       const restoreConsole = mockConsole();
       const { result } = renderHook(() => useCurrentUser(), { wrapper });
@@ -115,7 +131,9 @@ describe("utils/currentUser tests", () => {
 
       const apiResult = apiCurrentUserFixtures.missingRolesToTestErrorHandling;
       const axiosMock = new AxiosMockAdapter(axios);
-      axiosMock.onGet("/api/currentUser").reply(200, apiResult);
+      axiosMock
+        .onGet("/api/bootstrap")
+        .reply(200, { ...bootstrapFixtures.userOnly, currentUser: apiResult });
 
       const restoreConsole = mockConsole();
       const { result } = renderHook(() => useCurrentUser(), { wrapper });
@@ -150,6 +168,7 @@ describe("utils/currentUser tests", () => {
       useNavigate.mockImplementation(() => navigateSpy);
 
       const resetQueriesSpy = jest.spyOn(queryClient, "resetQueries");
+      const removeQueriesSpy = jest.spyOn(queryClient, "removeQueries");
 
       const { result } = renderHook(() => useLogout(), { wrapper });
 
@@ -164,6 +183,9 @@ describe("utils/currentUser tests", () => {
           exact: true,
         }),
       );
+      expect(removeQueriesSpy).toHaveBeenCalledWith("bootstrap", {
+        exact: true,
+      });
 
       queryClient.clear();
     });
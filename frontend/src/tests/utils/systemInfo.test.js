@@ -8,6 +8,7 @@ import { waitFor } from "@testing-library/react";
 import axios from "axios";
 import AxiosMockAdapter from "axios-mock-adapter";
 import { systemInfoFixtures } from "fixtures/systemInfoFixtures";
+import { bootstrapFixtures } from "fixtures/bootstrapFixtures";
 
 jest.mock("react-router-dom");
 const { _MemoryRouter } = jest.requireActual("react-router-dom");
@@ -23,10 +24,10 @@ describe("utils/systemInfo tests", () => {
       );
 
       const axiosMock = new AxiosMockAdapter(axios);
-      axiosMock.onGet("/api/systemInfo").timeoutOnce();
+      axiosMock.onGet("/api/bootstrap").timeoutOnce();
       axiosMock
-        .onGet("/api/systemInfo")
-        .reply(200, systemInfoFixtures.showingNeither);
+        .onGet("/api/bootstrap")
+        .reply(200, bootstrapFixtures.notLoggedIn);
 
       const restoreConsole = mockConsole();
 
@@ -59,15 +60,13 @@ describe("utils/systemInfo tests", () => {
       );
 
       const axiosMock = new AxiosMockAdapter(axios);
-      axiosMock
-        .onGet("/api/systemInfo")
-        .reply(200, systemInfoFixtures.showingBoth);
+      axiosMock.onGet("/api/bootstrap").reply(200, bootstrapFixtures.adminUser);
 
       const { result } = renderHook(() => useSystemInfo(), { wrapper });
 
-      await waitFor(() => result.current.isFetched);
-
-      expect(result.current.data).toEqual(systemInfoFixtures.showingBoth);
+      await waitFor(() =>
+        expect(result.current.data).toEqual(systemInfoFixtures.showingBoth),
+      );
       queryClient.clear();
     });
 
@@ -80,7 +79,7 @@ describe("utils/systemInfo tests", () => {
       );
 
       const axiosMock = new AxiosMockAdapter(axios);
-      axiosMock.onGet("/api/systemInfo").reply(404);
+      axiosMock.onGet("/api/bootstrap").reply(404);
 
       const restoreConsole = mockConsole();
       const { result } = renderHook(() => useSystemInfo(), { wrapper });
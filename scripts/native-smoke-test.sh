@@ -0,0 +1,65 @@
+#!/usr/bin/env bash
+#
+# Smoke test for the native executable built by
+#   mvn -B -Pnative,production -DskipTests native:compile
+# See docs/native-image.md.
+#
+# Starts target/team01 against an in-memory H2 database (so Liquibase runs
+# every changelog), checks a handful of endpoints that exercise Hibernate,
+# Jackson, Spring Security, the OAuth client and springdoc, and reports the
+# startup time and resident set size.  Exits non-zero on any failure.
+
+set -euo pipefail
+
+BINARY=${BINARY:-target/team01}
+PORT=${SMOKE_TEST_PORT:-18081}
+BASE=http://localhost:$PORT
+LOG=$(mktemp)
+
+"$BINARY" -Dserver.port=$PORT \
+  -Dspring.datasource.url=jdbc:h2:mem:smoke -Dspring.datasource.username=sa -Dspring.datasource.password= \
+  > "$LOG" 2>&1 &
+PID=$!
+trap 'kill $PID 2>/dev/null || true; rm -f "$LOG"' EXIT
+
+fail() {
+  echo "FAIL: $1" >&2
+  echo "---- application log ----" >&2
+  cat "$LOG" >&2
+  exit 1
+}
+
+for _ in $(seq 1 300); do
+  if grep -q "Started ExampleApplication" "$LOG"; then
+    break
+  fi
+  kill -0 $PID 2>/dev/null || fail "process exited during startup"
+  sleep 0.1
+done
+grep -q "Started ExampleApplication" "$LOG" || fail "did not start within 30 seconds"
+
+grep "Started ExampleApplication" "$LOG"
+echo "RSS after startup: $(( $(ps -o rss= -p $PID) / 1024 )) MiB"
+
+expect() {
+  local expected=$1 path=$2
+  local actual
+  actual=$(curl -s -o /dev/null -w '%{http_code}' "$BASE$path")
+  [ "$actual" = "$expected" ] || fail "GET $path returned $actual, expected $expected"
+  echo "ok   GET $path -> $actual"
+}
+
+# public endpoint serialized by Jackson
+expect 200 /api/systemInfo
+curl -s "$BASE/api/systemInfo" | grep -q '"showSwaggerUILink"' || fail "/api/systemInfo body is not SystemInfo JSON"
+# security: anonymous users get 403 from the API, and a redirect into the OAuth flow
+expect 403 /api/restaurants/all
+expect 403 /api/currentUser
+expect 302 /oauth2/authorization/google
+# springdoc
+expect 200 /v3/api-docs
+
+grep -q "ChangeSet db/migration/changes/.* ran successfully\|Update command completed successfully" "$LOG" \
+  || fail "no evidence in the log that Liquibase ran the changelogs"
+
+echo "native smoke test passed"
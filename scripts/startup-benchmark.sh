@@ -0,0 +1,87 @@
+#!/usr/bin/env bash
+#
+# Measures cold-start time of the packaged app in each startup mode.
+# See docs/startup.md.
+#
+# Usage: scripts/startup-benchmark.sh [runs]
+#
+# Expects an extracted jar with a CDS archive in target/application, which
+# is what the Dockerfile builds; to produce it locally:
+#
+#   mvn -B -Pproduction,aot -DskipTests clean package
+#   java -Djarmode=tools -jar target/team01-1.0.0.jar extract --destination target/application
+#   (cd target/application && java -XX:ArchiveClassesAtExit=team01.jsa -Dspring.aot.enabled=true \
+#       -Dspring.context.exit=onRefresh -Dspring.datasource.url=jdbc:h2:mem:cds \
+#       -Dspring.datasource.username=sa -Dspring.datasource.password= -jar team01-1.0.0.jar)
+#
+# Each mode is started RUNS times against an in-memory H2 database; the
+# script reports the median of the "process running for" time that Spring
+# Boot logs once the application has started, plus the resident set size
+# at that point.
+
+set -euo pipefail
+
+RUNS=${1:-5}
+APP_DIR=${APP_DIR:-target/application}
+JAR=${JAR:-$APP_DIR/team01-1.0.0.jar}
+JSA=${JSA:-$APP_DIR/team01.jsa}
+PORT=${BENCHMARK_PORT:-18080}
+
+COMMON=(-Dspring.datasource.url=jdbc:h2:mem:benchmark -Dspring.datasource.username=sa
+        -Dspring.datasource.password= -Dserver.port=$PORT)
+
+declare -A MODES=(
+  [1-baseline]=""
+  [2-lazy]="-Dspring.main.lazy-initialization=true"
+  [3-cds]="-XX:SharedArchiveFile=$JSA"
+  [4-aot+cds]="-XX:SharedArchiveFile=$JSA -Dspring.aot.enabled=true"
+  [5-aot+cds+lazy]="-XX:SharedArchiveFile=$JSA -Dspring.aot.enabled=true -Dspring.main.lazy-initialization=true"
+)
+
+start_once() {
+  local log
+  log=$(mktemp)
+  # shellcheck disable=SC2086
+  java $1 "${COMMON[@]}" -jar "$JAR" > "$log" 2>&1 &
+  local pid=$!
+  local seconds=""
+  for _ in $(seq 1 600); do
+    seconds=$(sed -n 's/.*Started ExampleApplication in .* (process running for \([0-9.]*\)).*/\1/p' "$log")
+    if [ -n "$seconds" ] || ! kill -0 $pid 2>/dev/null; then
+      break
+    fi
+    sleep 0.1
+  done
+  local rss_kb
+  rss_kb=$(ps -o rss= -p $pid 2>/dev/null || echo 0)
+  kill $pid 2>/dev/null || true
+  wait $pid 2>/dev/null || true
+  if [ -z "$seconds" ]; then
+    echo "startup failed; log follows" >&2
+    cat "$log" >&2
+    rm -f "$log"
+    exit 1
+  fi
+  rm -f "$log"
+  echo "$seconds $((rss_kb / 1024))"
+}
+
+median() {
+  sort -n | awk '{ v[NR] = $1 } END { print v[int((NR + 1) / 2)] }'
+}
+
+echo "Measured on commit $(git rev-parse --short HEAD 2>/dev/null || echo unknown), $RUNS runs per mode,"
+echo "$(java -version 2>&1 | head -1), $(nproc 2>/dev/null || echo '?') CPUs, $(uname -sm)."
+echo
+echo "| mode | median startup (s) | median RSS (MiB) |"
+echo "|------|-------------------:|-----------------:|"
+for mode in $(printf '%s\n' "${!MODES[@]}" | sort); do
+  times=()
+  rss=()
+  for _ in $(seq 1 "$RUNS"); do
+    read -r t r < <(start_once "${MODES[$mode]}")
+    times+=("$t")
+    rss+=("$r")
+  done
+  echo "| ${mode#*-} | $(printf '%s\n' "${times[@]}" | median) | $(printf '%s\n' "${rss[@]}" | median) |"
+done
@@ -0,0 +1,93 @@
+package edu.ucsb.cs156.example.jmh;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import edu.ucsb.cs156.example.config.JacksonConfig;
+
+/**
+ * Compares JSON, CBOR and Smile encode and decode time for /all payloads, using
+ * ObjectMappers configured as BinaryFormatsConfig configures them.
+ *
+ * Payload sizes in bytes are printed once per trial ("payload size: ...") since
+ * they don't vary between iterations.
+ *
+ * Run with: mvn -P jmh test-compile exec:exec -Djmh.args="BinaryFormatBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BinaryFormatBenchmark {
+
+  @Param({ "UCSBDate", "UCSBDiningCommonsMenuItem", "UCSBOrganization" })
+  public String entity;
+
+  @Param({ "1000" })
+  public int size;
+
+  @Param({ "json", "cbor", "smile" })
+  public String format;
+
+  private List<Object> payload;
+  private ObjectWriter writer;
+  private ObjectReader reader;
+  private byte[] encoded;
+
+  @Setup
+  public void setup() throws IOException {
+    Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+        .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    JacksonConfig.tune(builder);
+    switch (format) {
+      case "cbor" -> builder.factory(new CBORFactory());
+      case "smile" -> builder.factory(new SmileFactory());
+      default -> { }
+    }
+    ObjectMapper objectMapper = builder.build();
+    JavaType listType = objectMapper.getTypeFactory()
+        .constructCollectionType(List.class, EntityFixtures.type(entity));
+    payload = EntityFixtures.payload(entity, size);
+    writer = objectMapper.writerFor(listType);
+    reader = objectMapper.readerFor(listType);
+    encoded = writer.writeValueAsBytes(payload);
+    System.out.printf("%npayload size: %s x %d as %s = %d bytes%n", entity, size, format, encoded.length);
+  }
+
+  @Benchmark
+  public OutputStream encode() throws IOException {
+    OutputStream out = OutputStream.nullOutputStream();
+    writer.writeValue(out, payload);
+    return out;
+  }
+
+  @Benchmark
+  public Object decode() throws IOException {
+    return reader.readValue(encoded);
+  }
+}
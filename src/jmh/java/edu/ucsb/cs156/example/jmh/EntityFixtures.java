@@ -0,0 +1,68 @@
+package edu.ucsb.cs156.example.jmh;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import edu.ucsb.cs156.example.entities.Restaurant;
+import edu.ucsb.cs156.example.entities.UCSBDate;
+import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
+import edu.ucsb.cs156.example.entities.UCSBDiningCommonsMenuItem;
+import edu.ucsb.cs156.example.entities.UCSBOrganization;
+
+/**
+ * Builds realistic /all payloads for each entity type, shared by the benchmarks.
+ */
+public final class EntityFixtures {
+
+  private EntityFixtures() {
+  }
+
+  /**
+   * Returns the entity class with this simple name.
+   * @param entity e.g. "UCSBDate"
+   * @return the class
+   */
+  public static Class<?> type(String entity) {
+    return switch (entity) {
+      case "Restaurant" -> Restaurant.class;
+      case "UCSBDate" -> UCSBDate.class;
+      case "UCSBDiningCommons" -> UCSBDiningCommons.class;
+      case "UCSBDiningCommonsMenuItem" -> UCSBDiningCommonsMenuItem.class;
+      case "UCSBOrganization" -> UCSBOrganization.class;
+      default -> throw new IllegalArgumentException(entity);
+    };
+  }
+
+  /**
+   * Builds a list of size entities of the named type.
+   * @param entity e.g. "UCSBDate"
+   * @param size the number of entities
+   * @return the list, as an /all endpoint would return it
+   */
+  public static List<Object> payload(String entity, int size) {
+    IntFunction<Object> factory = switch (entity) {
+      case "Restaurant" -> i -> Restaurant.builder()
+          .id(i).name("Restaurant " + i).description("Tacos, burritos and horchata near campus, open late").build();
+      case "UCSBDate" -> i -> UCSBDate.builder()
+          .id(i).quarterYYYYQ("2024" + (1 + i % 4)).name("Event " + i)
+          .localDateTime(LocalDateTime.of(2024, 1 + i % 12, 1 + i % 28, i % 24, i % 60, i % 60)).build();
+      case "UCSBDiningCommons" -> i -> UCSBDiningCommons.builder()
+          .code("commons" + i).name("Dining Commons " + i).hasSackMeal(i % 2 == 0).hasTakeOutMeal(i % 3 == 0)
+          .hasDiningCam(true).latitude(34.409953 + i * 1e-6).longitude(-119.85277 - i * 1e-6).build();
+      case "UCSBDiningCommonsMenuItem" -> i -> UCSBDiningCommonsMenuItem.builder()
+          .id(i).diningCommonsCode("ortega").name("Baked Pesto Pasta with Chicken " + i).station("Entree Specials")
+          .build();
+      case "UCSBOrganization" -> i -> UCSBOrganization.builder()
+          .orgCode("ORG" + i).orgTranslationShort("Org " + i).orgTranslation("Student Organization Number " + i)
+          .inactive(i % 5 == 0).build();
+      default -> throw new IllegalArgumentException(entity);
+    };
+    List<Object> list = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      list.add(factory.apply(i));
+    }
+    return list;
+  }
+}
@@ -0,0 +1,88 @@
+package edu.ucsb.cs156.example.jmh;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import edu.ucsb.cs156.example.config.JacksonConfig;
+
+/**
+ * Compares JSON encode and decode of /all payloads between Spring Boot's default
+ * ObjectMapper configuration ("default") and JacksonConfig ("tuned").
+ *
+ * Encoding writes to a discarding stream, as the message converter writes to the
+ * response, with a writer built once per type, as the converter's is cached.
+ *
+ * Run with: mvn -P jmh test-compile exec:exec -Djmh.args="JsonSerializationBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+  @Param({ "Restaurant", "UCSBDate", "UCSBDiningCommons", "UCSBDiningCommonsMenuItem", "UCSBOrganization" })
+  public String entity;
+
+  @Param({ "100", "1000" })
+  public int size;
+
+  @Param({ "default", "tuned" })
+  public String mapper;
+
+  private List<Object> payload;
+  private ObjectWriter writer;
+  private ObjectReader reader;
+  private byte[] json;
+
+  @Setup
+  public void setup() throws IOException {
+    // as Spring Boot configures it before any customizers run
+    Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+        .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, SerializationFeature.WRITE_DURATIONS_AS_TIMESTAMPS);
+    if (mapper.equals("tuned")) {
+      JacksonConfig.tune(builder);
+    }
+    ObjectMapper objectMapper = builder.build();
+    JavaType listType = objectMapper.getTypeFactory()
+        .constructCollectionType(List.class, EntityFixtures.type(entity));
+    payload = EntityFixtures.payload(entity, size);
+    writer = objectMapper.writerFor(listType);
+    reader = objectMapper.readerFor(listType);
+    json = writer.writeValueAsBytes(payload);
+  }
+
+  @Benchmark
+  public OutputStream encode() throws IOException {
+    OutputStream out = OutputStream.nullOutputStream();
+    writer.writeValue(out, payload);
+    return out;
+  }
+
+  @Benchmark
+  public Object decode() throws IOException {
+    return reader.readValue(json);
+  }
+}
@@ -0,0 +1,132 @@
+package edu.ucsb.cs156.example.jmh;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.persistenceunit.PersistenceManagedTypes;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import edu.ucsb.cs156.example.entities.UCSBDiningCommonsMenuItem;
+import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsMenuItemRepository;
+import edu.ucsb.cs156.example.services.MenuItemStoreService;
+
+/**
+ * Compares menu item lookups through the JPA repository (against an in-memory H2
+ * database) with lookups in MenuItemStoreService.
+ *
+ * The repository is used outside a transaction, as the controller uses it, so each
+ * call gets a new persistence context.  The time measured for "jpa" is therefore
+ * mostly Hibernate and JDBC overhead rather than disk or network.
+ *
+ * Retained heap is printed once per trial ("retained heap: ..."): for "store" it is
+ * the loaded store, for "jpa" the managed entities and persistence context that one
+ * findAll holds until its EntityManager is closed.  It is measured as the change in
+ * used heap after System.gc(), so treat it as approximate.  Add "-prof gc" to see
+ * the bytes allocated per lookup.
+ *
+ * Run with: mvn -P jmh test-compile exec:exec -Djmh.args="MenuItemStoreBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MenuItemStoreBenchmark {
+
+  @Param({ "jpa", "store" })
+  public String path;
+
+  @Param({ "1000", "10000" })
+  public int size;
+
+  private LocalContainerEntityManagerFactoryBean factory;
+  private UCSBDiningCommonsMenuItemRepository repository;
+  private MenuItemStoreService store;
+  private long nextId;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:menuitems;DB_CLOSE_DELAY=-1", "sa", "");
+    factory = new LocalContainerEntityManagerFactoryBean();
+    factory.setDataSource(dataSource);
+    factory.setManagedTypes(PersistenceManagedTypes.of(UCSBDiningCommonsMenuItem.class.getName()));
+    factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+    factory.setJpaPropertyMap(Map.of("hibernate.hbm2ddl.auto", "create-drop"));
+    factory.afterPropertiesSet();
+    EntityManagerFactory entityManagerFactory = factory.getObject();
+
+    EntityManager loader = entityManagerFactory.createEntityManager();
+    loader.getTransaction().begin();
+    for (Object item : EntityFixtures.payload("UCSBDiningCommonsMenuItem", size)) {
+      ((UCSBDiningCommonsMenuItem) item).setId(0);
+      loader.persist(item);
+    }
+    loader.getTransaction().commit();
+    loader.close();
+
+    repository = new JpaRepositoryFactory(SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory))
+        .getRepository(UCSBDiningCommonsMenuItemRepository.class);
+
+    long before = usedHeap();
+    if (path.equals("store")) {
+      store = new MenuItemStoreService();
+      ReflectionTestUtils.setField(store, "menuItemRepository", repository);
+      ReflectionTestUtils.setField(store, "enabled", true);
+      store.load();
+      System.out.printf("%nretained heap: store of %d items = %d bytes%n", size, usedHeap() - before);
+    } else {
+      EntityManager entityManager = entityManagerFactory.createEntityManager();
+      List<?> managed = entityManager.createQuery("select m from ucsbdiningcommonsmenuitems m").getResultList();
+      System.out.printf("%nretained heap: persistence context of %d items = %d bytes%n", managed.size(),
+          usedHeap() - before);
+      entityManager.close();
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void teardown() {
+    factory.destroy();
+  }
+
+  @Benchmark
+  public Object findById() {
+    nextId = nextId % size + 1;
+    return path.equals("store") ? store.findById(nextId) : repository.findById(nextId);
+  }
+
+  @Benchmark
+  public Object findAll() {
+    return path.equals("store") ? store.findAll() : repository.findAll();
+  }
+
+  private static long usedHeap() {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+}
@@ -0,0 +1,68 @@
+package edu.ucsb.cs156.example.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Collects latency samples for one kind of operation and reports percentiles.
+ *
+ * Each worker owns its own LatencyStats, so recording is not synchronized;
+ * the driver merges them once the run is over.
+ */
+public class LatencyStats {
+
+  private long[] samples = new long[1024];
+  private int count;
+  private long errors;
+
+  /**
+   * Records a successful operation.
+   * @param nanos how long the operation took
+   */
+  public void record(long nanos) {
+    if (count == samples.length) {
+      samples = Arrays.copyOf(samples, count * 2);
+    }
+    samples[count++] = nanos;
+  }
+
+  /**
+   * Records a failed operation; failures are counted but not timed.
+   */
+  public void recordError() {
+    errors++;
+  }
+
+  /**
+   * Adds all of other's samples to this one.
+   * @param other the stats to merge in
+   */
+  public void merge(LatencyStats other) {
+    for (int i = 0; i < other.count; i++) {
+      record(other.samples[i]);
+    }
+    errors += other.errors;
+  }
+
+  public int getCount() {
+    return count;
+  }
+
+  public long getErrors() {
+    return errors;
+  }
+
+  /**
+   * Returns the latency below which the given fraction of samples fall.
+   * @param fraction e.g. 0.99 for the 99th percentile
+   * @return the latency in milliseconds, or 0 if there are no samples
+   */
+  public double percentileMillis(double fraction) {
+    if (count == 0) {
+      return 0;
+    }
+    long[] sorted = Arrays.copyOf(samples, count);
+    Arrays.sort(sorted);
+    int index = (int) Math.ceil(fraction * count) - 1;
+    return sorted[Math.max(0, Math.min(index, count - 1))] / 1_000_000.0;
+  }
+}
@@ -0,0 +1,201 @@
+package edu.ucsb.cs156.example.loadtest;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A closed-loop load generator for the app running with the wiremock profile.
+ *
+ * Each simulated user logs in through the wiremock OAuth stubs, then loops
+ * issuing reads (GET /all on one of the collections) and writes (create,
+ * update or delete a restaurant) in the configured ratio until the run ends.
+ * Samples taken during the warmup period are discarded.
+ *
+ * The first loadtest.admins sessions log in as admingaucho and do the writes;
+ * when the app runs with WIREMOCK_USERS set, every other session logs in as
+ * its own user (loadtest0, loadtest1, ...) and only reads.
+ *
+ * Setting loadtest.sweep to a list of user counts runs one measured stage per
+ * count and then prints throughput against concurrency, marking the knee of
+ * the curve; see reportSweep.
+ *
+ * Configuration is by system property, e.g.
+ *   mvn -P loadtest -Dloadtest.users=50 -Dloadtest.writeRatio=0.1 exec:java
+ * See docs/load-testing.md.
+ */
+public class LoadTestDriver {
+
+  /** A concurrency level is past the knee when the next level adds less than this much throughput. */
+  static final double KNEE_GAIN = 0.10;
+
+  static final String[] READ_PATHS = {
+      "/api/ucsbdates/all",
+      "/api/restaurants/all",
+      "/api/ucsbdiningcommons/all",
+      "/api/ucsbdiningcommonsmenuitem/all",
+      "/api/ucsborganization/all",
+  };
+
+  public static void main(String[] args) throws Exception {
+    String baseUrl = System.getProperty("loadtest.baseUrl", "http://localhost:8080");
+    String wiremockUrl = System.getProperty("loadtest.wiremockUrl", "http://localhost:8090");
+    int users = Integer.getInteger("loadtest.users", 20);
+    int warmupSeconds = Integer.getInteger("loadtest.warmupSeconds", 10);
+    int durationSeconds = Integer.getInteger("loadtest.durationSeconds", 60);
+    double writeRatio = Double.parseDouble(System.getProperty("loadtest.writeRatio", "0.1"));
+    long thinkMillis = Long.getLong("loadtest.thinkMillis", 0);
+    String adminsProperty = System.getProperty("loadtest.admins");
+    String sweep = System.getProperty("loadtest.sweep", "");
+    String csv = System.getProperty("loadtest.csv", "");
+
+    List<Integer> levels = new ArrayList<>();
+    if (sweep.isBlank()) {
+      levels.add(users);
+    } else {
+      for (String level : sweep.split(",")) {
+        levels.add(Integer.parseInt(level.trim()));
+      }
+    }
+
+    List<String> csvRows = new ArrayList<>();
+    csvRows.add("users,writeRatio,operation,ok,errors,opsPerSecond,p50Millis,p90Millis,p99Millis,maxMillis");
+    List<LatencyStats> sweepTotals = new ArrayList<>();
+    for (int level : levels) {
+      int admins = Math.min(level,
+          adminsProperty == null ? Math.max(1, level / 10) : Integer.parseInt(adminsProperty));
+      Map<String, LatencyStats> totals = runLevel(baseUrl, wiremockUrl, level, admins, warmupSeconds,
+          durationSeconds, writeRatio, thinkMillis);
+      report(totals, durationSeconds, level, writeRatio, csvRows);
+      sweepTotals.add(totals.get("ALL"));
+    }
+    if (levels.size() > 1) {
+      reportSweep(levels, sweepTotals, durationSeconds);
+    }
+    if (!csv.isEmpty()) {
+      try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(Path.of(csv)))) {
+        csvRows.forEach(out::println);
+      }
+      System.out.printf("Results written to %s%n", csv);
+    }
+  }
+
+  static Map<String, LatencyStats> runLevel(String baseUrl, String wiremockUrl, int users, int admins,
+      int warmupSeconds, int durationSeconds, double writeRatio, long thinkMillis) throws Exception {
+    System.out.printf("Load test: %d users (%d admins) against %s, %ds warmup + %ds measured, %.0f%% admin writes%n",
+        users, admins, baseUrl, warmupSeconds, durationSeconds, writeRatio * 100);
+
+    List<SimulatedUser> sessions = new ArrayList<>();
+    long loginStart = System.nanoTime();
+    for (int i = 0; i < users; i++) {
+      SimulatedUser user = new SimulatedUser(baseUrl, wiremockUrl, i < admins ? "admingaucho" : "loadtest" + i);
+      user.login();
+      sessions.add(user);
+    }
+    System.out.printf("%d users logged in in %d ms%n", sessions.size(),
+        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - loginStart));
+
+    long start = System.nanoTime();
+    long measureFrom = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+    long end = measureFrom + TimeUnit.SECONDS.toNanos(durationSeconds);
+
+    List<Future<Map<String, LatencyStats>>> results = new ArrayList<>();
+    try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int i = 0; i < sessions.size(); i++) {
+        SimulatedUser user = sessions.get(i);
+        double ratio = i < admins ? writeRatio : 0;
+        results.add(workers.submit(() -> run(user, ratio, thinkMillis, measureFrom, end)));
+      }
+    }
+
+    Map<String, LatencyStats> totals = new LinkedHashMap<>();
+    for (Future<Map<String, LatencyStats>> result : results) {
+      result.get().forEach((op, stats) -> totals.computeIfAbsent(op, k -> new LatencyStats()).merge(stats));
+    }
+    LatencyStats all = new LatencyStats();
+    totals.values().forEach(all::merge);
+    totals.put("ALL", all);
+    return totals;
+  }
+
+  static Map<String, LatencyStats> run(SimulatedUser user, double writeRatio, long thinkMillis,
+      long measureFrom, long end) throws InterruptedException {
+    Map<String, LatencyStats> stats = new LinkedHashMap<>();
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    while (System.nanoTime() < end) {
+      boolean write = random.nextDouble() < writeRatio;
+      String op = write ? "WRITE /api/restaurants" : "GET " + READ_PATHS[random.nextInt(READ_PATHS.length)];
+      long t0 = System.nanoTime();
+      int status;
+      try {
+        status = write ? user.write() : user.read(op.substring(4));
+      } catch (IOException e) {
+        status = -1;
+      }
+      long t1 = System.nanoTime();
+      if (t0 >= measureFrom && t1 <= end) {
+        LatencyStats s = stats.computeIfAbsent(op, k -> new LatencyStats());
+        if (status >= 200 && status < 300) {
+          s.record(t1 - t0);
+        } else {
+          s.recordError();
+        }
+      }
+      if (thinkMillis > 0) {
+        Thread.sleep(thinkMillis);
+      }
+    }
+    return stats;
+  }
+
+  static void report(Map<String, LatencyStats> totals, int durationSeconds, int users, double writeRatio,
+      List<String> csvRows) {
+    String header = String.format("%-40s %8s %7s %9s %9s %9s %9s %9s",
+        "operation", "ok", "errors", "ops/s", "p50 ms", "p90 ms", "p99 ms", "max ms");
+    System.out.println(header);
+    totals.forEach((op, s) -> {
+      double throughput = (double) s.getCount() / durationSeconds;
+      System.out.printf("%-40s %8d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n", op, s.getCount(), s.getErrors(),
+          throughput, s.percentileMillis(0.50), s.percentileMillis(0.90), s.percentileMillis(0.99),
+          s.percentileMillis(1.0));
+      csvRows.add(String.format("%d,%.2f,%s,%d,%d,%.1f,%.2f,%.2f,%.2f,%.2f", users, writeRatio, op, s.getCount(),
+          s.getErrors(), throughput, s.percentileMillis(0.50), s.percentileMillis(0.90),
+          s.percentileMillis(0.99), s.percentileMillis(1.0)));
+    });
+  }
+
+  /**
+   * Prints overall throughput and p99 for each concurrency level and marks the knee:
+   * the last level before adding users stopped raising throughput by at least
+   * KNEE_GAIN.  Past the knee, extra users only queue (for a connection, a request
+   * thread, or the database) and latency grows with little or no gain in throughput.
+   */
+  static void reportSweep(List<Integer> levels, List<LatencyStats> totals, int durationSeconds) {
+    System.out.printf("%nConcurrency sweep%n%8s %9s %9s %9s%n", "users", "ops/s", "p99 ms", "errors");
+    int knee = -1;
+    for (int i = 0; i < levels.size(); i++) {
+      double throughput = (double) totals.get(i).getCount() / durationSeconds;
+      if (knee < 0 && i + 1 < levels.size()) {
+        double next = (double) totals.get(i + 1).getCount() / durationSeconds;
+        if (next < throughput * (1 + KNEE_GAIN)) {
+          knee = i;
+        }
+      }
+      System.out.printf("%8d %9.1f %9.2f %9d%s%n", levels.get(i), throughput,
+          totals.get(i).percentileMillis(0.99), totals.get(i).getErrors(), knee == i ? "   <- knee" : "");
+    }
+    if (knee < 0) {
+      System.out.println("Throughput was still rising at the highest level; extend loadtest.sweep to find the knee.");
+    }
+  }
+}
@@ -0,0 +1,162 @@
+package edu.ucsb.cs156.example.loadtest;
+
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.HttpCookie;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * One browser session: its own cookie jar, logged in through the wiremock
+ * OAuth stubs exactly the way a browser would be.
+ *
+ * The login dance is
+ *   GET  /oauth2/authorization/my-oauth-provider  (302 to wiremock /oauth/authorize)
+ *   POST wiremock /login with the state and redirectUri from that URL
+ *        (307 to /login/oauth2/code/my-oauth-provider?code=...&state=...)
+ *   GET  that URL, after which the app has an authenticated JSESSIONID.
+ * Redirects are followed by hand so the 307 is not replayed as a POST.
+ */
+public class SimulatedUser {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private final String baseUrl;
+  private final String wiremockUrl;
+  private final String username;
+  private final CookieManager cookies = new CookieManager();
+  private final HttpClient client;
+  private final Deque<Long> createdRestaurants = new ArrayDeque<>();
+  private long sequence;
+
+  public SimulatedUser(String baseUrl, String wiremockUrl, String username) {
+    this.baseUrl = baseUrl;
+    this.wiremockUrl = wiremockUrl;
+    this.username = username;
+    this.client = HttpClient.newBuilder()
+        .cookieHandler(cookies)
+        .followRedirects(HttpClient.Redirect.NEVER)
+        .connectTimeout(Duration.ofSeconds(10))
+        .build();
+  }
+
+  /**
+   * Logs this user in and primes the XSRF-TOKEN cookie.
+   * @throws IOException if any step of the login does not redirect as expected
+   * @throws InterruptedException if interrupted
+   */
+  public void login() throws IOException, InterruptedException {
+    URI authorize = redirect(send(get(baseUrl + "/oauth2/authorization/my-oauth-provider")));
+    Map<String, String> query = parseQuery(authorize.getRawQuery());
+
+    String form = "username=" + encode(username)
+        + "&password=password"
+        + "&state=" + encode(query.get("state"))
+        + "&redirectUri=" + encode(query.get("redirect_uri"));
+    HttpResponse<String> loggedIn = send(HttpRequest.newBuilder(URI.create(wiremockUrl + "/login"))
+        .header("Content-Type", "application/x-www-form-urlencoded")
+        .POST(HttpRequest.BodyPublishers.ofString(form))
+        .build());
+
+    redirect(send(get(redirect(loggedIn).toString())));
+
+    HttpResponse<String> currentUser = send(get(baseUrl + "/api/currentUser"));
+    if (currentUser.statusCode() != 200) {
+      throw new IOException(username + " is not logged in: /api/currentUser returned " + currentUser.statusCode());
+    }
+  }
+
+  /**
+   * Performs one read: GET /all on a randomly chosen collection.
+   * @param path e.g. /api/ucsbdates/all
+   * @return the HTTP status
+   */
+  public int read(String path) throws IOException, InterruptedException {
+    return send(get(baseUrl + path)).statusCode();
+  }
+
+  /**
+   * Performs one write against /api/restaurants, cycling through create, update and delete
+   * so that the table does not grow without bound over a long run.
+   * @return the HTTP status
+   */
+  public int write() throws IOException, InterruptedException {
+    long n = sequence++;
+    if (n % 3 == 0 || createdRestaurants.isEmpty()) {
+      HttpResponse<String> response = send(withCsrf(HttpRequest.newBuilder(URI.create(baseUrl
+          + "/api/restaurants/post?name=" + encode(username + "-" + n) + "&description=loadtest")))
+          .POST(HttpRequest.BodyPublishers.noBody())
+          .build());
+      if (response.statusCode() == 200) {
+        JsonNode restaurant = MAPPER.readTree(response.body());
+        createdRestaurants.addLast(restaurant.get("id").asLong());
+      }
+      return response.statusCode();
+    }
+    if (n % 3 == 1) {
+      long id = createdRestaurants.peekLast();
+      String body = MAPPER.writeValueAsString(Map.of("name", username + "-" + n, "description", "updated"));
+      return send(withCsrf(HttpRequest.newBuilder(URI.create(baseUrl + "/api/restaurants?id=" + id)))
+          .header("Content-Type", "application/json")
+          .PUT(HttpRequest.BodyPublishers.ofString(body))
+          .build()).statusCode();
+    }
+    long id = createdRestaurants.removeFirst();
+    return send(withCsrf(HttpRequest.newBuilder(URI.create(baseUrl + "/api/restaurants?id=" + id)))
+        .DELETE()
+        .build()).statusCode();
+  }
+
+  private HttpRequest.Builder withCsrf(HttpRequest.Builder builder) {
+    for (HttpCookie cookie : cookies.getCookieStore().getCookies()) {
+      if (cookie.getName().equals("XSRF-TOKEN")) {
+        builder.header("X-XSRF-TOKEN", cookie.getValue());
+      }
+    }
+    return builder;
+  }
+
+  private HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+    return client.send(request, HttpResponse.BodyHandlers.ofString());
+  }
+
+  private static HttpRequest get(String url) {
+    return HttpRequest.newBuilder(URI.create(url)).GET().build();
+  }
+
+  private static URI redirect(HttpResponse<String> response) throws IOException {
+    int status = response.statusCode();
+    if (status < 300 || status >= 400) {
+      throw new IOException("expected a redirect from " + response.uri() + " but got " + status);
+    }
+    String location = response.headers().firstValue("Location")
+        .orElseThrow(() -> new IOException("redirect from " + response.uri() + " has no Location"));
+    return response.uri().resolve(location);
+  }
+
+  private static Map<String, String> parseQuery(String query) {
+    Map<String, String> params = new HashMap<>();
+    for (String pair : query.split("&")) {
+      int eq = pair.indexOf('=');
+      params.put(pair.substring(0, eq), URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+    }
+    return params;
+  }
+
+  private static String encode(String value) {
+    return URLEncoder.encode(value, StandardCharsets.UTF_8);
+  }
+}
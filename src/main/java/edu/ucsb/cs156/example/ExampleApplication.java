@@ -1,12 +1,18 @@
 package edu.ucsb.cs156.example;
 
+import java.util.Arrays;
+import java.util.stream.Stream;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.ApplicationRunner;
 import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Profile;
 
+import edu.ucsb.cs156.example.config.DatabaseMigration;
 import edu.ucsb.cs156.example.services.wiremock.WiremockService;
 import lombok.extern.slf4j.Slf4j;
 
@@ -47,9 +53,21 @@ public class ExampleApplication {
 
    /**
    * The main method is the entry point for the application.
+   *
+   * If the first argument is "migrate", it only runs the Liquibase migrations and exits;
+   * see DatabaseMigration.
+   *
    * @param args command line arguments, typically unused for Spring Boot applications
    */
   public static void main(String[] args) {
+    if (args.length > 0 && DatabaseMigration.COMMAND.equals(args[0])) {
+      String[] migrationArgs = Stream.concat(Arrays.stream(args).skip(1), Stream.of(
+          "--app.liquibase.skipWhenUnchanged=false", "--spring.main.lazy-initialization=false"))
+          .toArray(String[]::new);
+      System.exit(SpringApplication.exit(new SpringApplicationBuilder(DatabaseMigration.class)
+          .web(WebApplicationType.NONE)
+          .run(migrationArgs)));
+    }
     SpringApplication.run(ExampleApplication.class, args);
   }
 }
\ No newline at end of file
@@ -0,0 +1,49 @@
+package edu.ucsb.cs156.example.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Lets API clients ask for CBOR (Accept: application/cbor) or Smile
+ * (Accept: application/x-jackson-smile) instead of JSON, and send request
+ * bodies in those formats (Content-Type).  Both are binary encodings of the
+ * same data model as JSON, so field names and values are exactly what the
+ * JSON API returns; they are smaller and cheaper to parse.
+ *
+ * Spring MVC would register these converters by itself, but with a default
+ * ObjectMapper; declaring them as beans makes Spring Boot use them in place
+ * of those, so they get the same configuration as the JSON converter
+ * (spring.jackson.* properties, JacksonConfig, ISO-8601 dates).  JSON stays
+ * first in the list, so it is still what a client gets for Accept: *&#47;*.
+ *
+ * See docs/benchmarks.md for size and speed comparisons.
+ */
+@Configuration
+public class BinaryFormatsConfig {
+
+  /**
+   * The CBOR converter.
+   * @param builder Spring Boot's ObjectMapper builder (a new one per injection point)
+   * @return the converter
+   */
+  @Bean
+  public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+    return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+  }
+
+  /**
+   * The Smile converter.
+   * @param builder Spring Boot's ObjectMapper builder (a new one per injection point)
+   * @return the converter
+   */
+  @Bean
+  public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+    return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+  }
+}
@@ -0,0 +1,24 @@
+package edu.ucsb.cs156.example.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+/**
+ * Adds an ETag (a hash of the response body) to GET /api/bootstrap responses, and
+ * answers 304 Not Modified when the browser's If-None-Match matches it.
+ *
+ * The response is still built on every request; what this saves is sending it,
+ * and the browser parsing it again.
+ */
+@Component
+public class BootstrapEtagFilter extends ShallowEtagHeaderFilter {
+
+  static final String PATH = "/api/bootstrap";
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return !PATH.equals(request.getRequestURI());
+  }
+}
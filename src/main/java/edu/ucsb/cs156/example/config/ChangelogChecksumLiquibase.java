@@ -0,0 +1,132 @@
+package edu.ucsb.cs156.example.config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.TreeMap;
+
+import liquibase.exception.LiquibaseException;
+import liquibase.integration.spring.SpringLiquibase;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.ResourcePatternUtils;
+
+/**
+ * A SpringLiquibase that skips the Liquibase run entirely when the changelogs
+ * have not changed since the last successful run against this database.
+ *
+ * A normal Liquibase run parses every changelog under db/migration, takes the
+ * database lock and evaluates every changeSet's preconditions, even when there
+ * is nothing to apply.  Instead, this computes a SHA-256 over the names and
+ * contents of every file matching checksumLocations (plus the configured
+ * contexts and labels), and compares it with the one stored in the
+ * CHANGELOG_MARKER table after the last successful update.  If they match,
+ * the schema is up to date and Liquibase is not started at all.
+ *
+ * If anything other than Liquibase changes the schema, set
+ * app.liquibase.skipWhenUnchanged=false (or run with the migrate command, see
+ * DatabaseMigration) to force a full run.
+ */
+@Slf4j
+public class ChangelogChecksumLiquibase extends SpringLiquibase {
+
+  static final String MARKER_TABLE = "CHANGELOG_MARKER";
+
+  private String checksumLocations = "classpath*:db/migration/**/*";
+
+  private boolean skipWhenUnchanged = true;
+
+  public void setChecksumLocations(String checksumLocations) {
+    this.checksumLocations = checksumLocations;
+  }
+
+  public void setSkipWhenUnchanged(boolean skipWhenUnchanged) {
+    this.skipWhenUnchanged = skipWhenUnchanged;
+  }
+
+  @Override
+  public void afterPropertiesSet() throws LiquibaseException {
+    String checksum = changelogChecksum();
+    if (skipWhenUnchanged && checksum.equals(storedChecksum())) {
+      log.info("Changelogs unchanged since the last migration (checksum {}); skipping Liquibase", checksum);
+      return;
+    }
+    super.afterPropertiesSet();
+    storeChecksum(checksum);
+  }
+
+  String changelogChecksum() {
+    try {
+      Map<String, Resource> files = new TreeMap<>();
+      for (Resource resource : ResourcePatternUtils.getResourcePatternResolver(getResourceLoader())
+          .getResources(checksumLocations)) {
+        if (resource.isReadable()) {
+          // key by the path below db/ so the checksum is the same from a jar or a directory
+          String url = resource.getURL().toString();
+          int db = url.lastIndexOf("/db/");
+          files.put(db < 0 ? url : url.substring(db + 1), resource);
+        }
+      }
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      digest.update(String.valueOf(getChangeLog()).getBytes(StandardCharsets.UTF_8));
+      digest.update(String.valueOf(getContexts()).getBytes(StandardCharsets.UTF_8));
+      digest.update(String.valueOf(getLabelFilter()).getBytes(StandardCharsets.UTF_8));
+      for (Map.Entry<String, Resource> file : files.entrySet()) {
+        digest.update(file.getKey().getBytes(StandardCharsets.UTF_8));
+        try (InputStream in = file.getValue().getInputStream()) {
+          digest.update(in.readAllBytes());
+        }
+      }
+      return HexFormat.of().formatHex(digest.digest());
+    } catch (IOException | NoSuchAlgorithmException e) {
+      throw new IllegalStateException("Could not compute changelog checksum", e);
+    }
+  }
+
+  String storedChecksum() {
+    try (Connection connection = getDataSource().getConnection();
+        Statement statement = connection.createStatement();
+        ResultSet rs = statement.executeQuery("SELECT CHECKSUM FROM " + MARKER_TABLE + " WHERE ID = 1")) {
+      return rs.next() ? rs.getString(1) : null;
+    } catch (SQLException e) {
+      // most likely a new database that doesn't have the marker table yet
+      log.debug("No changelog marker: {}", e.getMessage());
+      return null;
+    }
+  }
+
+  void storeChecksum(String checksum) throws LiquibaseException {
+    try (Connection connection = getDataSource().getConnection()) {
+      boolean autoCommit = connection.getAutoCommit();
+      connection.setAutoCommit(false);
+      try (Statement delete = connection.createStatement();
+          PreparedStatement insert = connection.prepareStatement(
+              "INSERT INTO " + MARKER_TABLE + " (ID, CHECKSUM, APPLIED_AT) VALUES (1, ?, ?)")) {
+        delete.executeUpdate("DELETE FROM " + MARKER_TABLE);
+        insert.setString(1, checksum);
+        insert.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now()));
+        insert.executeUpdate();
+        connection.commit();
+      } catch (SQLException e) {
+        connection.rollback();
+        throw e;
+      } finally {
+        connection.setAutoCommit(autoCommit);
+      }
+    } catch (SQLException e) {
+      throw new LiquibaseException("Could not store changelog checksum in " + MARKER_TABLE, e);
+    }
+  }
+}
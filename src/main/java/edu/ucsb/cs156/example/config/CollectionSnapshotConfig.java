@@ -0,0 +1,67 @@
+package edu.ucsb.cs156.example.config;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Executors;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import edu.ucsb.cs156.example.repositories.UCSBDateRepository;
+import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsMenuItemRepository;
+import edu.ucsb.cs156.example.services.CollectionSnapshotService;
+import edu.ucsb.cs156.example.services.PrimaryReadService;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * This configures snapshot mode for the largest collections, UCSBDate and
+ * UCSBDiningCommonsMenuItem, whose /all responses are then served from files
+ * written in the background; see CollectionSnapshotService.
+ *
+ * It is only active when app.snapshots.enabled is true.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "app.snapshots.enabled", havingValue = "true")
+public class CollectionSnapshotConfig {
+
+  /**
+   * The snapshot service, with its own single writer thread.  The rows are read from the
+   * primary, because a snapshot is served until the next change to its type, and rows read
+   * from a lagging replica would be served as the current ones for all that time.
+   * @param directory where each instance creates its own directory for snapshot files
+   * @param debounce how long after the last change a snapshot is written
+   * @param retain how long replaced snapshot files are kept for requests still sending them
+   * @param mapper serializes the rows
+   * @param primaryReads runs the reads against the primary database
+   * @param dates the UCSBDate repository
+   * @param menuItems the UCSBDiningCommonsMenuItem repository
+   * @return the snapshot service
+   * @throws IOException if the snapshot directory cannot be created
+   */
+  @Bean(destroyMethod = "close")
+  public CollectionSnapshotService collectionSnapshotService(
+      @Value("${app.snapshots.directory:${java.io.tmpdir}/team01-snapshots}") Path directory,
+      @Value("${app.snapshots.debounce:2s}") Duration debounce,
+      @Value("${app.snapshots.retain:60s}") Duration retain,
+      ObjectMapper mapper,
+      PrimaryReadService primaryReads,
+      UCSBDateRepository dates,
+      UCSBDiningCommonsMenuItemRepository menuItems) throws IOException {
+    log.info("serving UCSBDate and UCSBDiningCommonsMenuItem /all from snapshots in {}", directory);
+    return new CollectionSnapshotService(directory, debounce, retain, mapper,
+        Map.of("UCSBDate", () -> primaryReads.read(dates::findAll),
+            "UCSBDiningCommonsMenuItem", () -> primaryReads.read(menuItems::findAll)),
+        Executors.newSingleThreadScheduledExecutor(runnable -> {
+          Thread thread = new Thread(runnable, "snapshot-writer");
+          thread.setDaemon(true);
+          return thread;
+        }));
+  }
+}
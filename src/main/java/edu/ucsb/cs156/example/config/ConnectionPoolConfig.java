@@ -0,0 +1,45 @@
+package edu.ucsb.cs156.example.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import edu.ucsb.cs156.example.services.ConnectionPoolMetricsService;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * This attaches ConnectionPoolMetricsService to every HikariCP pool in the application
+ * (the single auto-configured pool, or the primary and replica pools when a replica is configured).
+ *
+ * Pool sizing, timeouts and leak detection are set per profile with
+ * spring.datasource.hikari.* in the application-*.properties files.
+ */
+@Configuration
+public class ConnectionPoolConfig {
+
+  /**
+   * Sets the metrics tracker factory on each HikariDataSource before its pool starts.
+   *
+   * This is static, and looks the service up lazily, so that declaring it does not
+   * force the service to be created early.
+   *
+   * @param connectionPoolMetrics provider for the service that collects the metrics
+   * @return the post-processor
+   */
+  @Bean
+  public static BeanPostProcessor connectionPoolMetricsPostProcessor(
+      ObjectProvider<ConnectionPoolMetricsService> connectionPoolMetrics) {
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof HikariDataSource hikari && hikari.getMetricsTrackerFactory() == null) {
+          hikari.setMetricsTrackerFactory(
+              (poolName, poolStats) -> connectionPoolMetrics.getObject().create(poolName, poolStats));
+        }
+        return bean;
+      }
+    };
+  }
+}
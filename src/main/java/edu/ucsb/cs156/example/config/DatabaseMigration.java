@@ -0,0 +1,24 @@
+package edu.ucsb.cs156.example.config;
+
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.liquibase.LiquibaseAutoConfiguration;
+import org.springframework.context.annotation.Import;
+
+/**
+ * A minimal application context that only creates the data source and runs
+ * Liquibase, used by "java -jar team01-1.0.0.jar migrate" (see ExampleApplication).
+ *
+ * It always does a full Liquibase run (skipWhenUnchanged is turned off) and
+ * then exits, so a deployment can migrate the database once, before any app
+ * instance starts, and the instances themselves take the fast path.
+ *
+ * This is deliberately not a @Configuration, so that the application's own
+ * component scan does not pick it up.
+ */
+@ImportAutoConfiguration({ DataSourceAutoConfiguration.class, LiquibaseAutoConfiguration.class })
+@Import(LiquibaseConfig.class)
+public class DatabaseMigration {
+  /** The command line argument that selects this mode. */
+  public static final String COMMAND = "migrate";
+}
@@ -0,0 +1,87 @@
+package edu.ucsb.cs156.example.config;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * This configures the Ehcache (JCache) regions backing Hibernate's second-level cache.
+ *
+ * Every region is declared here with a heap size and a time to live read from
+ * app.cache.&lt;region&gt;.heapEntries and app.cache.&lt;region&gt;.ttl, and
+ * hibernate.javax.cache.missing_cache_strategy=fail makes sure an entity can't
+ * quietly end up in an unbounded region that nobody configured.
+ */
+@Slf4j
+@Configuration
+public class HibernateCacheConfig {
+
+  /**
+   * The regions named in the @Cache annotations on entities.
+   */
+  public static final List<String> ENTITY_REGIONS = List.of("ucsbDiningCommons", "ucsbOrganization", "ucsbDates");
+
+  /**
+   * This method builds a CacheManager holding every second-level cache region.
+   *
+   * Each application context gets its own CacheManager (under a unique URI),
+   * so test contexts that Spring keeps cached side by side don't share regions.
+   *
+   * @param env the Spring environment, for the per-region properties
+   * @return the CacheManager that Hibernate should use
+   */
+  @Bean(destroyMethod = "close")
+  public CacheManager hibernateCacheManager(Environment env) {
+    ConfigurationBuilder config = ConfigurationBuilder.newConfigurationBuilder();
+    for (String region : ENTITY_REGIONS) {
+      config = config.withCache(region, region(env, region, 1000, Duration.ofHours(1)));
+    }
+    config = config.withCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME,
+        region(env, "queryResults", 1000, Duration.ofMinutes(10)));
+    // update timestamps must outlive every cached query result, so they never expire
+    config = config.withCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME,
+        region(env, "updateTimestamps", 1000, Duration.ZERO));
+
+    EhcacheCachingProvider provider = (EhcacheCachingProvider) Caching
+        .getCachingProvider(EhcacheCachingProvider.class.getName());
+    return provider.getCacheManager(URI.create("urn:hibernate-l2:" + UUID.randomUUID()), config.build());
+  }
+
+  /**
+   * This method hands the CacheManager to Hibernate.
+   * @param hibernateCacheManager the CacheManager built above
+   * @return a customizer that sets hibernate.javax.cache.cache_manager
+   */
+  @Bean
+  public HibernatePropertiesCustomizer hibernateCacheManagerCustomizer(CacheManager hibernateCacheManager) {
+    return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+  }
+
+  private static CacheConfigurationBuilder<Object, Object> region(Environment env, String name,
+      long defaultHeapEntries, Duration defaultTtl) {
+    long heapEntries = env.getProperty("app.cache." + name + ".heapEntries", Long.class, defaultHeapEntries);
+    Duration ttl = env.getProperty("app.cache." + name + ".ttl", Duration.class, defaultTtl);
+    log.info("second-level cache region {}: {} entries, ttl {}", name, heapEntries, ttl);
+    return CacheConfigurationBuilder
+        .newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(heapEntries))
+        .withExpiry(ttl.isZero() ? ExpiryPolicyBuilder.noExpiration() : ExpiryPolicyBuilder.timeToLiveExpiration(ttl));
+  }
+}
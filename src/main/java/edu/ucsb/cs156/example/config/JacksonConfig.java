@@ -0,0 +1,102 @@
+package edu.ucsb.cs156.example.config;
+
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.StreamReadFeature;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.NativeDetector;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import edu.ucsb.cs156.example.entities.Restaurant;
+import edu.ucsb.cs156.example.entities.UCSBDate;
+import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
+import edu.ucsb.cs156.example.entities.UCSBDiningCommonsMenuItem;
+import edu.ucsb.cs156.example.entities.UCSBOrganization;
+
+/**
+ * Tunes the ObjectMapper that Spring Boot builds for the REST controllers.
+ *
+ * <ul>
+ * <li>The Blackbird module replaces reflective getter and setter calls on our
+ * Lombok-generated entities with generated lambdas.  It is skipped in a native
+ * image, where classes can't be generated at runtime.</li>
+ * <li>FLUSH_AFTER_WRITE_VALUE is off: the message converter flushes the response
+ * once it has written the whole body.</li>
+ * <li>The fast floating point writer and parser are on (latitude/longitude,
+ * statistics).  They are JsonFactory features, so the JSON factory is replaced;
+ * the CBOR and Smile converters replace it again with their own.</li>
+ * </ul>
+ *
+ * Dates are unchanged: JavaTimeModule already writes LocalDateTime as ISO-8601
+ * text with a DateTimeFormatter, not by reflection.
+ *
+ * Serializers for the entities returned by the /all and single-item endpoints are
+ * built at startup (see primeJsonWriters) instead of on each type's first request.
+ *
+ * The JMH benchmark in src/jmh/java compares this against the default configuration;
+ * see docs/benchmarks.md.
+ */
+@Slf4j
+@Configuration
+public class JacksonConfig {
+
+  /** Entity types whose serializers are built at startup. */
+  public static final List<Class<?>> HOT_TYPES = List.of(
+      Restaurant.class, UCSBDate.class, UCSBDiningCommons.class,
+      UCSBDiningCommonsMenuItem.class, UCSBOrganization.class);
+
+  /**
+   * Applies this configuration to the ObjectMapper builder that Spring Boot uses.
+   * @return the customizer
+   */
+  @Bean
+  public Jackson2ObjectMapperBuilderCustomizer tunedObjectMapper() {
+    return JacksonConfig::tune;
+  }
+
+  /**
+   * Applies this configuration to a builder; public so that benchmarks and tests
+   * can build the same ObjectMapper the application uses.
+   * @param builder the builder to configure
+   */
+  public static void tune(Jackson2ObjectMapperBuilder builder) {
+    builder.featuresToDisable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    builder.factory(JsonFactory.builder()
+        .enable(StreamWriteFeature.USE_FAST_DOUBLE_WRITER)
+        .enable(StreamReadFeature.USE_FAST_DOUBLE_PARSER)
+        .build());
+    if (!NativeDetector.inNativeImage()) {
+      builder.postConfigurer(mapper -> mapper.registerModule(new BlackbirdModule()));
+    }
+  }
+
+  /**
+   * Builds and caches the serializers for each hot type and for Iterable of it
+   * (the declared return type of the /all endpoints) once the context has started.
+   * @param objectMapper the application's ObjectMapper
+   * @return the initializer
+   */
+  @Bean
+  public SmartInitializingSingleton primeJsonWriters(ObjectMapper objectMapper) {
+    return () -> {
+      TypeFactory types = objectMapper.getTypeFactory();
+      for (Class<?> type : HOT_TYPES) {
+        objectMapper.writerFor(type);
+        objectMapper.writerFor(types.constructParametricType(Iterable.class, type));
+      }
+      log.info("Built JSON serializers for {}", HOT_TYPES.stream().map(Class::getSimpleName).toList());
+    };
+  }
+}
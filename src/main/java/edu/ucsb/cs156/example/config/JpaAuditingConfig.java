@@ -0,0 +1,16 @@
+package edu.ucsb.cs156.example.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+
+/**
+ * The `JpaAuditingConfig` class turns on Spring Data JPA auditing, which fills in
+ * the {@code @CreatedDate} and {@code @LastModifiedDate} fields of entities.
+ *
+ * This is kept out of ExampleApplication so that {@code @WebMvcTest} slices,
+ * which have no JPA infrastructure, do not try to set it up.
+ */
+@Configuration
+@EnableJpaAuditing
+public class JpaAuditingConfig {
+}
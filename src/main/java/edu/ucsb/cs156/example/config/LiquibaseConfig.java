@@ -0,0 +1,80 @@
+package edu.ucsb.cs156.example.config;
+
+import javax.sql.DataSource;
+
+import liquibase.UpdateSummaryEnum;
+import liquibase.UpdateSummaryOutputEnum;
+import liquibase.ui.UIServiceEnum;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.liquibase.LiquibaseDataSource;
+import org.springframework.boot.autoconfigure.liquibase.LiquibaseProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Replaces Spring Boot's SpringLiquibase with a ChangelogChecksumLiquibase,
+ * which skips Liquibase at startup when the changelogs haven't changed since
+ * the last successful migration.
+ *
+ * It is configured from the same spring.liquibase.* properties, copied as
+ * Boot's LiquibaseAutoConfiguration does, plus app.liquibase.skipWhenUnchanged
+ * (default true).  The exception is spring.liquibase.url, user, password and
+ * driver-class-name: Liquibase always uses the application's data source (the
+ * primary pool when a read replica is configured), so those are ignored.
+ * Boot's auto-configuration backs off because this bean exists, but still makes
+ * the EntityManagerFactory wait for it.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "spring.liquibase", name = "enabled", matchIfMissing = true)
+@EnableConfigurationProperties(LiquibaseProperties.class)
+public class LiquibaseConfig {
+
+  /**
+   * The Liquibase runner.
+   *
+   * @param properties spring.liquibase.* properties
+   * @param liquibaseDataSource the data source marked with @LiquibaseDataSource, if any
+   *    (the primary pool when a read replica is configured)
+   * @param dataSource the application's data source, used otherwise
+   * @param skipWhenUnchanged whether to skip Liquibase when the changelog checksum matches
+   * @return the Liquibase runner
+   */
+  @Bean
+  public ChangelogChecksumLiquibase liquibase(LiquibaseProperties properties,
+      @LiquibaseDataSource ObjectProvider<DataSource> liquibaseDataSource,
+      ObjectProvider<DataSource> dataSource,
+      @Value("${app.liquibase.skipWhenUnchanged:true}") boolean skipWhenUnchanged) {
+    ChangelogChecksumLiquibase liquibase = new ChangelogChecksumLiquibase();
+    liquibase.setDataSource(liquibaseDataSource.getIfAvailable(dataSource::getObject));
+    liquibase.setChangeLog(properties.getChangeLog());
+    liquibase.setClearCheckSums(properties.isClearChecksums());
+    liquibase.setContexts(properties.getContexts());
+    liquibase.setDefaultSchema(properties.getDefaultSchema());
+    liquibase.setLiquibaseSchema(properties.getLiquibaseSchema());
+    liquibase.setLiquibaseTablespace(properties.getLiquibaseTablespace());
+    liquibase.setDatabaseChangeLogTable(properties.getDatabaseChangeLogTable());
+    liquibase.setDatabaseChangeLogLockTable(properties.getDatabaseChangeLogLockTable());
+    liquibase.setDropFirst(properties.isDropFirst());
+    liquibase.setShouldRun(properties.isEnabled());
+    liquibase.setLabelFilter(properties.getLabelFilter());
+    liquibase.setChangeLogParameters(properties.getParameters());
+    liquibase.setRollbackFile(properties.getRollbackFile());
+    liquibase.setTestRollbackOnUpdate(properties.isTestRollbackOnUpdate());
+    liquibase.setTag(properties.getTag());
+    if (properties.getShowSummary() != null) {
+      liquibase.setShowSummary(UpdateSummaryEnum.valueOf(properties.getShowSummary().name()));
+    }
+    if (properties.getShowSummaryOutput() != null) {
+      liquibase.setShowSummaryOutput(UpdateSummaryOutputEnum.valueOf(properties.getShowSummaryOutput().name()));
+    }
+    if (properties.getUiService() != null) {
+      liquibase.setUiService(UIServiceEnum.valueOf(properties.getUiService().name()));
+    }
+    liquibase.setSkipWhenUnchanged(skipWhenUnchanged);
+    return liquibase;
+  }
+}
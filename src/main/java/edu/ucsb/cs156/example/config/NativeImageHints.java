@@ -0,0 +1,74 @@
+package edu.ucsb.cs156.example.config;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+
+import net.ttddyy.dsproxy.proxy.ProxyJdbcObject;
+
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+import edu.ucsb.cs156.example.entities.Restaurant;
+import edu.ucsb.cs156.example.entities.Tombstone;
+import edu.ucsb.cs156.example.entities.UCSBDate;
+import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
+import edu.ucsb.cs156.example.entities.UCSBDiningCommonsMenuItem;
+import edu.ucsb.cs156.example.entities.UCSBOrganization;
+import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.models.CacheRegionStats;
+import edu.ucsb.cs156.example.models.CacheStats;
+import edu.ucsb.cs156.example.models.ConnectionPoolStats;
+import edu.ucsb.cs156.example.models.CurrentUser;
+import edu.ucsb.cs156.example.models.EntityChangeEvent;
+import edu.ucsb.cs156.example.models.EntityChanges;
+import edu.ucsb.cs156.example.models.RateLimitStats;
+import edu.ucsb.cs156.example.models.SlowQuery;
+import edu.ucsb.cs156.example.models.SqlStatementStats;
+import edu.ucsb.cs156.example.models.SqlStats;
+import edu.ucsb.cs156.example.models.SystemInfo;
+
+/**
+ * Hints for building a GraalVM native image (mvn -Pnative,production native:compile).
+ *
+ * Spring's AOT processing already covers beans, controllers, Spring Data repositories,
+ * Hibernate's managed entities, Spring Security and springdoc.  What it can't infer is
+ * listed here: the Liquibase changelogs (loaded by name at runtime), the JDK proxies
+ * that datasource-proxy wraps around JDBC objects, and the classes that Jackson
+ * serializes from generic or Object-typed fields (entities inside EntityChanges and
+ * EntityChangeEvent, models returned by the admin endpoints).
+ *
+ * These hints are ignored on the JVM.  See docs/native-image.md.
+ */
+@Configuration
+@ImportRuntimeHints(NativeImageHints.Registrar.class)
+@RegisterReflectionForBinding({
+    Restaurant.class, Tombstone.class, UCSBDate.class, UCSBDiningCommons.class,
+    UCSBDiningCommonsMenuItem.class, UCSBOrganization.class, User.class,
+    CacheRegionStats.class, CacheStats.class, ConnectionPoolStats.class, CurrentUser.class,
+    EntityChangeEvent.class, EntityChanges.class, RateLimitStats.class, SlowQuery.class,
+    SqlStatementStats.class, SqlStats.class, SystemInfo.class })
+public class NativeImageHints {
+
+  static class Registrar implements RuntimeHintsRegistrar {
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+      // liquibase's includeAll (and ChangelogChecksumLiquibase) list the directories,
+      // so the directory entries are needed too
+      hints.resources().registerPattern("db/migration");
+      hints.resources().registerPattern("db/migration/*");
+      hints.resources().registerPattern("db/migration/changes");
+      hints.resources().registerPattern("db/migration/changes/*.json");
+
+      for (Class<?> jdbcType : new Class<?>[] {
+          Connection.class, Statement.class, PreparedStatement.class, CallableStatement.class }) {
+        hints.proxies().registerJdkProxy(ProxyJdbcObject.class, jdbcType);
+        hints.proxies().registerJdkProxy(jdbcType, ProxyJdbcObject.class);
+      }
+    }
+  }
+}
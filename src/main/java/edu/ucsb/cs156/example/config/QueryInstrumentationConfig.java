@@ -0,0 +1,93 @@
+package edu.ucsb.cs156.example.config;
+
+import edu.ucsb.cs156.example.services.QueryInstrumentationService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import javax.sql.DataSource;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+import java.util.List;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * This wires QueryInstrumentationService into the application.
+ *
+ * The DataSource that JPA uses (the bean named "dataSource") is wrapped in a
+ * datasource-proxy ProxyDataSource that reports every statement to the service,
+ * and an interceptor marks the start and end of each handler so statements can
+ * be attributed to the request that ran them.  The interceptor also leaves the
+ * request's statement count in a request attribute, which tests use to enforce
+ * per-endpoint statement budgets.
+ */
+@Configuration
+public class QueryInstrumentationConfig implements WebMvcConfigurer {
+
+  @Autowired
+  QueryInstrumentationService queryInstrumentation;
+
+  /**
+   * Wraps the application's DataSource so every statement is reported.
+   *
+   * This is static, and looks the service up lazily, so that declaring it does not
+   * force the service (and everything it depends on) to be created early.
+   *
+   * @param queryInstrumentation provider for the service that receives the statements
+   * @return the post-processor that wraps the "dataSource" bean
+   */
+  @Bean
+  public static BeanPostProcessor instrumentedDataSourcePostProcessor(
+      ObjectProvider<QueryInstrumentationService> queryInstrumentation) {
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource dataSource) || !beanName.equals("dataSource")) {
+          return bean;
+        }
+        QueryExecutionListener listener = new QueryExecutionListener() {
+          @Override
+          public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+          }
+
+          @Override
+          public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            queryInstrumentation.getObject().afterQuery(execInfo, queryInfoList);
+          }
+        };
+        return ProxyDataSourceBuilder.create(dataSource).name("app").listener(listener).build();
+      }
+    };
+  }
+
+  @Override
+  public void addInterceptors(InterceptorRegistry registry) {
+    registry.addInterceptor(new HandlerInterceptor() {
+      @Override
+      public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        queryInstrumentation.beginRequest(
+            request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI()));
+        return true;
+      }
+
+      @Override
+      public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+          Exception ex) {
+        request.setAttribute(QueryInstrumentationService.STATEMENT_COUNT_ATTRIBUTE, queryInstrumentation.endRequest());
+      }
+    }).addPathPatterns("/api/**");
+  }
+}
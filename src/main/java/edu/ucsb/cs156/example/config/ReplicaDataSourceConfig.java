@@ -0,0 +1,104 @@
+package edu.ucsb.cs156.example.config;
+
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.autoconfigure.liquibase.LiquibaseDataSource;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/**
+ * This configures read/write routing between the primary database and a read replica.
+ *
+ * It is only active when app.datasource.replica.url is set; otherwise Spring Boot's
+ * single auto-configured DataSource is used as before.
+ *
+ * The application's DataSource is a LazyConnectionDataSourceProxy, which does not fetch a
+ * real connection until the first statement runs.  By then the transaction manager has
+ * marked the connection read-only for @Transactional(readOnly = true), and the proxy takes
+ * the connection from the read-only DataSource (the replica, or the primary whenever
+ * ReplicaFallbackDataSource considers the replica unhealthy).  Everything else, including
+ * Liquibase, uses the primary.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnExpression("!'${app.datasource.replica.url:}'.isEmpty()")
+public class ReplicaDataSourceConfig {
+
+  /**
+   * The primary pool, configured from spring.datasource.* exactly as Spring Boot would.
+   * @param properties the spring.datasource properties
+   * @return the primary connection pool
+   */
+  @Bean
+  @LiquibaseDataSource
+  @ConfigurationProperties("spring.datasource.hikari")
+  public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+    return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+  }
+
+  /**
+   * The replica pool, configured from app.datasource.replica.*.
+   * @param url JDBC url of the replica
+   * @param username database user for the replica
+   * @param password password for the replica
+   * @return the replica connection pool
+   */
+  @Bean
+  @ConfigurationProperties("app.datasource.replica.hikari")
+  public HikariDataSource replicaDataSource(
+      @Value("${app.datasource.replica.url}") String url,
+      @Value("${app.datasource.replica.username:${spring.datasource.username:}}") String username,
+      @Value("${app.datasource.replica.password:${spring.datasource.password:}}") String password) {
+    HikariDataSource replica = DataSourceBuilder.create().type(HikariDataSource.class)
+        .url(url).username(username).password(password).build();
+    replica.setReadOnly(true);
+    replica.setPoolName("replica");
+    return replica;
+  }
+
+  /**
+   * Wraps the replica so that reads fall back to the primary when the replica is down or lagging.
+   * @param replicaDataSource the replica pool
+   * @param primaryDataSource the primary pool
+   * @param maxLag the most replication lag tolerated before reads move to the primary
+   * @param lagQuery query returning the replica's lag in seconds (blank to only check connectivity)
+   * @param checkInterval how often the replica is checked
+   * @return the DataSource used for read-only transactions
+   */
+  @Bean(destroyMethod = "close")
+  public ReplicaFallbackDataSource readOnlyDataSource(HikariDataSource replicaDataSource,
+      HikariDataSource primaryDataSource,
+      @Value("${app.datasource.replica.maxLag:10s}") Duration maxLag,
+      @Value("${app.datasource.replica.lagQuery:}") String lagQuery,
+      @Value("${app.datasource.replica.checkInterval:5s}") Duration checkInterval) {
+    log.info("routing read-only transactions to replica (max lag {}, checked every {})", maxLag, checkInterval);
+    return new ReplicaFallbackDataSource(replicaDataSource, primaryDataSource, maxLag, lagQuery, checkInterval);
+  }
+
+  /**
+   * The DataSource the rest of the application uses.
+   * @param primaryDataSource where writes go
+   * @param readOnlyDataSource where read-only transactions go
+   * @return a lazy proxy that picks between them per transaction
+   */
+  @Bean
+  @Primary
+  public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaFallbackDataSource readOnlyDataSource) {
+    LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(primaryDataSource);
+    proxy.setReadOnlyDataSource(readOnlyDataSource);
+    return proxy;
+  }
+}
@@ -0,0 +1,147 @@
+package edu.ucsb.cs156.example.config;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.util.StringUtils;
+
+/**
+ * A DataSource that hands out replica connections while the replica is
+ * healthy and primary connections otherwise.
+ *
+ * A background check runs every checkInterval once the bean has been
+ * initialized. The replica is usable if it answers and, when a lagQuery is
+ * configured, the lag in seconds that the query returns is no more than
+ * maxLag. A failed getConnection also marks
+ * the replica unusable until the next successful check, so an outage costs
+ * at most one failed connection attempt per request.
+ */
+@Slf4j
+public class ReplicaFallbackDataSource extends AbstractDataSource implements InitializingBean, AutoCloseable {
+
+  private final DataSource replica;
+  private final DataSource primary;
+  private final Duration maxLag;
+  private final String lagQuery;
+  private final Duration checkInterval;
+
+  private ScheduledExecutorService checker;
+
+  private volatile boolean replicaUsable = true;
+
+  /**
+   * Creates the DataSource; the health check starts once Spring calls afterPropertiesSet.
+   * @param replica where reads go while the replica is healthy
+   * @param primary where reads go when it is not
+   * @param maxLag the most replication lag that is tolerated
+   * @param lagQuery a query returning the replica's lag in seconds, or blank to only check connectivity
+   * @param checkInterval how often to check; zero disables the background check
+   */
+  public ReplicaFallbackDataSource(DataSource replica, DataSource primary, Duration maxLag, String lagQuery,
+      Duration checkInterval) {
+    this.replica = replica;
+    this.primary = primary;
+    this.maxLag = maxLag;
+    this.lagQuery = lagQuery;
+    this.checkInterval = checkInterval;
+  }
+
+  /**
+   * Starts checking replica health every checkInterval, unless it is zero.  This is
+   * called by Spring once the bean is fully constructed, rather than from the
+   * constructor, so the check never runs on a partly constructed object.
+   */
+  @Override
+  public void afterPropertiesSet() {
+    if (checkInterval.isZero() || checker != null) {
+      return;
+    }
+    checker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "replica-health-check");
+      thread.setDaemon(true);
+      return thread;
+    });
+    checker.scheduleWithFixedDelay(this::check, 0, checkInterval.toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Returns whether reads are currently going to the replica.
+   * @return true if the replica passed its last check
+   */
+  public boolean isReplicaUsable() {
+    return replicaUsable;
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    if (replicaUsable) {
+      try {
+        return replica.getConnection();
+      } catch (SQLException e) {
+        markReplica(false, "connection failed: " + e.getMessage());
+      }
+    }
+    return primary.getConnection();
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    if (replicaUsable) {
+      try {
+        return replica.getConnection(username, password);
+      } catch (SQLException e) {
+        markReplica(false, "connection failed: " + e.getMessage());
+      }
+    }
+    return primary.getConnection(username, password);
+  }
+
+  /**
+   * Checks whether the replica is reachable and caught up, and routes reads accordingly.
+   */
+  public void check() {
+    try (Connection connection = replica.getConnection()) {
+      if (!StringUtils.hasText(lagQuery)) {
+        markReplica(connection.isValid(2), "connection is not valid");
+        return;
+      }
+      try (Statement statement = connection.createStatement();
+          ResultSet resultSet = statement.executeQuery(lagQuery)) {
+        double lagSeconds = resultSet.next() ? resultSet.getDouble(1) : 0;
+        markReplica(lagSeconds * 1000 <= maxLag.toMillis(), "lag of " + lagSeconds + "s exceeds " + maxLag);
+      }
+    } catch (SQLException e) {
+      markReplica(false, "health check failed: " + e.getMessage());
+    }
+  }
+
+  private void markReplica(boolean usable, String reason) {
+    if (usable != replicaUsable) {
+      if (usable) {
+        log.info("read replica is healthy again; routing read-only transactions to it");
+      } else {
+        log.warn("read replica unusable ({}); routing read-only transactions to the primary", reason);
+      }
+    }
+    replicaUsable = usable;
+  }
+
+  @Override
+  public void close() {
+    if (checker != null) {
+      checker.shutdownNow();
+    }
+  }
+}
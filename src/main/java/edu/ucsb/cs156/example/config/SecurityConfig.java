@@ -2,6 +2,7 @@ package edu.ucsb.cs156.example.config;
 
 import edu.ucsb.cs156.example.entities.User;
 import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.RateLimiterService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -65,6 +66,9 @@ public class SecurityConfig {
   @Autowired
   UserRepository userRepository;
 
+  @Autowired
+  RateLimiterService rateLimiter;
+
   /**
    * The `filterChain` method in this Java code configures various security
    * settings for an HTTP request,
@@ -85,6 +89,8 @@ public class SecurityConfig {
             .csrfTokenRepository(CookieCsrfTokenRepository.withHttpOnlyFalse())
             .csrfTokenRequestHandler(new SpaCsrfTokenRequestHandler()))
         .addFilterAfter(new CsrfCookieFilter(), BasicAuthenticationFilter.class)
+        // registered at the same position, so it runs after CsrfCookieFilter
+        .addFilterAfter(new RateLimitFilter(rateLimiter), BasicAuthenticationFilter.class)
         .authorizeHttpRequests(auth -> auth.anyRequest().permitAll())
         .logout(logout -> logout.logoutRequestMatcher(new AntPathRequestMatcher("/logout")).logoutSuccessUrl("/"));
     return http.build();
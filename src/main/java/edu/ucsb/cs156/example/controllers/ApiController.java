@@ -1,16 +1,46 @@
 package edu.ucsb.cs156.example.controllers;
 
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 
 import edu.ucsb.cs156.example.models.CurrentUser;
+import edu.ucsb.cs156.example.models.EntityBatch;
+import edu.ucsb.cs156.example.models.EntityChanges;
+import edu.ucsb.cs156.example.models.EntityChangeEvent;
+import edu.ucsb.cs156.example.models.EntityChangeEvent.ChangeType;
+import edu.ucsb.cs156.example.repositories.TombstoneRepository;
+import edu.ucsb.cs156.example.services.CollectionSnapshotService;
 import edu.ucsb.cs156.example.services.CurrentUserService;
+import edu.ucsb.cs156.example.services.NegativeLookupCacheService;
+import edu.ucsb.cs156.example.services.ResponseCacheService;
+import edu.ucsb.cs156.example.services.ResponseCacheService.CachedResponse;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * This is an abstract class that provides common functionality for all API controllers.
@@ -18,9 +48,34 @@ import java.util.Map;
 
 @Slf4j
 public abstract class ApiController {
+  /**
+   * How far the watermark returned by the /changes endpoints is set back from the current time,
+   * so that rows written by transactions that commit while a /changes query is running are
+   * returned again on the next call rather than missed.
+   */
+  public static final Duration DELTA_SYNC_OVERLAP = Duration.ofSeconds(5);
+
   @Autowired
   private CurrentUserService currentUserService;
 
+  @Autowired
+  private ApplicationEventPublisher eventPublisher;
+
+  @Autowired
+  private ResponseCacheService responseCacheService;
+
+  @Autowired
+  private ObjectProvider<CollectionSnapshotService> collectionSnapshots;
+
+  @Autowired
+  private NegativeLookupCacheService negativeLookupCache;
+
+  @Value("${app.batch.maxIds:100}")
+  private int maxBatchIds = 100;
+
+  @Value("${app.tombstones.retention:30d}")
+  private Duration tombstoneRetention = Duration.ofDays(30);
+
   /**
    * This method returns the current user.
    * @return the current user
@@ -38,6 +93,175 @@ public abstract class ApiController {
     return Map.of("message", message);
   }
 
+  /**
+   * This method publishes an EntityChangeEvent describing a change made by this controller.
+   * @param changeType whether the entity was created, updated or deleted
+   * @param entityType the class of the entity that changed, e.g. Restaurant.class
+   * @param id the id of the entity that changed
+   * @param entity the new contents of the entity (null for deletes)
+   */
+  protected void publishChange(ChangeType changeType, Class<?> entityType, Object id, Object entity) {
+    eventPublisher.publishEvent(EntityChangeEvent.builder()
+      .entityType(entityType.getSimpleName())
+      .changeType(changeType)
+      .id(id)
+      .entity(entity)
+      .build());
+  }
+
+  /**
+   * This method looks up a single entity for a get-by-id endpoint.  Ids recently found to be
+   * missing are answered by NegativeLookupCacheService without querying the database.
+   * @param <T> the type of entity
+   * @param <ID> the type of its id
+   * @param entityType the class of the entity, e.g. Restaurant.class
+   * @param id the id to look up
+   * @param findById repository method performing the lookup
+   * @return the entity
+   * @throws EntityNotFoundException if there is no entity with this id
+   */
+  protected <T, ID> T findOrThrow(Class<T> entityType, ID id, Function<ID, Optional<T>> findById) {
+    return negativeLookupCache.findOrThrow(entityType, id, findById);
+  }
+
+  /**
+   * This method builds the response for a /batch endpoint, looking up every requested id with
+   * a single findAllById query.
+   * @param <T> the type of entity
+   * @param <ID> the type of its id
+   * @param entityType the class of the entity, e.g. Restaurant.class
+   * @param ids the requested ids, in the order the client wants the entities back
+   * @param idOf returns the id of an entity, e.g. Restaurant::getId
+   * @param findAllById repository method looking up many ids at once
+   * @return the entities found and the ids not found, both in request order
+   * @throws ResponseStatusException with status 400 if more than app.batch.maxIds ids are requested
+   */
+  protected <T, ID> EntityBatch<T> findAllInOrder(Class<T> entityType, List<ID> ids, Function<T, ID> idOf,
+      Function<Iterable<ID>, ? extends Iterable<T>> findAllById) {
+    if (ids.size() > maxBatchIds) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+        "at most %d %s ids may be requested at once".formatted(maxBatchIds, entityType.getSimpleName()));
+    }
+    Set<ID> distinct = new LinkedHashSet<>(ids);
+    Map<ID, T> byId = new HashMap<>();
+    findAllById.apply(distinct).forEach(entity -> byId.put(idOf.apply(entity), entity));
+    List<T> items = new ArrayList<>(byId.size());
+    List<ID> missing = new ArrayList<>();
+    for (ID id : distinct) {
+      T entity = byId.get(id);
+      if (entity == null) {
+        missing.add(id);
+      } else {
+        items.add(entity);
+      }
+    }
+    return EntityBatch.<T>builder()
+      .items(items)
+      .missing(missing)
+      .build();
+  }
+
+  /**
+   * This method builds the response for an /all endpoint from the serialized JSON kept by
+   * ResponseCacheService, gzip-compressed if the client accepts it, with a strong ETag.
+   * Clients asking for CBOR or Smile get the rows from findAll, converted as usual.
+   * When snapshot mode is on and there is an up-to-date snapshot of this entity type,
+   * CollectionSnapshotService sends the file instead, and this method returns null.
+   * @param entityType the class of the entity, e.g. Restaurant.class
+   * @param findAll repository method returning every row
+   * @return the response, or null if it has already been sent
+   * @throws IOException if the rows cannot be serialized
+   */
+  protected ResponseEntity<?> cachedFindAll(Class<?> entityType, Supplier<? extends Iterable<?>> findAll)
+      throws IOException {
+    return cachedFindAll(entityType, null, findAll);
+  }
+
+  /**
+   * This method builds the response for an /all endpoint, as cachedFindAll(entityType, findAll)
+   * does, except that concurrent callers that need to read the rows share one call to findAll
+   * (see ResponseCacheService.read).
+   * @param entityType the class of the entity, e.g. Restaurant.class
+   * @param coalescingKey key under which concurrent reads are shared, e.g. "UCSBDate.findAll"
+   * @param findAll repository method returning every row
+   * @return the response, or null if it has already been sent
+   * @throws IOException if the rows cannot be serialized
+   */
+  protected ResponseEntity<?> cachedFindAll(Class<?> entityType, String coalescingKey,
+      Supplier<? extends Iterable<?>> findAll) throws IOException {
+    ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.currentRequestAttributes();
+    HttpServletRequest request = attributes.getRequest();
+    String accept = request.getHeader(HttpHeaders.ACCEPT);
+    if (accept != null && (accept.contains("cbor") || accept.contains("smile"))) {
+      return ResponseEntity.ok(responseCacheService.read(entityType.getSimpleName(), coalescingKey, findAll).rows());
+    }
+    CollectionSnapshotService snapshots = collectionSnapshots.getIfAvailable();
+    if (snapshots != null && snapshots.serve(entityType.getSimpleName(), request, attributes.getResponse())) {
+      return null;
+    }
+    CachedResponse cached = responseCacheService.get(entityType.getSimpleName(), coalescingKey, findAll);
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+      .contentType(MediaType.APPLICATION_JSON)
+      .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+    String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+    if (cached.gzip() != null && acceptEncoding != null && acceptEncoding.contains("gzip")) {
+      return response.eTag(cached.hash() + "-gzip").header(HttpHeaders.CONTENT_ENCODING, "gzip").body(cached.gzip());
+    }
+    return response.eTag(cached.hash()).body(cached.json());
+  }
+
+  /**
+   * This method checks the body of an /upsert endpoint.  The key decides whether a row is
+   * inserted or updated, so every row must have one.
+   * @param <T> the type of entity
+   * @param entityType the class of the entity, e.g. UCSBDiningCommons.class
+   * @param rows the rows in the request body
+   * @param keyName the name of the key property, e.g. "code"
+   * @param keyOf returns the key of a row, e.g. UCSBDiningCommons::getCode
+   * @throws ResponseStatusException with status 400 if a row is null or its key is null or blank
+   */
+  protected <T> void requireUpsertKeys(Class<T> entityType, List<T> rows, String keyName, Function<T, String> keyOf) {
+    for (int i = 0; i < rows.size(); i++) {
+      T row = rows.get(i);
+      String key = row == null ? null : keyOf.apply(row);
+      if (key == null || key.isBlank()) {
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+          "%s %d has no %s".formatted(entityType.getSimpleName(), i, keyName));
+      }
+    }
+  }
+
+  /**
+   * This method builds the response for a /changes endpoint.  Tombstones are pruned after
+   * app.tombstones.retention (see TombstoneService), so the oldest since accepted is that long
+   * ago; a client holding an older watermark has to reload the whole collection from /all.
+   * @param <T> the type of entity
+   * @param entityType the class of the entity, e.g. Restaurant.class
+   * @param since the client's watermark
+   * @param findUpdatedSince repository method returning entities with an updatedAt after since
+   * @param tombstoneRepository repository used to look up deleted ids
+   * @return the rows that changed after since, and the watermark for the next call
+   * @throws ResponseStatusException with status 410 if since is older than app.tombstones.retention
+   */
+  protected <T> EntityChanges<T> changesSince(Class<T> entityType, LocalDateTime since,
+      Function<LocalDateTime, Iterable<T>> findUpdatedSince, TombstoneRepository tombstoneRepository) {
+    LocalDateTime now = LocalDateTime.now();
+    LocalDateTime oldestSince = now.minus(tombstoneRetention);
+    if (since.isBefore(oldestSince)) {
+      throw new ResponseStatusException(HttpStatus.GONE,
+        "since must be after %s; reload all %s rows instead".formatted(oldestSince, entityType.getSimpleName()));
+    }
+    LocalDateTime watermark = now.minus(DELTA_SYNC_OVERLAP);
+    List<String> deleted = new ArrayList<>();
+    tombstoneRepository.findAllByEntityTypeAndDeletedAtAfter(entityType.getSimpleName(), since)
+      .forEach(tombstone -> deleted.add(tombstone.getEntityId()));
+    return EntityChanges.<T>builder()
+      .watermark(watermark)
+      .updated(findUpdatedSince.apply(since))
+      .deleted(deleted)
+      .build();
+  }
+
   /**
    * This method handles the EntityNotFoundException.
    * @param e the exception
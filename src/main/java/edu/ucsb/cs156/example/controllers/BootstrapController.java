@@ -0,0 +1,57 @@
+package edu.ucsb.cs156.example.controllers;
+
+import edu.ucsb.cs156.example.models.Bootstrap;
+import edu.ucsb.cs156.example.models.CurrentUser;
+import edu.ucsb.cs156.example.services.SystemInfoService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * This is a REST controller that returns, in one response, everything the
+ * frontend loads when a page is first opened: the current user and the system
+ * information.
+ *
+ * The response is specific to the user, so it may only be cached by the
+ * browser (private), and must be revalidated each time (no-cache); the
+ * BootstrapEtagFilter adds an ETag so that revalidation returns 304 Not
+ * Modified when nothing has changed.
+ *
+ * @see edu.ucsb.cs156.example.models.Bootstrap
+ */
+
+@Tag(name = "Bootstrap")
+@RequestMapping("/api/bootstrap")
+@RestController
+public class BootstrapController extends ApiController {
+
+    @Autowired
+    private SystemInfoService systemInfoService;
+
+    /**
+     * This method returns the data the frontend needs on page load.
+     * Anyone may call it; the user-specific parts are only filled in for logged in users.
+     * @return the current user (or null) and system information
+     */
+    @Operation(summary = "Get the current user and system information in one request")
+    @GetMapping("")
+    public ResponseEntity<Bootstrap> bootstrap() {
+        CurrentUser currentUser = getCurrentUser();
+        boolean loggedIn = currentUser.getRoles().stream()
+                .anyMatch(role -> "ROLE_USER".equals(role.getAuthority()));
+
+        Bootstrap bootstrap = Bootstrap.builder()
+                .currentUser(loggedIn ? currentUser : null)
+                .systemInfo(systemInfoService.getSystemInfo())
+                .build();
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(bootstrap);
+    }
+}
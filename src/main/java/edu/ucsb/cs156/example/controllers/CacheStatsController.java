@@ -0,0 +1,75 @@
+package edu.ucsb.cs156.example.controllers;
+
+import edu.ucsb.cs156.example.models.CacheStats;
+import edu.ucsb.cs156.example.models.NegativeLookupStats;
+import edu.ucsb.cs156.example.models.ResponseCacheStats;
+import edu.ucsb.cs156.example.services.HibernateStatisticsService;
+import edu.ucsb.cs156.example.services.NegativeLookupCacheService;
+import edu.ucsb.cs156.example.services.ResponseCacheService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * This is a REST controller for monitoring Hibernate's second-level and query caches,
+ * the cache of serialized /all responses, and the cache of ids known to be missing.
+ *
+ * These endpoints are only accessible to users with the role "ROLE_ADMIN".
+ *
+ * @see edu.ucsb.cs156.example.services.HibernateStatisticsService
+ * @see edu.ucsb.cs156.example.services.ResponseCacheService
+ * @see edu.ucsb.cs156.example.services.NegativeLookupCacheService
+ */
+
+@Tag(name = "Cache statistics (admin only)")
+@RequestMapping("/api/admin/cache")
+@RestController
+public class CacheStatsController extends ApiController {
+
+    @Autowired
+    HibernateStatisticsService hibernateStatisticsService;
+
+    @Autowired
+    ResponseCacheService responseCacheService;
+
+    @Autowired
+    NegativeLookupCacheService negativeLookupCacheService;
+
+    /**
+     * This method returns hit and miss counts for the second-level and query caches.
+     * @return the current cache statistics
+     */
+    @Operation(summary = "Get second-level and query cache statistics")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @GetMapping("")
+    public CacheStats cacheStats() {
+        return hibernateStatisticsService.getCacheStats();
+    }
+
+    /**
+     * This method returns hit and miss counts for the serialized /all responses.
+     * @return the current response cache statistics
+     */
+    @Operation(summary = "Get response cache statistics")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @GetMapping("/responses")
+    public ResponseCacheStats responseCacheStats() {
+        return responseCacheService.getStats();
+    }
+
+    /**
+     * This method returns how many lookups of missing ids were answered without a query.
+     * @return the current negative lookup cache statistics
+     */
+    @Operation(summary = "Get negative lookup cache statistics")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @GetMapping("/notfound")
+    public NegativeLookupStats negativeLookupStats() {
+        return negativeLookupCacheService.getStats();
+    }
+}
@@ -0,0 +1,46 @@
+package edu.ucsb.cs156.example.controllers;
+
+import edu.ucsb.cs156.example.services.ChangeFeedService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * This is a REST controller for the change feed.
+ *
+ * Instead of polling the /all endpoints, the frontend can open an EventSource on
+ * /api/changes/stream and receive one Server-Sent Event for each row that is
+ * created, updated or deleted.  The event name is the entity type (e.g. "Restaurant")
+ * and the data is an EntityChangeEvent.
+ *
+ * @see edu.ucsb.cs156.example.services.ChangeFeedService
+ * @see edu.ucsb.cs156.example.models.EntityChangeEvent
+ */
+
+@Tag(name = "Change Feed")
+@RequestMapping("/api/changes")
+@RestController
+public class ChangeFeedController extends ApiController {
+
+    @Autowired
+    ChangeFeedService changeFeedService;
+
+    /**
+     * This method subscribes the caller to the change feed.
+     * @return an SseEmitter that streams EntityChangeEvents
+     */
+    @Operation(summary = "Stream create/update/delete events for all entities (Server-Sent Events)")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream() {
+        return changeFeedService.subscribe();
+    }
+}
@@ -0,0 +1,40 @@
+package edu.ucsb.cs156.example.controllers;
+
+import edu.ucsb.cs156.example.models.CoalescingStats;
+import edu.ucsb.cs156.example.services.RequestCoalescingService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * This is a REST controller for monitoring how many concurrent reads were coalesced.
+ *
+ * These endpoints are only accessible to users with the role "ROLE_ADMIN".
+ *
+ * @see edu.ucsb.cs156.example.services.RequestCoalescingService
+ */
+
+@Tag(name = "Request coalescing statistics (admin only)")
+@RequestMapping("/api/admin/coalescing")
+@RestController
+public class CoalescingStatsController extends ApiController {
+
+    @Autowired
+    RequestCoalescingService requestCoalescingService;
+
+    /**
+     * This method returns, per key, how many reads were made and how many callers shared them.
+     * @return the current coalescing statistics
+     */
+    @Operation(summary = "Get request coalescing statistics")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @GetMapping("")
+    public CoalescingStats coalescingStats() {
+        return requestCoalescingService.getStats();
+    }
+}
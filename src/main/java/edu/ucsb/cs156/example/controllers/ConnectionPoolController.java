@@ -0,0 +1,42 @@
+package edu.ucsb.cs156.example.controllers;
+
+import edu.ucsb.cs156.example.models.ConnectionPoolStats;
+import edu.ucsb.cs156.example.services.ConnectionPoolMetricsService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * This is a REST controller for monitoring the JDBC connection pools.
+ *
+ * These endpoints are only accessible to users with the role "ROLE_ADMIN".
+ *
+ * @see edu.ucsb.cs156.example.services.ConnectionPoolMetricsService
+ */
+
+@Tag(name = "Connection pool (admin only)")
+@RequestMapping("/api/admin/pool")
+@RestController
+public class ConnectionPoolController extends ApiController {
+
+    @Autowired
+    ConnectionPoolMetricsService connectionPoolMetrics;
+
+    /**
+     * This method returns occupancy, wait time and usage metrics for each connection pool.
+     * @return one entry per pool
+     */
+    @Operation(summary = "Get connection pool metrics")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @GetMapping("")
+    public List<ConnectionPoolStats> poolStats() {
+        return connectionPoolMetrics.getStats();
+    }
+}
@@ -0,0 +1,40 @@
+package edu.ucsb.cs156.example.controllers;
+
+import edu.ucsb.cs156.example.models.RateLimitStats;
+import edu.ucsb.cs156.example.services.RateLimiterService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * This is a REST controller for monitoring the API rate limiter.
+ *
+ * These endpoints are only accessible to users with the role "ROLE_ADMIN".
+ *
+ * @see edu.ucsb.cs156.example.services.RateLimiterService
+ */
+
+@Tag(name = "Rate limiting (admin only)")
+@RequestMapping("/api/admin/ratelimit")
+@RestController
+public class RateLimitController extends ApiController {
+
+    @Autowired
+    RateLimiterService rateLimiter;
+
+    /**
+     * This method returns the rate limiter's rejection counters.
+     * @return the current statistics
+     */
+    @Operation(summary = "Get rate limiter statistics")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @GetMapping("")
+    public RateLimitStats stats() {
+        return rateLimiter.getStats();
+    }
+}
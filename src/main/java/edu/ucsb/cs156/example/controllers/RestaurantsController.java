@@ -2,14 +2,21 @@ package edu.ucsb.cs156.example.controllers;
 
 import edu.ucsb.cs156.example.entities.Restaurant;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.models.EntityBatch;
+import edu.ucsb.cs156.example.models.EntityChanges;
+import edu.ucsb.cs156.example.models.EntityChangeEvent.ChangeType;
 import edu.ucsb.cs156.example.repositories.RestaurantRepository;
+import edu.ucsb.cs156.example.repositories.TombstoneRepository;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -19,6 +26,10 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
 import jakarta.validation.Valid;
 
 /**
@@ -33,16 +44,34 @@ public class RestaurantsController extends ApiController {
     @Autowired
     RestaurantRepository restaurantRepository;
 
+    @Autowired
+    TombstoneRepository tombstoneRepository;
+
     /**
      * This method returns a list of all restaurants.
+     * The JSON is kept by ResponseCacheService and reused until a restaurant changes.
      * @return a list of all restaurants
+     * @throws IOException if the restaurants cannot be serialized
      */
     @Operation(summary = "List all restaurants")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("/all")
-    public Iterable<Restaurant> allRestaurants() {
-        Iterable<Restaurant> restaurants = restaurantRepository.findAll();
-        return restaurants;
+    public ResponseEntity<?> allRestaurants() throws IOException {
+        return cachedFindAll(Restaurant.class, restaurantRepository::findAll);
+    }
+
+    /**
+     * This method returns the restaurants created, updated or deleted since a watermark.
+     * @param since the watermark returned by the previous call (or any earlier time)
+     * @return the restaurants that changed after since, and the watermark for the next call
+     */
+    @Operation(summary= "List restaurants changed since a watermark")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @Transactional(readOnly = true)
+    @GetMapping("/changes")
+    public EntityChanges<Restaurant> restaurantChanges(
+            @Parameter(name="since") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since) {
+        return changesSince(Restaurant.class, since, restaurantRepository::findAllByUpdatedAtAfter, tombstoneRepository);
     }
 
     /**
@@ -55,12 +84,24 @@ public class RestaurantsController extends ApiController {
     @GetMapping("")
     public Restaurant getById(
             @Parameter(name = "id") @RequestParam Long id) {
-        Restaurant restaurant = restaurantRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException(Restaurant.class, id));
+        Restaurant restaurant = findOrThrow(Restaurant.class, id, restaurantRepository::findById);
 
         return restaurant;
     }
 
+    /**
+     * This method returns several restaurants at once, looked up with a single query.
+     * @param ids the ids of the restaurants to get, in the order they should be returned
+     * @return the restaurants found, and the ids that were not found
+     */
+    @Operation(summary= "Get several restaurants by id")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping("/batch")
+    public EntityBatch<Restaurant> getByIds(
+            @Parameter(name="ids") @RequestParam List<Long> ids) {
+        return findAllInOrder(Restaurant.class, ids, Restaurant::getId, restaurantRepository::findAllById);
+    }
+
     /**
      * This method creates a new restaurant. Accessible only to users with the role "ROLE_ADMIN".
      * @param name name of the restaurant
@@ -69,6 +110,7 @@ public class RestaurantsController extends ApiController {
      */
     @Operation(summary = "Create a new restaurant")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @Transactional
     @PostMapping("/post")
     public Restaurant postRestaurant(
             @Parameter(name = "name") @RequestParam String name,
@@ -79,6 +121,7 @@ public class RestaurantsController extends ApiController {
         restaurant.setDescription(description);
         
         Restaurant savedrestaurant = restaurantRepository.save(restaurant);
+        publishChange(ChangeType.CREATED, Restaurant.class, savedrestaurant.getId(), savedrestaurant);
         return savedrestaurant;
     }
 
@@ -89,6 +132,7 @@ public class RestaurantsController extends ApiController {
      */
     @Operation(summary = "Delete a Restaurant")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @Transactional
     @DeleteMapping("")
     public Object deleteRestaurant(
             @Parameter(name = "id") @RequestParam Long id) {
@@ -96,6 +140,7 @@ public class RestaurantsController extends ApiController {
                 .orElseThrow(() -> new EntityNotFoundException(Restaurant.class, id));
 
         restaurantRepository.delete(restaurant);
+        publishChange(ChangeType.DELETED, Restaurant.class, id, null);
         return genericMessage("Restaurant with id %s deleted".formatted(id));
     }
 
@@ -107,6 +152,7 @@ public class RestaurantsController extends ApiController {
      */
     @Operation(summary = "Update a single restaurant")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @Transactional
     @PutMapping("")
     public Restaurant updateRestaurant(
             @Parameter(name = "id") @RequestParam Long id,
@@ -119,6 +165,7 @@ public class RestaurantsController extends ApiController {
         restaurant.setDescription(incoming.getDescription());
 
         restaurantRepository.save(restaurant);
+        publishChange(ChangeType.UPDATED, Restaurant.class, id, restaurant);
 
         return restaurant;
     }
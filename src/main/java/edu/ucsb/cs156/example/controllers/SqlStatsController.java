@@ -0,0 +1,71 @@
+package edu.ucsb.cs156.example.controllers;
+
+import edu.ucsb.cs156.example.models.SqlStats;
+import edu.ucsb.cs156.example.services.QueryInstrumentationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * This is a REST controller for the SQL instrumentation: per-statement timings,
+ * the slow query log and suspected N+1 queries.
+ *
+ * These endpoints are only accessible to users with the role "ROLE_ADMIN".
+ *
+ * @see edu.ucsb.cs156.example.services.QueryInstrumentationService
+ */
+
+@Tag(name = "SQL statistics (admin only)")
+@RequestMapping("/api/admin/sql")
+@RestController
+public class SqlStatsController extends ApiController {
+
+    @Autowired
+    QueryInstrumentationService queryInstrumentation;
+
+    /**
+     * This method returns what the SQL instrumentation has recorded.
+     * @return per-statement timings, recent slow queries and N+1 suspects
+     */
+    @Operation(summary = "Get SQL statement statistics")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @GetMapping("")
+    public SqlStats sqlStats() {
+        return queryInstrumentation.getStats();
+    }
+
+    /**
+     * This method turns SQL instrumentation on or off without a restart.
+     * @param enabled whether statements should be recorded
+     * @return the statistics after the change
+     */
+    @Operation(summary = "Turn SQL statement recording on or off")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PutMapping("")
+    public SqlStats setEnabled(
+            @Parameter(name = "enabled") @RequestParam boolean enabled) {
+        queryInstrumentation.setEnabled(enabled);
+        return queryInstrumentation.getStats();
+    }
+
+    /**
+     * This method clears the recorded statistics.
+     * @return a message indicating the statistics were cleared
+     */
+    @Operation(summary = "Clear SQL statement statistics")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @DeleteMapping("")
+    public Object reset() {
+        queryInstrumentation.reset();
+        return genericMessage("SQL statistics cleared");
+    }
+}
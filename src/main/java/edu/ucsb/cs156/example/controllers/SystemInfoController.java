@@ -1,12 +1,21 @@
 package edu.ucsb.cs156.example.controllers;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 import edu.ucsb.cs156.example.models.SystemInfo;
 import edu.ucsb.cs156.example.services.SystemInfoService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
+import java.time.Duration;
+
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -18,6 +27,11 @@ import org.springframework.web.bind.annotation.RestController;
  * backend of the application, some of which are set by environment
  * variables.
  * 
+ * The system information only changes when the configuration does, so the
+ * controller serializes it once and serves the same bytes to every caller,
+ * with a strong ETag (a hash of those bytes) and a long max-age.  Spring
+ * answers 304 Not Modified when the request's If-None-Match matches the ETag.
+ * 
  * For more information see the SystemInfoService and SystemInfo classes.
  * 
  * @see edu.ucsb.cs156.example.services.SystemInfoService
@@ -32,15 +46,42 @@ public class SystemInfoController extends ApiController {
     @Autowired
     private SystemInfoService systemInfoService;
 
+    @Autowired
+    private ObjectMapper mapper;
+
+    @Value("${app.systemInfo.maxAge:1h}")
+    private Duration maxAge = Duration.ofHours(1);
+
+    private volatile Serialized serialized;
+
     /**
      * This method returns the system information.
-     * @return the system information
+     * @return the system information, as JSON
+     * @throws JsonProcessingException if the system information cannot be serialized
      */
 
     @Operation(summary = "Get global information about the application")
-    @GetMapping("")
-    public SystemInfo getSystemInfo() {
-        return systemInfoService.getSystemInfo();
+    @GetMapping(value = "", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getSystemInfo() throws JsonProcessingException {
+        Serialized current = serialize(systemInfoService.getSystemInfo());
+        return ResponseEntity.ok()
+                .eTag(current.etag())
+                .cacheControl(CacheControl.maxAge(maxAge).cachePublic())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(current.json());
     }
 
-}
\ No newline at end of file
+    private Serialized serialize(SystemInfo systemInfo) throws JsonProcessingException {
+        Serialized current = serialized;
+        // the service returns the same instance until the configuration is refreshed
+        if (current == null || current.source() != systemInfo) {
+            byte[] json = mapper.writeValueAsBytes(systemInfo);
+            current = new Serialized(systemInfo, json, "\"" + DigestUtils.md5DigestAsHex(json) + "\"");
+            serialized = current;
+        }
+        return current;
+    }
+
+    private record Serialized(SystemInfo source, byte[] json, String etag) {
+    }
+}
@@ -2,7 +2,11 @@ package edu.ucsb.cs156.example.controllers;
 
 import edu.ucsb.cs156.example.entities.UCSBDate;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.models.EntityBatch;
+import edu.ucsb.cs156.example.models.EntityChanges;
+import edu.ucsb.cs156.example.models.EntityChangeEvent.ChangeType;
 import edu.ucsb.cs156.example.repositories.UCSBDateRepository;
+import edu.ucsb.cs156.example.repositories.TombstoneRepository;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -13,7 +17,9 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -25,7 +31,9 @@ import org.springframework.web.bind.annotation.RestController;
 
 import jakarta.validation.Valid;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * This is a REST controller for UCSBDates
@@ -40,17 +48,39 @@ public class UCSBDatesController extends ApiController {
     @Autowired
     UCSBDateRepository ucsbDateRepository;
 
+    @Autowired
+    TombstoneRepository tombstoneRepository;
+
     /**
      * List all UCSB dates
      * 
+     * The JSON is kept by ResponseCacheService and reused until a date changes.
+     * Concurrent callers that miss share one query (see ResponseCacheService.read),
+     * so this method does not open its own transaction; the repository's findAll
+     * runs in a read-only one.
+     * 
      * @return an iterable of UCSBDate
+     * @throws IOException if the dates cannot be serialized
      */
     @Operation(summary= "List all ucsb dates")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("/all")
-    public Iterable<UCSBDate> allUCSBDates() {
-        Iterable<UCSBDate> dates = ucsbDateRepository.findAll();
-        return dates;
+    public ResponseEntity<?> allUCSBDates() throws IOException {
+        return cachedFindAll(UCSBDate.class, "UCSBDate.findAll", ucsbDateRepository::findAll);
+    }
+
+    /**
+     * This method returns the ucsb dates created, updated or deleted since a watermark.
+     * @param since the watermark returned by the previous call (or any earlier time)
+     * @return the ucsb dates that changed after since, and the watermark for the next call
+     */
+    @Operation(summary= "List ucsb dates changed since a watermark")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @Transactional(readOnly = true)
+    @GetMapping("/changes")
+    public EntityChanges<UCSBDate> ucsbDateChanges(
+            @Parameter(name="since") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since) {
+        return changesSince(UCSBDate.class, since, ucsbDateRepository::findAllByUpdatedAtAfter, tombstoneRepository);
     }
 
     /**
@@ -64,12 +94,24 @@ public class UCSBDatesController extends ApiController {
     @GetMapping("")
     public UCSBDate getById(
             @Parameter(name="id") @RequestParam Long id) {
-        UCSBDate ucsbDate = ucsbDateRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException(UCSBDate.class, id));
+        UCSBDate ucsbDate = findOrThrow(UCSBDate.class, id, ucsbDateRepository::findById);
 
         return ucsbDate;
     }
 
+    /**
+     * This method returns several dates at once, looked up with a single query.
+     * @param ids the ids of the dates to get, in the order they should be returned
+     * @return the dates found, and the ids that were not found
+     */
+    @Operation(summary= "Get several dates by id")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping("/batch")
+    public EntityBatch<UCSBDate> getByIds(
+            @Parameter(name="ids") @RequestParam List<Long> ids) {
+        return findAllInOrder(UCSBDate.class, ids, UCSBDate::getId, ucsbDateRepository::findAllById);
+    }
+
     /**
      * Create a new date
      * 
@@ -80,6 +122,7 @@ public class UCSBDatesController extends ApiController {
      */
     @Operation(summary= "Create a new date")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @Transactional
     @PostMapping("/post")
     public UCSBDate postUCSBDate(
             @Parameter(name="quarterYYYYQ") @RequestParam String quarterYYYYQ,
@@ -98,6 +141,7 @@ public class UCSBDatesController extends ApiController {
         ucsbDate.setLocalDateTime(localDateTime);
 
         UCSBDate savedUcsbDate = ucsbDateRepository.save(ucsbDate);
+        publishChange(ChangeType.CREATED, UCSBDate.class, savedUcsbDate.getId(), savedUcsbDate);
 
         return savedUcsbDate;
     }
@@ -110,6 +154,7 @@ public class UCSBDatesController extends ApiController {
      */
     @Operation(summary= "Delete a UCSBDate")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @Transactional
     @DeleteMapping("")
     public Object deleteUCSBDate(
             @Parameter(name="id") @RequestParam Long id) {
@@ -117,6 +162,7 @@ public class UCSBDatesController extends ApiController {
                 .orElseThrow(() -> new EntityNotFoundException(UCSBDate.class, id));
 
         ucsbDateRepository.delete(ucsbDate);
+        publishChange(ChangeType.DELETED, UCSBDate.class, id, null);
         return genericMessage("UCSBDate with id %s deleted".formatted(id));
     }
 
@@ -129,6 +175,7 @@ public class UCSBDatesController extends ApiController {
      */
     @Operation(summary= "Update a single date")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @Transactional
     @PutMapping("")
     public UCSBDate updateUCSBDate(
             @Parameter(name="id") @RequestParam Long id,
@@ -142,6 +189,7 @@ public class UCSBDatesController extends ApiController {
         ucsbDate.setLocalDateTime(incoming.getLocalDateTime());
 
         ucsbDateRepository.save(ucsbDate);
+        publishChange(ChangeType.UPDATED, UCSBDate.class, id, ucsbDate);
 
         return ucsbDate;
     }
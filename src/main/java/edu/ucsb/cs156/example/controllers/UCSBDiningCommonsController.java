@@ -2,7 +2,12 @@ package edu.ucsb.cs156.example.controllers;
 
 import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.models.EntityBatch;
+import edu.ucsb.cs156.example.models.EntityChanges;
+import edu.ucsb.cs156.example.models.EntityChangeEvent.ChangeType;
+import edu.ucsb.cs156.example.repositories.BatchUpsert;
 import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsRepository;
+import edu.ucsb.cs156.example.repositories.TombstoneRepository;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -10,7 +15,10 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -20,6 +28,10 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
 import jakarta.validation.Valid;
 
 /**
@@ -35,16 +47,34 @@ public class UCSBDiningCommonsController extends ApiController {
     @Autowired
     UCSBDiningCommonsRepository ucsbDiningCommonsRepository;
 
+    @Autowired
+    TombstoneRepository tombstoneRepository;
+
     /**
      * THis method returns a list of all ucsbdiningcommons.
+     * The JSON is kept by ResponseCacheService and reused until a dining commons changes.
      * @return a list of all ucsbdiningcommons
+     * @throws IOException if the dining commons cannot be serialized
      */
     @Operation(summary= "List all ucsb dining commons")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("/all")
-    public Iterable<UCSBDiningCommons> allCommonss() {
-        Iterable<UCSBDiningCommons> commons = ucsbDiningCommonsRepository.findAll();
-        return commons;
+    public ResponseEntity<?> allCommonss() throws IOException {
+        return cachedFindAll(UCSBDiningCommons.class, ucsbDiningCommonsRepository::findAll);
+    }
+
+    /**
+     * This method returns the ucsb dining commons created, updated or deleted since a watermark.
+     * @param since the watermark returned by the previous call (or any earlier time)
+     * @return the ucsb dining commons that changed after since, and the watermark for the next call
+     */
+    @Operation(summary= "List ucsb dining commons changed since a watermark")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @Transactional(readOnly = true)
+    @GetMapping("/changes")
+    public EntityChanges<UCSBDiningCommons> commonsChanges(
+            @Parameter(name="since") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since) {
+        return changesSince(UCSBDiningCommons.class, since, ucsbDiningCommonsRepository::findAllByUpdatedAtAfter, tombstoneRepository);
     }
 
     /**
@@ -57,12 +87,24 @@ public class UCSBDiningCommonsController extends ApiController {
     @GetMapping("")
     public UCSBDiningCommons getById(
             @Parameter(name="code") @RequestParam String code) {
-        UCSBDiningCommons commons = ucsbDiningCommonsRepository.findById(code)
-                .orElseThrow(() -> new EntityNotFoundException(UCSBDiningCommons.class, code));
+        UCSBDiningCommons commons = findOrThrow(UCSBDiningCommons.class, code, ucsbDiningCommonsRepository::findById);
 
         return commons;
     }
 
+    /**
+     * This method returns several commons at once, looked up with a single query.
+     * @param codes the codes of the commons to get, in the order they should be returned
+     * @return the commons found, and the codes that were not found
+     */
+    @Operation(summary= "Get several commons by code")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping("/batch")
+    public EntityBatch<UCSBDiningCommons> getByCodes(
+            @Parameter(name="codes") @RequestParam List<String> codes) {
+        return findAllInOrder(UCSBDiningCommons.class, codes, UCSBDiningCommons::getCode, ucsbDiningCommonsRepository::findAllById);
+    }
+
     /**
      * This method creates a new diningcommons. Accessible only to users with the role "ROLE_ADMIN".
      * @param code code of the diningcommons
@@ -76,6 +118,7 @@ public class UCSBDiningCommonsController extends ApiController {
      */
     @Operation(summary= "Create a new commons")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @Transactional
     @PostMapping("/post")
     public UCSBDiningCommons postCommons(
         @Parameter(name="code") @RequestParam String code,
@@ -98,6 +141,7 @@ public class UCSBDiningCommonsController extends ApiController {
         commons.setLongitude(longitude);
 
         UCSBDiningCommons savedCommons = ucsbDiningCommonsRepository.save(commons);
+        publishChange(ChangeType.CREATED, UCSBDiningCommons.class, code, savedCommons);
 
         return savedCommons;
     }
@@ -109,6 +153,7 @@ public class UCSBDiningCommonsController extends ApiController {
      */
     @Operation(summary= "Delete a UCSBDiningCommons")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @Transactional
     @DeleteMapping("")
     public Object deleteCommons(
             @Parameter(name="code") @RequestParam String code) {
@@ -116,6 +161,7 @@ public class UCSBDiningCommonsController extends ApiController {
                 .orElseThrow(() -> new EntityNotFoundException(UCSBDiningCommons.class, code));
 
         ucsbDiningCommonsRepository.delete(commons);
+        publishChange(ChangeType.DELETED, UCSBDiningCommons.class, code, null);
         return genericMessage("UCSBDiningCommons with id %s deleted".formatted(code));
     }
 
@@ -127,6 +173,7 @@ public class UCSBDiningCommonsController extends ApiController {
      */
     @Operation(summary= "Update a single commons")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @Transactional
     @PutMapping("")
     public UCSBDiningCommons updateCommons(
             @Parameter(name="code") @RequestParam String code,
@@ -144,7 +191,31 @@ public class UCSBDiningCommonsController extends ApiController {
         commons.setLongitude(incoming.getLongitude());
 
         ucsbDiningCommonsRepository.save(commons);
+        publishChange(ChangeType.UPDATED, UCSBDiningCommons.class, code, commons);
 
         return commons;
     }
+
+    /**
+     * Insert or update many diningcommons at once, keyed by code. Accessible only to users with the role "ROLE_ADMIN".
+     * The rows are written with one INSERT ... ON CONFLICT (or MERGE) statement per batch,
+     * and commons whose contents are unchanged are left alone.  One change is published
+     * for each code that was actually inserted or updated.  A commons without a code is
+     * rejected with a 400.
+     * @param incoming the commons to insert or update
+     * @return a message indicating how many commons were created, updated and left unchanged
+     */
+    @Operation(summary= "Insert or update many commons")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @Transactional
+    @PutMapping("/upsert")
+    public Object upsertCommons(
+            @RequestBody List<UCSBDiningCommons> incoming) {
+        requireUpsertKeys(UCSBDiningCommons.class, incoming, "code", UCSBDiningCommons::getCode);
+        BatchUpsert.Result<UCSBDiningCommons> result = ucsbDiningCommonsRepository.upsertAll(incoming);
+        result.inserted().forEach((code, commons) -> publishChange(ChangeType.CREATED, UCSBDiningCommons.class, code, commons));
+        result.updated().forEach((code, commons) -> publishChange(ChangeType.UPDATED, UCSBDiningCommons.class, code, commons));
+        return genericMessage("%d UCSBDiningCommons created, %d updated, %d unchanged"
+                .formatted(result.inserted().size(), result.updated().size(), result.unchanged()));
+    }
 }
@@ -2,8 +2,12 @@ package edu.ucsb.cs156.example.controllers;
 
 import edu.ucsb.cs156.example.entities.UCSBDate;
 import edu.ucsb.cs156.example.entities.UCSBDiningCommonsMenuItem;
-import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.models.EntityBatch;
+import edu.ucsb.cs156.example.models.EntityChanges;
+import edu.ucsb.cs156.example.models.EntityChangeEvent.ChangeType;
 import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsMenuItemRepository;
+import edu.ucsb.cs156.example.repositories.TombstoneRepository;
+import edu.ucsb.cs156.example.services.MenuItemStoreService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -13,13 +17,20 @@ import lombok.extern.slf4j.Slf4j;
 import com.fasterxml.jackson.core.JsonProcessingException;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
 /**
  * This is a REST controller for UCSBDiningCommonsMenuItemController
  */
@@ -33,18 +44,45 @@ public class UCSBDiningCommonsMenuItemController extends ApiController {
     @Autowired
     UCSBDiningCommonsMenuItemRepository ucsbDiningCommonsMenuItemRepository;
 
+    @Autowired
+    TombstoneRepository tombstoneRepository;
+
+    @Autowired
+    MenuItemStoreService menuItemStore;
+
     /**
      * List all UCSB dining commons menu items
      * 
+     * The JSON is kept by ResponseCacheService and reused until a menu item changes.
+     * When the in-memory MenuItemStoreService is serving, the items come from it.
+     * Concurrent callers that miss share one read (see ResponseCacheService.read),
+     * so this method does not open its own transaction; the repository's findAll
+     * runs in a read-only one.
+     * 
      * @return an iterable of UCSBDDiningCommonsMenuitem
+     * @throws IOException if the menu items cannot be serialized
      */
 
     @Operation(summary= "List all ucsb dining commons menu items")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("/all")
-    public Iterable<UCSBDiningCommonsMenuItem> allUCSBDiningCommonsMenuItems() {
-        Iterable<UCSBDiningCommonsMenuItem> items = ucsbDiningCommonsMenuItemRepository.findAll();
-        return items;
+    public ResponseEntity<?> allUCSBDiningCommonsMenuItems() throws IOException {
+        return cachedFindAll(UCSBDiningCommonsMenuItem.class, "UCSBDiningCommonsMenuItem.findAll",
+                () -> menuItemStore.isServing() ? menuItemStore.findAll() : ucsbDiningCommonsMenuItemRepository.findAll());
+    }
+
+    /**
+     * This method returns the ucsb dining commons menu items created, updated or deleted since a watermark.
+     * @param since the watermark returned by the previous call (or any earlier time)
+     * @return the ucsb dining commons menu items that changed after since, and the watermark for the next call
+     */
+    @Operation(summary= "List ucsb dining commons menu items changed since a watermark")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @Transactional(readOnly = true)
+    @GetMapping("/changes")
+    public EntityChanges<UCSBDiningCommonsMenuItem> ucsbDiningCommonsMenuItemChanges(
+            @Parameter(name="since") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since) {
+        return changesSince(UCSBDiningCommonsMenuItem.class, since, ucsbDiningCommonsMenuItemRepository::findAllByUpdatedAtAfter, tombstoneRepository);
     }
 
      /**
@@ -57,6 +95,7 @@ public class UCSBDiningCommonsMenuItemController extends ApiController {
      */
     @Operation(summary= "Create a new dining commons menu item")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @Transactional
     @PostMapping("/post")
     public UCSBDiningCommonsMenuItem postUCSBDiningCommonsMenuItem (
             @Parameter(name="diningCommonsCode") @RequestParam String diningCommonsCode,
@@ -71,6 +110,8 @@ public class UCSBDiningCommonsMenuItemController extends ApiController {
         item.setStation(station);
 
         UCSBDiningCommonsMenuItem savedItem = ucsbDiningCommonsMenuItemRepository.save(item);
+        menuItemStore.put(savedItem);
+        publishChange(ChangeType.CREATED, UCSBDiningCommonsMenuItem.class, savedItem.getId(), savedItem);
 
         return savedItem;
     }
@@ -78,6 +119,9 @@ public class UCSBDiningCommonsMenuItemController extends ApiController {
      /**
      * Get a single dining commons menu item by id
      * 
+     * This comes from MenuItemStoreService when it is serving, so this method does not
+     * open its own transaction; the repository's findById runs in a read-only one.
+     * 
      * @param id the id of the dining commons menu item
      * @return a UCSBDiningCommonsMenuItem
      */
@@ -86,12 +130,31 @@ public class UCSBDiningCommonsMenuItemController extends ApiController {
     @GetMapping("")
     public UCSBDiningCommonsMenuItem getById(
             @Parameter(name="id") @RequestParam Long id) {
-        UCSBDiningCommonsMenuItem item = ucsbDiningCommonsMenuItemRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException(UCSBDiningCommonsMenuItem.class, id));
+        UCSBDiningCommonsMenuItem item = findOrThrow(UCSBDiningCommonsMenuItem.class, id, itemId -> menuItemStore.isServing()
+                ? menuItemStore.findById(itemId)
+                : ucsbDiningCommonsMenuItemRepository.findById(itemId));
 
         return item;
     }
 
+    /**
+     * This method returns several menu items at once, looked up with a single query.
+     * 
+     * Like getById, this reads from MenuItemStoreService when it is serving.
+     * @param ids the ids of the menu items to get, in the order they should be returned
+     * @return the menu items found, and the ids that were not found
+     */
+    @Operation(summary= "Get several menu items by id")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping("/batch")
+    public EntityBatch<UCSBDiningCommonsMenuItem> getByIds(
+            @Parameter(name="ids") @RequestParam List<Long> ids) {
+        return findAllInOrder(UCSBDiningCommonsMenuItem.class, ids, UCSBDiningCommonsMenuItem::getId,
+                menuItemIds -> menuItemStore.isServing()
+                        ? menuItemStore.findAllById(menuItemIds)
+                        : ucsbDiningCommonsMenuItemRepository.findAllById(menuItemIds));
+    }
+
 
 }
 
@@ -2,7 +2,12 @@ package edu.ucsb.cs156.example.controllers;
 
 import edu.ucsb.cs156.example.entities.UCSBOrganization;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.models.EntityBatch;
+import edu.ucsb.cs156.example.models.EntityChanges;
+import edu.ucsb.cs156.example.models.EntityChangeEvent.ChangeType;
+import edu.ucsb.cs156.example.repositories.BatchUpsert;
 import edu.ucsb.cs156.example.repositories.UCSBOrganizationRepository;
+import edu.ucsb.cs156.example.repositories.TombstoneRepository;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -10,7 +15,10 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -20,6 +28,10 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
 import jakarta.validation.Valid;
 
 @Tag(name = "UCSBOrganization")
@@ -31,16 +43,39 @@ public class UCSBOrganizationController extends ApiController {
     @Autowired
     UCSBOrganizationRepository ucsbOrganizationRepository;
 
+    @Autowired
+    TombstoneRepository tombstoneRepository;
+
+    /**
+     * This method returns a list of all ucsb organizations.
+     * The JSON is kept by ResponseCacheService and reused until an organization changes.
+     * @return a list of all ucsb organizations
+     * @throws IOException if the organizations cannot be serialized
+     */
     @Operation(summary= "List all ucsb organizations")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("/all")
-    public Iterable<UCSBOrganization> allOrganizations() {
-        Iterable<UCSBOrganization> organizations = ucsbOrganizationRepository.findAll();
-        return organizations;
+    public ResponseEntity<?> allOrganizations() throws IOException {
+        return cachedFindAll(UCSBOrganization.class, ucsbOrganizationRepository::findAll);
+    }
+
+    /**
+     * This method returns the ucsb organizations created, updated or deleted since a watermark.
+     * @param since the watermark returned by the previous call (or any earlier time)
+     * @return the ucsb organizations that changed after since, and the watermark for the next call
+     */
+    @Operation(summary= "List ucsb organizations changed since a watermark")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @Transactional(readOnly = true)
+    @GetMapping("/changes")
+    public EntityChanges<UCSBOrganization> organizationChanges(
+            @Parameter(name="since") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since) {
+        return changesSince(UCSBOrganization.class, since, ucsbOrganizationRepository::findAllByUpdatedAtAfter, tombstoneRepository);
     }
 
     @Operation(summary= "Create a new ucsb organization")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @Transactional
     @PostMapping("/post")
     public UCSBOrganization postOrganization(
         @Parameter(name="orgCode") @RequestParam String orgCode,
@@ -55,6 +90,7 @@ public class UCSBOrganizationController extends ApiController {
             org.setOrgTranslation(orgTranslation);
             org.setInactive(inactive);
             UCSBOrganization savedOrg = ucsbOrganizationRepository.save(org);
+            publishChange(ChangeType.CREATED, UCSBOrganization.class, orgCode, savedOrg);
             return savedOrg;
     }
 
@@ -63,14 +99,27 @@ public class UCSBOrganizationController extends ApiController {
     @GetMapping("")
     public UCSBOrganization getById(
             @Parameter(name="orgCode") @RequestParam String orgCode) {
-        UCSBOrganization organization = ucsbOrganizationRepository.findById(orgCode)
-                .orElseThrow(() -> new EntityNotFoundException(UCSBOrganization.class, orgCode));
+        UCSBOrganization organization = findOrThrow(UCSBOrganization.class, orgCode, ucsbOrganizationRepository::findById);
         
         return organization;
     }
 
+    /**
+     * This method returns several organizations at once, looked up with a single query.
+     * @param orgCodes the orgCodes of the organizations to get, in the order they should be returned
+     * @return the organizations found, and the orgCodes that were not found
+     */
+    @Operation(summary= "Get several organizations by orgCode")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping("/batch")
+    public EntityBatch<UCSBOrganization> getByOrgCodes(
+            @Parameter(name="orgCodes") @RequestParam List<String> orgCodes) {
+        return findAllInOrder(UCSBOrganization.class, orgCodes, UCSBOrganization::getOrgCode, ucsbOrganizationRepository::findAllById);
+    }
+
     @Operation(summary= "Update a single organization")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @Transactional
     @PutMapping("")
     public UCSBOrganization updateOrganization(
             @Parameter(name="orgCode") @RequestParam String orgCode,
@@ -85,12 +134,14 @@ public class UCSBOrganizationController extends ApiController {
         organization.setInactive(newOrg.getInactive());
 
         ucsbOrganizationRepository.save(organization);
+        publishChange(ChangeType.UPDATED, UCSBOrganization.class, orgCode, organization);
 
         return organization;
     }
 
     @Operation(summary= "Delete a UCSBOrganization")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @Transactional
     @DeleteMapping("")
     public Object deleteOrganization(
             @Parameter(name="orgCode") @RequestParam String orgCode) {
@@ -98,6 +149,21 @@ public class UCSBOrganizationController extends ApiController {
                 .orElseThrow(() -> new EntityNotFoundException(UCSBOrganization.class, orgCode));
 
         ucsbOrganizationRepository.delete(organization);
+        publishChange(ChangeType.DELETED, UCSBOrganization.class, orgCode, null);
         return genericMessage("UCSBOrganization with id %s deleted".formatted(orgCode));
     }
-}
\ No newline at end of file
+
+    @Operation(summary= "Insert or update many organizations")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @Transactional
+    @PutMapping("/upsert")
+    public Object upsertOrganizations(
+            @RequestBody List<UCSBOrganization> incoming) {
+        requireUpsertKeys(UCSBOrganization.class, incoming, "orgCode", UCSBOrganization::getOrgCode);
+        BatchUpsert.Result<UCSBOrganization> result = ucsbOrganizationRepository.upsertAll(incoming);
+        result.inserted().forEach((orgCode, organization) -> publishChange(ChangeType.CREATED, UCSBOrganization.class, orgCode, organization));
+        result.updated().forEach((orgCode, organization) -> publishChange(ChangeType.UPDATED, UCSBOrganization.class, orgCode, organization));
+        return genericMessage("%d UCSBOrganization created, %d updated, %d unchanged"
+                .formatted(result.inserted().size(), result.updated().size(), result.unchanged()));
+    }
+}
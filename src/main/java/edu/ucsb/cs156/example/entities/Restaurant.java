@@ -1,6 +1,10 @@
 package edu.ucsb.cs156.example.entities;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
@@ -9,6 +13,12 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+
 /**
  * This is a JPA entity that represents a restaurant.
  */
@@ -18,6 +28,7 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @Builder
 @Entity(name = "restaurants")
+@EntityListeners(AuditingEntityListener.class)
 public class Restaurant {
   @Id
   @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -25,4 +36,13 @@ public class Restaurant {
 
   private String name;
   private String description;
+
+  @JsonIgnore
+  @CreatedDate
+  @Column(updatable = false)
+  private LocalDateTime createdAt;
+
+  @JsonIgnore
+  @LastModifiedDate
+  private LocalDateTime updatedAt;
 }
\ No newline at end of file
@@ -3,6 +3,9 @@ package edu.ucsb.cs156.example.errors;
 /**
  * This is an error class for a custom RuntimeException in Java that is used to indicate
  * when an entity of a specific type with a given ID is not found.
+ *
+ * It is an expected outcome rather than a bug, and is always turned into a 404 response,
+ * so it does not fill in a stack trace; this keeps lookups of missing ids cheap.
  */
 public class EntityNotFoundException extends RuntimeException {
   /**
@@ -12,7 +15,6 @@ public class EntityNotFoundException extends RuntimeException {
    * @param id the id that was being searched for
    */
   public EntityNotFoundException(Class<?> entityType, Object id) {
-    super("%s with id %s not found"
-      .formatted(entityType.getSimpleName(), id.toString()));
+    super(entityType.getSimpleName() + " with id " + id + " not found", null, false, false);
   }
 }
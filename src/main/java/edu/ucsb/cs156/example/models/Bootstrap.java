@@ -0,0 +1,25 @@
+package edu.ucsb.cs156.example.models;
+
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import lombok.Builder;
+import lombok.AccessLevel;
+
+/**
+ * This is a model class for everything the frontend needs when a page first loads,
+ * so that it can be fetched with one request instead of several.
+ *
+ * currentUser is null when nobody is logged in.
+ *
+ * @see edu.ucsb.cs156.example.controllers.BootstrapController
+ */
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class Bootstrap {
+  private CurrentUser currentUser;
+  private SystemInfo systemInfo;
+}
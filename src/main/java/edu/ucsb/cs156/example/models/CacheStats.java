@@ -0,0 +1,30 @@
+package edu.ucsb.cs156.example.models;
+
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import lombok.Builder;
+import lombok.AccessLevel;
+
+import java.util.List;
+
+/**
+ * This is a model class that reports how well Hibernate's second-level and query caches are doing.
+ *
+ * @see edu.ucsb.cs156.example.services.HibernateStatisticsService
+ */
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class CacheStats {
+  private boolean statisticsEnabled;
+  private long secondLevelCacheHitCount;
+  private long secondLevelCacheMissCount;
+  private long secondLevelCachePutCount;
+  private long queryCacheHitCount;
+  private long queryCacheMissCount;
+  private long queryCachePutCount;
+  private List<CacheRegionStats> regions;
+}
@@ -0,0 +1,24 @@
+package edu.ucsb.cs156.example.models;
+
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import lombok.Builder;
+import lombok.AccessLevel;
+
+/**
+ * This is a model class that reports, for one coalescing key, how many callers
+ * asked for it, how many database reads were made, and how many callers shared
+ * another caller's read.
+ */
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class CoalescedKeyStats {
+  private String key;
+  private long calls;
+  private long loads;
+  private long coalesced;
+}
@@ -0,0 +1,29 @@
+package edu.ucsb.cs156.example.models;
+
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import lombok.Builder;
+import lombok.AccessLevel;
+
+import java.util.List;
+
+/**
+ * This is a model class that reports how many reads RequestCoalescingService has
+ * shared since startup.
+ *
+ * coalescedTotal counts callers that waited for a read already in flight
+ * instead of querying the database themselves.
+ */
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class CoalescingStats {
+  private boolean enabled;
+  private int inFlight;
+  private long callsTotal;
+  private long coalescedTotal;
+  private List<CoalescedKeyStats> keys;
+}
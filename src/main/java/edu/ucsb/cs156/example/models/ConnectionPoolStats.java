@@ -0,0 +1,37 @@
+package edu.ucsb.cs156.example.models;
+
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import lombok.Builder;
+import lombok.AccessLevel;
+
+/**
+ * This is a model class that reports the state of one JDBC connection pool.
+ *
+ * pendingThreads is the number of threads currently waiting for a connection;
+ * if it is often above zero, or acquireTimeouts is growing, the pool is too small
+ * (or connections are being held too long, see maxUsageMillis).
+ *
+ * @see edu.ucsb.cs156.example.services.ConnectionPoolMetricsService
+ */
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class ConnectionPoolStats {
+  private String pool;
+  private int activeConnections;
+  private int idleConnections;
+  private int totalConnections;
+  private int maxConnections;
+  private int pendingThreads;
+  private long acquisitions;
+  private double meanAcquireMillis;
+  private double maxAcquireMillis;
+  private long acquireTimeouts;
+  private double meanUsageMillis;
+  private long maxUsageMillis;
+  private long connectionsCreated;
+}
@@ -0,0 +1,29 @@
+package edu.ucsb.cs156.example.models;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * This is a model class that represents the result of looking up several entities
+ * by id at once.  It is returned by the /batch endpoints.
+ *
+ * items holds the entities that were found, in the order their ids were requested;
+ * missing holds the requested ids that were not found, also in request order.
+ * An id requested more than once appears only once.
+ *
+ * @param <T> the type of entity
+ */
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class EntityBatch<T> {
+  private List<T> items;
+  private List<?> missing;
+}
@@ -0,0 +1,36 @@
+package edu.ucsb.cs156.example.models;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * This is a model class that represents a change (create, update or delete)
+ * made to a single database row through one of the API controllers.
+ *
+ * These events are published as Spring application events by the controllers
+ * and are pushed to browsers by the ChangeFeedService.
+ *
+ * @see edu.ucsb.cs156.example.services.ChangeFeedService
+ */
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class EntityChangeEvent {
+
+  /**
+   * The kind of change that was made to the entity.
+   */
+  public enum ChangeType {
+    CREATED, UPDATED, DELETED
+  }
+
+  private String entityType;
+  private ChangeType changeType;
+  private Object id;
+  private Object entity;
+}
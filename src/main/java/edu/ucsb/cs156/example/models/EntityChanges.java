@@ -0,0 +1,30 @@
+package edu.ucsb.cs156.example.models;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * This is a model class that represents the rows of a table that changed since
+ * a client's watermark.  It is returned by the /changes endpoints.
+ *
+ * Clients should remove the ids in deleted first, then insert or replace the
+ * rows in updated, and pass watermark as the since parameter of their next call.
+ *
+ * @param <T> the type of entity
+ */
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class EntityChanges<T> {
+  private LocalDateTime watermark;
+  private Iterable<T> updated;
+  private List<String> deleted;
+}
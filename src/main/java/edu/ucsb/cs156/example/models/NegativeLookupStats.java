@@ -0,0 +1,30 @@
+package edu.ucsb.cs156.example.models;
+
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import lombok.Builder;
+import lombok.AccessLevel;
+
+import java.util.Map;
+
+/**
+ * This is a model class that reports how many lookups of missing ids were answered
+ * from the negative lookup cache.
+ *
+ * hitsByType counts lookups answered without a query, missesByType lookups that
+ * queried the database and found nothing; both are keyed by entity type, e.g. "Restaurant".
+ *
+ * @see edu.ucsb.cs156.example.services.NegativeLookupCacheService
+ */
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class NegativeLookupStats {
+  private boolean enabled;
+  private int entries;
+  private Map<String, Long> hitsByType;
+  private Map<String, Long> missesByType;
+}
@@ -0,0 +1,26 @@
+package edu.ucsb.cs156.example.models;
+
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import lombok.Builder;
+import lombok.AccessLevel;
+
+import java.util.Map;
+
+/**
+ * This is a model class that reports what the rate limiter has done since startup.
+ *
+ * rejectedByRoute is keyed by the route pattern whose limit was exceeded.
+ */
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class RateLimitStats {
+  private boolean enabled;
+  private int buckets;
+  private long rejectedTotal;
+  private Map<String, Long> rejectedByRoute;
+}
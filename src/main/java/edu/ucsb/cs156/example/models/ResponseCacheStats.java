@@ -0,0 +1,30 @@
+package edu.ucsb.cs156.example.models;
+
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import lombok.Builder;
+import lombok.AccessLevel;
+
+import java.util.Map;
+
+/**
+ * This is a model class that reports how often the serialized /all responses were reused.
+ *
+ * hitsByType and missesByType are keyed by entity type, e.g. "Restaurant";
+ * versionsByType is the number of changes made to that type since startup.
+ *
+ * @see edu.ucsb.cs156.example.services.ResponseCacheService
+ */
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class ResponseCacheStats {
+  private boolean enabled;
+  private int entries;
+  private Map<String, Long> hitsByType;
+  private Map<String, Long> missesByType;
+  private Map<String, Long> versionsByType;
+}
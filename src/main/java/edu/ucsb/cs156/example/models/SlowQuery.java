@@ -0,0 +1,26 @@
+package edu.ucsb.cs156.example.models;
+
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import lombok.Builder;
+import lombok.AccessLevel;
+
+import java.time.Instant;
+
+/**
+ * This is a model class that records one execution of a SQL statement that was slower than the threshold.
+ *
+ * request is the handler that issued the statement (e.g. "GET /api/restaurants/all"), if any.
+ */
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class SlowQuery {
+  private String sql;
+  private long elapsedMillis;
+  private Instant at;
+  private String request;
+}
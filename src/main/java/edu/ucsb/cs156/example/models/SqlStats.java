@@ -0,0 +1,33 @@
+package edu.ucsb.cs156.example.models;
+
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import lombok.Builder;
+import lombok.AccessLevel;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This is a model class that reports what the SQL instrumentation has seen.
+ *
+ * statements is sorted by total time, most expensive first.  suspectedNPlusOne maps
+ * "request :: sql" to the number of requests in which that statement ran at least
+ * repeatedStatementThreshold times, which is the signature of an N+1 query.
+ *
+ * @see edu.ucsb.cs156.example.services.QueryInstrumentationService
+ */
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class SqlStats {
+  private boolean enabled;
+  private long slowQueryThresholdMillis;
+  private int repeatedStatementThreshold;
+  private List<SqlStatementStats> statements;
+  private List<SlowQuery> slowQueries;
+  private Map<String, Long> suspectedNPlusOne;
+}
@@ -1,6 +1,8 @@
 package edu.ucsb.cs156.example.models;
 
-import lombok.Data;
+import lombok.Getter;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
 import lombok.Builder;
@@ -10,9 +12,13 @@ import lombok.AccessLevel;
  * This is a model class that represents system information.
  * 
  * This class is used to provide information about the system to the frontend.
+ * It has no setters: SystemInfoService builds one instance at startup and
+ * every caller shares it.
  */
 
-@Data
+@Getter
+@EqualsAndHashCode
+@ToString
 @AllArgsConstructor
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @Builder
@@ -0,0 +1,224 @@
+package edu.ucsb.cs156.example.repositories;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Inserts or updates rows of a table keyed by a natural key, many rows per statement,
+ * using the database's own upsert: INSERT ... ON CONFLICT DO UPDATE on Postgres and
+ * MERGE on H2.  Refreshing a whole reference table therefore costs one round trip per
+ * batch, rather than a SELECT and an INSERT or UPDATE per row as with save().
+ *
+ * Rows whose columns already hold the given values are left alone, so their updated_at
+ * (and with it the /changes endpoints) only moves when something actually changed.
+ * created_at and updated_at are set from the JVM clock, as JPA auditing sets them for
+ * entities saved through a repository, and every row written by one call gets the same
+ * timestamp.  The rows actually inserted or updated are returned: Postgres reports them
+ * with RETURNING, and on H2 they are selected, with the same comparison, just before
+ * the MERGE.
+ *
+ * The statements bypass Hibernate, so the second-level cache entries of the written
+ * rows are evicted after the transaction commits.  Callers are responsible for
+ * publishing EntityChangeEvents for the returned rows, which keep the response cache
+ * and change feed up to date.
+ *
+ * @param <T> the type of entity
+ */
+public class BatchUpsert<T> {
+
+  /**
+   * A column written by the upsert.
+   * @param <T> the type of entity
+   * @param name the column name
+   * @param h2Type the SQL type of the column, which H2 needs to type the parameters of a VALUES list
+   * @param value returns the column's value for an entity
+   */
+  public record Column<T>(String name, String h2Type, Function<T, Object> value) {
+  }
+
+  /**
+   * The rows an upsert wrote.
+   * @param <T> the type of entity
+   * @param inserted the rows whose key was new, by key, in the order they were given
+   * @param updated the existing rows that had at least one column changed, by key, in the order they were given
+   * @param unchanged how many distinct keys already held the given values
+   */
+  public record Result<T>(Map<Object, T> inserted, Map<Object, T> updated, int unchanged) {
+  }
+
+  private final JdbcTemplate jdbcTemplate;
+  private final EntityManagerFactory entityManagerFactory;
+  private final Class<T> entityType;
+  private final String table;
+  private final Column<T> key;
+  private final List<Column<T>> columns;
+  private final int batchSize;
+
+  private volatile Boolean postgres;
+
+  /**
+   * Creates an upsert for one table.
+   * @param jdbcTemplate runs the statements, in the caller's transaction if there is one
+   * @param entityManagerFactory whose second-level cache is evicted
+   * @param entityType the entity class mapped to the table
+   * @param table the table name
+   * @param key the natural key column
+   * @param columns every other column, except created_at and updated_at
+   * @param batchSize the most rows written by one statement
+   */
+  public BatchUpsert(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory, Class<T> entityType,
+      String table, Column<T> key, List<Column<T>> columns, int batchSize) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.entityManagerFactory = entityManagerFactory;
+    this.entityType = entityType;
+    this.table = table;
+    this.key = key;
+    this.columns = columns;
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Inserts the rows that don't exist yet and updates the ones that do.
+   * @param rows the entities to write; if two share a key, the later one wins
+   * @return the rows that were inserted or updated
+   */
+  public Result<T> upsertAll(List<T> rows) {
+    // one statement may not touch the same row twice
+    Map<Object, T> byKey = new LinkedHashMap<>();
+    rows.forEach(row -> byKey.put(key.value().apply(row), row));
+    List<T> distinct = new ArrayList<>(byKey.values());
+    Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+    Map<Object, Boolean> written = new HashMap<>();
+    RowCallbackHandler collect = resultSet -> written.put(resultSet.getObject(1), resultSet.getBoolean(2));
+    for (int from = 0; from < distinct.size(); from += batchSize) {
+      List<T> batch = distinct.subList(from, Math.min(from + batchSize, distinct.size()));
+      if (isPostgres()) {
+        jdbcTemplate.query(postgresSql(batch.size()), collect, parameters(batch, now, now));
+      } else {
+        Object[] parameters = parameters(batch);
+        jdbcTemplate.query(h2ChangedSql(batch.size()), collect, parameters);
+        // the MERGE binds updated_at for an update, then created_at and updated_at for an insert
+        Object[] withTimestamps = Arrays.copyOf(parameters, parameters.length + 3);
+        Arrays.fill(withTimestamps, parameters.length, withTimestamps.length, now);
+        jdbcTemplate.update(h2Sql(batch.size()), withTimestamps);
+      }
+    }
+    Map<Object, T> inserted = new LinkedHashMap<>();
+    Map<Object, T> updated = new LinkedHashMap<>();
+    byKey.forEach((rowKey, row) -> {
+      Boolean wasInserted = written.get(rowKey);
+      if (wasInserted != null) {
+        (wasInserted ? inserted : updated).put(rowKey, row);
+      }
+    });
+    evictAfterCommit(written.keySet());
+    return new Result<>(inserted, updated, distinct.size() - written.size());
+  }
+
+  String postgresSql(int rowCount) {
+    String row = "(" + String.join(", ", Collections.nCopies(columns.size() + 3, "?")) + ")";
+    return "INSERT INTO " + table + " (" + key.name() + ", " + names("") + ", created_at, updated_at)"
+        + " VALUES " + String.join(", ", Collections.nCopies(rowCount, row))
+        + " ON CONFLICT (" + key.name() + ") DO UPDATE SET " + assignments("EXCLUDED.")
+        + ", updated_at = EXCLUDED.updated_at"
+        + " WHERE " + changed(table + ".", "EXCLUDED.")
+        // xmax is only zero for a row this statement inserted
+        + " RETURNING " + key.name() + ", (xmax = 0) AS inserted";
+  }
+
+  String h2ChangedSql(int rowCount) {
+    return "SELECT s." + key.name() + ", t." + key.name() + " IS NULL AS inserted FROM " + h2Values(rowCount)
+        + " LEFT JOIN " + table + " AS t ON t." + key.name() + " = s." + key.name()
+        + " WHERE t." + key.name() + " IS NULL OR " + changed("t.", "s.");
+  }
+
+  String h2Sql(int rowCount) {
+    return "MERGE INTO " + table + " AS t USING " + h2Values(rowCount)
+        + " ON t." + key.name() + " = s." + key.name()
+        + " WHEN MATCHED AND (" + changed("t.", "s.") + ") THEN UPDATE SET " + assignments("s.")
+        + ", updated_at = CAST(? AS TIMESTAMP)"
+        + " WHEN NOT MATCHED THEN INSERT (" + key.name() + ", " + names("") + ", created_at, updated_at)"
+        + " VALUES (s." + key.name() + ", " + names("s.") + ", CAST(? AS TIMESTAMP), CAST(? AS TIMESTAMP))";
+  }
+
+  private String h2Values(int rowCount) {
+    String row = "(" + cast(key) + ", " + columns.stream().map(BatchUpsert::cast).collect(Collectors.joining(", ")) + ")";
+    return "(VALUES " + String.join(", ", Collections.nCopies(rowCount, row)) + ") AS s ("
+        + key.name() + ", " + names("") + ")";
+  }
+
+  private Object[] parameters(List<T> batch, Object... afterEachRow) {
+    Object[] parameters = new Object[batch.size() * (columns.size() + 1 + afterEachRow.length)];
+    int i = 0;
+    for (T row : batch) {
+      parameters[i++] = key.value().apply(row);
+      for (Column<T> column : columns) {
+        parameters[i++] = column.value().apply(row);
+      }
+      for (Object value : afterEachRow) {
+        parameters[i++] = value;
+      }
+    }
+    return parameters;
+  }
+
+  private boolean isPostgres() {
+    if (postgres == null) {
+      postgres = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+          connection.getMetaData().getDatabaseProductName().equals("PostgreSQL"));
+    }
+    return postgres;
+  }
+
+  private void evictAfterCommit(Iterable<Object> keys) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      evict(keys);
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        evict(keys);
+      }
+    });
+  }
+
+  private void evict(Iterable<Object> keys) {
+    keys.forEach(key -> entityManagerFactory.getCache().evict(entityType, key));
+  }
+
+  private String names(String prefix) {
+    return columns.stream().map(column -> prefix + column.name()).collect(Collectors.joining(", "));
+  }
+
+  private String assignments(String source) {
+    return columns.stream().map(column -> column.name() + " = " + source + column.name())
+        .collect(Collectors.joining(", "));
+  }
+
+  private String changed(String target, String source) {
+    return columns.stream().map(column -> target + column.name() + " IS DISTINCT FROM " + source + column.name())
+        .collect(Collectors.joining(" OR "));
+  }
+
+  private static String cast(Column<?> column) {
+    return "CAST(? AS " + column.h2Type() + ")";
+  }
+}
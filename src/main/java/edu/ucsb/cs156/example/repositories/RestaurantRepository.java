@@ -5,9 +5,17 @@ import edu.ucsb.cs156.example.entities.Restaurant;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+
 /**
  * The RestaurantRepository is a repository for Restaurant entities
  */
 @Repository
 public interface RestaurantRepository extends CrudRepository<Restaurant, Long> {
-}
+  /**
+   * This method returns all Restaurant entities created or updated after a given time.
+   * @param since only entities with an updatedAt after this time are returned
+   * @return all Restaurant entities changed after since
+   */
+  Iterable<Restaurant> findAllByUpdatedAtAfter(LocalDateTime since);
+}
\ No newline at end of file
@@ -0,0 +1,35 @@
+package edu.ucsb.cs156.example.repositories;
+
+import edu.ucsb.cs156.example.entities.Tombstone;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * The TombstoneRepository is a repository for Tombstone entities.
+ */
+@Repository
+public interface TombstoneRepository extends CrudRepository<Tombstone, Long> {
+  /**
+   * This method returns the tombstones for a given entity type recorded after a given time.
+   * @param entityType simple class name of the entity, e.g. "Restaurant"
+   * @param since only tombstones with a deletedAt after this time are returned
+   * @return tombstones recorded after since
+   */
+  Iterable<Tombstone> findAllByEntityTypeAndDeletedAtAfter(String entityType, LocalDateTime since);
+
+  /**
+   * This method deletes, in a single statement, the tombstones recorded before a given time.
+   * @param cutoff tombstones with a deletedAt before this time are deleted
+   * @return the number of tombstones deleted
+   */
+  @Modifying
+  @Transactional
+  @Query("DELETE FROM tombstones t WHERE t.deletedAt < ?1")
+  int deleteAllByDeletedAtBefore(LocalDateTime cutoff);
+}
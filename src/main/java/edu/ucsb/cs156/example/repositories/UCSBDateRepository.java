@@ -2,9 +2,15 @@ package edu.ucsb.cs156.example.repositories;
 
 import edu.ucsb.cs156.example.entities.UCSBDate;
 
+import jakarta.persistence.QueryHint;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+
 /**
  * The UCSBDateRepository is a repository for UCSBDate entities.
  */
@@ -16,5 +22,13 @@ public interface UCSBDateRepository extends CrudRepository<UCSBDate, Long> {
    * @param quarterYYYYQ quarter in the format YYYYQ (e.g. 20241 for Winter 2024, 20242 for Spring 2024, 20243 for Summer 2024, 20244 for Fall 2024)
    * @return all UCSBDate entities with a given quarterYYYYQ
    */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
   Iterable<UCSBDate> findAllByQuarterYYYYQ(String quarterYYYYQ);
+
+  /**
+   * This method returns all UCSBDate entities created or updated after a given time.
+   * @param since only entities with an updatedAt after this time are returned
+   * @return all UCSBDate entities changed after since
+   */
+  Iterable<UCSBDate> findAllByUpdatedAtAfter(LocalDateTime since);
 }
\ No newline at end of file
@@ -5,10 +5,17 @@ import edu.ucsb.cs156.example.entities.UCSBDiningCommonsMenuItem;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+
 /**
  * The UCSBDiningCommonsRepository is a repository for UCSBDiningCommons entities
  */
 @Repository
 public interface UCSBDiningCommonsMenuItemRepository extends CrudRepository<UCSBDiningCommonsMenuItem, Long> {
- 
+  /**
+   * This method returns all UCSBDiningCommonsMenuItem entities created or updated after a given time.
+   * @param since only entities with an updatedAt after this time are returned
+   * @return all UCSBDiningCommonsMenuItem entities changed after since
+   */
+  Iterable<UCSBDiningCommonsMenuItem> findAllByUpdatedAtAfter(LocalDateTime since);
 }
\ No newline at end of file
@@ -5,10 +5,17 @@ import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+
 /**
  * The UCSBDiningCommonsRepository is a repository for UCSBDiningCommons entities
  */
 @Repository
-public interface UCSBDiningCommonsRepository extends CrudRepository<UCSBDiningCommons, String> {
- 
+public interface UCSBDiningCommonsRepository extends CrudRepository<UCSBDiningCommons, String>, UCSBDiningCommonsUpsertRepository {
+  /**
+   * This method returns all UCSBDiningCommons entities created or updated after a given time.
+   * @param since only entities with an updatedAt after this time are returned
+   * @return all UCSBDiningCommons entities changed after since
+   */
+  Iterable<UCSBDiningCommons> findAllByUpdatedAtAfter(LocalDateTime since);
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+package edu.ucsb.cs156.example.repositories;
+
+import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
+
+import java.util.List;
+
+/**
+ * Bulk insert-or-update for UCSBDiningCommons, mixed into UCSBDiningCommonsRepository.
+ */
+public interface UCSBDiningCommonsUpsertRepository {
+  /**
+   * This method inserts the dining commons whose code is new and updates the rest, in batches.
+   * @param diningCommons the dining commons to write
+   * @return the dining commons that were inserted or updated, by code
+   */
+  BatchUpsert.Result<UCSBDiningCommons> upsertAll(List<UCSBDiningCommons> diningCommons);
+}
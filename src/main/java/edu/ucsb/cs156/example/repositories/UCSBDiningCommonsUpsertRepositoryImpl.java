@@ -0,0 +1,43 @@
+package edu.ucsb.cs156.example.repositories;
+
+import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
+import edu.ucsb.cs156.example.repositories.BatchUpsert.Column;
+import jakarta.persistence.EntityManagerFactory;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Implements UCSBDiningCommonsUpsertRepository with a BatchUpsert keyed by code.
+ */
+public class UCSBDiningCommonsUpsertRepositoryImpl implements UCSBDiningCommonsUpsertRepository {
+
+  private final BatchUpsert<UCSBDiningCommons> upsert;
+
+  /**
+   * Constructor used by Spring Data when it builds UCSBDiningCommonsRepository.
+   * @param jdbcTemplate runs the upsert statements
+   * @param entityManagerFactory whose second-level cache is evicted
+   * @param batchSize the most rows written by one statement
+   */
+  public UCSBDiningCommonsUpsertRepositoryImpl(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory,
+      @Value("${app.upsert.batchSize:500}") int batchSize) {
+    upsert = new BatchUpsert<>(jdbcTemplate, entityManagerFactory, UCSBDiningCommons.class, "ucsbdiningcommons",
+        new Column<>("code", "VARCHAR(255)", UCSBDiningCommons::getCode),
+        List.of(
+            new Column<>("name", "VARCHAR(255)", UCSBDiningCommons::getName),
+            new Column<>("has_sack_meal", "BOOLEAN", UCSBDiningCommons::getHasSackMeal),
+            new Column<>("has_take_out_meal", "BOOLEAN", UCSBDiningCommons::getHasTakeOutMeal),
+            new Column<>("has_dining_cam", "BOOLEAN", UCSBDiningCommons::getHasDiningCam),
+            new Column<>("latitude", "DOUBLE PRECISION", UCSBDiningCommons::getLatitude),
+            new Column<>("longitude", "DOUBLE PRECISION", UCSBDiningCommons::getLongitude)),
+        batchSize);
+  }
+
+  @Override
+  public BatchUpsert.Result<UCSBDiningCommons> upsertAll(List<UCSBDiningCommons> diningCommons) {
+    return upsert.upsertAll(diningCommons);
+  }
+}
@@ -6,8 +6,15 @@ import org.springframework.beans.propertyeditors.StringArrayPropertyEditor;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+
 
 @Repository
-public interface UCSBOrganizationRepository extends CrudRepository<UCSBOrganization, String> {
- 
+public interface UCSBOrganizationRepository extends CrudRepository<UCSBOrganization, String>, UCSBOrganizationUpsertRepository {
+  /**
+   * This method returns all UCSBOrganization entities created or updated after a given time.
+   * @param since only entities with an updatedAt after this time are returned
+   * @return all UCSBOrganization entities changed after since
+   */
+  Iterable<UCSBOrganization> findAllByUpdatedAtAfter(LocalDateTime since);
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+package edu.ucsb.cs156.example.repositories;
+
+import edu.ucsb.cs156.example.entities.UCSBOrganization;
+
+import java.util.List;
+
+/**
+ * Bulk insert-or-update for UCSBOrganization, mixed into UCSBOrganizationRepository.
+ */
+public interface UCSBOrganizationUpsertRepository {
+  /**
+   * This method inserts the organizations whose orgCode is new and updates the rest, in batches.
+   * @param organizations the organizations to write
+   * @return the organizations that were inserted or updated, by orgCode
+   */
+  BatchUpsert.Result<UCSBOrganization> upsertAll(List<UCSBOrganization> organizations);
+}
@@ -0,0 +1,40 @@
+package edu.ucsb.cs156.example.repositories;
+
+import edu.ucsb.cs156.example.entities.UCSBOrganization;
+import edu.ucsb.cs156.example.repositories.BatchUpsert.Column;
+import jakarta.persistence.EntityManagerFactory;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Implements UCSBOrganizationUpsertRepository with a BatchUpsert keyed by orgCode.
+ */
+public class UCSBOrganizationUpsertRepositoryImpl implements UCSBOrganizationUpsertRepository {
+
+  private final BatchUpsert<UCSBOrganization> upsert;
+
+  /**
+   * Constructor used by Spring Data when it builds UCSBOrganizationRepository.
+   * @param jdbcTemplate runs the upsert statements
+   * @param entityManagerFactory whose second-level cache is evicted
+   * @param batchSize the most rows written by one statement
+   */
+  public UCSBOrganizationUpsertRepositoryImpl(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory,
+      @Value("${app.upsert.batchSize:500}") int batchSize) {
+    upsert = new BatchUpsert<>(jdbcTemplate, entityManagerFactory, UCSBOrganization.class, "ucsborganization",
+        new Column<>("org_code", "VARCHAR(255)", UCSBOrganization::getOrgCode),
+        List.of(
+            new Column<>("org_translation_short", "VARCHAR(255)", UCSBOrganization::getOrgTranslationShort),
+            new Column<>("org_translation", "VARCHAR(255)", UCSBOrganization::getOrgTranslation),
+            new Column<>("inactive", "BOOLEAN", UCSBOrganization::getInactive)),
+        batchSize);
+  }
+
+  @Override
+  public BatchUpsert.Result<UCSBOrganization> upsertAll(List<UCSBOrganization> organizations) {
+    return upsert.upsertAll(organizations);
+  }
+}
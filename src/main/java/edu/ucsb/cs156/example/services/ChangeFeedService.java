@@ -0,0 +1,141 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.models.EntityChangeEvent;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * This is a service that fans out EntityChangeEvents to every browser that is
+ * subscribed to the change feed via Server-Sent Events.
+ *
+ * Each subscriber has its own bounded queue.  Publishing never blocks the
+ * controller that made the change: if a subscriber's queue is full, that
+ * subscriber is too slow to keep up, so its stream is closed.  The browser's
+ * EventSource will reconnect, at which point the frontend should refetch
+ * the full collection rather than trying to apply deltas.
+ *
+ * Events are only pushed once the controller's transaction has committed,
+ * so subscribers never see a change that is later rolled back.
+ *
+ * @see edu.ucsb.cs156.example.models.EntityChangeEvent
+ */
+
+@Slf4j
+@Service("changeFeed")
+public class ChangeFeedService {
+
+  @Value("${app.changefeed.queueCapacity:256}")
+  private int queueCapacity = 256;
+
+  @Value("${app.changefeed.timeoutMillis:1800000}")
+  private long timeoutMillis = 1800000;
+
+  private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+  private final Executor dispatcher;
+
+  /**
+   * Constructor used by Spring; events are delivered on virtual threads.
+   */
+  public ChangeFeedService() {
+    this(Executors.newVirtualThreadPerTaskExecutor());
+  }
+
+  ChangeFeedService(Executor dispatcher) {
+    this.dispatcher = dispatcher;
+  }
+
+  /**
+   * This method creates a new subscription to the change feed.
+   * @return an SseEmitter that will receive one event per entity change
+   */
+  public SseEmitter subscribe() {
+    return register(new SseEmitter(timeoutMillis));
+  }
+
+  SseEmitter register(SseEmitter emitter) {
+    return register(emitter, new ArrayBlockingQueue<>(queueCapacity));
+  }
+
+  SseEmitter register(SseEmitter emitter, BlockingQueue<EntityChangeEvent> queue) {
+    Subscriber subscriber = new Subscriber(emitter, queue);
+    subscribers.add(subscriber);
+    emitter.onCompletion(() -> subscribers.remove(subscriber));
+    emitter.onTimeout(() -> subscribers.remove(subscriber));
+    emitter.onError(e -> subscribers.remove(subscriber));
+    log.info("change feed subscriber added; {} subscribers", subscribers.size());
+    return emitter;
+  }
+
+  /**
+   * This method returns the number of currently connected subscribers.
+   * @return the number of subscribers
+   */
+  public int getSubscriberCount() {
+    return subscribers.size();
+  }
+
+  /**
+   * This method is called by Spring after the transaction in which a controller published
+   * an EntityChangeEvent commits (or right away if there was no transaction).
+   * It queues the event for every subscriber without blocking.
+   * @param event the change that was made
+   */
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+  public void onEntityChange(EntityChangeEvent event) {
+    for (Subscriber subscriber : subscribers) {
+      if (!subscriber.queue().offer(event)) {
+        log.warn("change feed subscriber is too slow; closing its stream");
+        subscribers.remove(subscriber);
+        subscriber.emitter().complete();
+        continue;
+      }
+      scheduleDrain(subscriber);
+    }
+  }
+
+  private void scheduleDrain(Subscriber subscriber) {
+    if (subscriber.draining().compareAndSet(false, true)) {
+      dispatcher.execute(() -> drain(subscriber));
+    }
+  }
+
+  void drain(Subscriber subscriber) {
+    try {
+      EntityChangeEvent event;
+      while ((event = subscriber.queue().poll()) != null) {
+        subscriber.emitter().send(SseEmitter.event().name(event.getEntityType()).data(event));
+      }
+    } catch (IOException | IllegalStateException e) {
+      log.info("change feed subscriber disconnected: {}", e.getMessage());
+      subscribers.remove(subscriber);
+      subscriber.queue().clear();
+    } finally {
+      subscriber.draining().set(false);
+    }
+    // an event may have been queued after the last poll but before draining was cleared
+    if (!subscriber.queue().isEmpty()) {
+      scheduleDrain(subscriber);
+    }
+  }
+
+  record Subscriber(SseEmitter emitter, BlockingQueue<EntityChangeEvent> queue, AtomicBoolean draining) {
+    Subscriber(SseEmitter emitter, BlockingQueue<EntityChangeEvent> queue) {
+      this(emitter, queue, new AtomicBoolean(false));
+    }
+  }
+}
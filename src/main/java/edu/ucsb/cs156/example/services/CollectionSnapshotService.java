@@ -0,0 +1,293 @@
+package edu.ucsb.cs156.example.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import edu.ucsb.cs156.example.models.EntityChangeEvent;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+/**
+ * This is a service that keeps the JSON for the largest /all responses in files,
+ * and serves them without copying the bytes through the Java heap.
+ *
+ * After a burst of changes to a snapshotted type (no further change for the
+ * debounce period), a background thread reads every row from the primary
+ * database (see CollectionSnapshotConfig), writes the JSON (and a
+ * gzip-compressed copy) to temporary files, and renames them into place
+ * under names that are never reused.  Only then does the current snapshot
+ * switch to the new files, so a request never sees a partly written file.
+ * Old snapshot files are deleted after the retain period, by which time no
+ * request can still be sending them.  Each instance writes to a directory of
+ * its own, which it deletes on shutdown.
+ *
+ * A snapshot is only served while no change has been made since its rows were
+ * read; until the next snapshot is written, requests fall back to the
+ * ResponseCacheService path.
+ *
+ * Under Tomcat the file is handed to the connector with the sendfile request
+ * attributes, so the kernel copies it straight to the socket.  Elsewhere it is
+ * written from a memory-mapped buffer.
+ *
+ * The service only exists when app.snapshots.enabled is true; see
+ * CollectionSnapshotConfig.
+ */
+
+@Slf4j
+public class CollectionSnapshotService implements AutoCloseable {
+
+  static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+  static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+  static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+  static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+  private final Path directory;
+
+  private final Duration debounce;
+
+  private final Duration retain;
+
+  private final ObjectMapper mapper;
+
+  private final ScheduledExecutorService writer;
+
+  private final Map<String, Source> sources = new TreeMap<>();
+
+  private final AtomicLong sequence = new AtomicLong();
+
+  private LongSupplier clock = System::nanoTime;
+
+  /**
+   * Creates a directory of this instance's own under parent for the snapshot files, so that
+   * instances sharing a host never replace or delete each other's files.
+   * @param parent where the snapshot directory is created
+   * @param debounce how long after the last change a snapshot is written
+   * @param retain how long replaced snapshot files are kept
+   * @param mapper serializes the rows
+   * @param findAll for each snapshotted entity type (e.g. "UCSBDate"), reads every row
+   * @param writer runs the snapshot writes
+   * @throws IOException if the directory cannot be created
+   */
+  public CollectionSnapshotService(Path parent, Duration debounce, Duration retain, ObjectMapper mapper,
+      Map<String, Supplier<? extends Iterable<?>>> findAll, ScheduledExecutorService writer) throws IOException {
+    Files.createDirectories(parent);
+    this.directory = Files.createTempDirectory(parent, "snapshots-");
+    this.debounce = debounce;
+    this.retain = retain;
+    this.mapper = mapper;
+    this.writer = writer;
+    findAll.forEach((entityType, loader) -> sources.put(entityType, new Source(loader)));
+  }
+
+  /**
+   * This method is called by Spring once the application is ready; it writes the first snapshots.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void writeAll() {
+    sources.keySet().forEach(this::schedule);
+  }
+
+  /**
+   * This method is called by Spring after a change to an entity is committed.
+   * It stops the current snapshot of that type from being served, and schedules a new one.
+   * @param event the change that was made
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onEntityChange(EntityChangeEvent event) {
+    Source source = sources.get(event.getEntityType());
+    if (source == null) {
+      return;
+    }
+    source.version.incrementAndGet();
+    schedule(event.getEntityType());
+  }
+
+  /**
+   * This method sends the current snapshot for an entity type as the response, if there is one.
+   * @param entityType the simple name of the entity class, e.g. "UCSBDate"
+   * @param request the request, whose Accept-Encoding and If-None-Match headers are honored
+   * @param response the response to send the snapshot on
+   * @return true if the response was sent (or left to the connector to send), false if the
+   *         caller must build the response itself
+   * @throws IOException if the response cannot be written
+   */
+  public boolean serve(String entityType, HttpServletRequest request, HttpServletResponse response) throws IOException {
+    Source source = sources.get(entityType);
+    Snapshot snapshot = source == null ? null : source.current.get();
+    if (snapshot == null || snapshot.version() != source.version.get()) {
+      return false;
+    }
+    String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+    SnapshotFile file = snapshot.json();
+    if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+      file = snapshot.gzip();
+      response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+    }
+    response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+    response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING);
+    if (new ServletWebRequest(request, response).checkNotModified(file.etag())) {
+      return true;
+    }
+    response.setContentLengthLong(file.size());
+    if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+      request.setAttribute(SENDFILE_FILENAME, file.path().toAbsolutePath().toString());
+      request.setAttribute(SENDFILE_START, 0L);
+      request.setAttribute(SENDFILE_END, file.size());
+      return true;
+    }
+    WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+    ByteBuffer buffer = file.mapped().duplicate();
+    while (buffer.hasRemaining()) {
+      out.write(buffer);
+    }
+    return true;
+  }
+
+  /**
+   * Stops the writer thread and deletes this instance's snapshot directory.
+   */
+  @Override
+  public void close() {
+    writer.shutdownNow();
+    try (Stream<Path> files = Files.list(directory)) {
+      files.forEach(file -> file.toFile().delete());
+    } catch (IOException e) {
+      log.warn("could not list snapshot directory {}", directory, e);
+    }
+    directory.toFile().delete();
+  }
+
+  Path getDirectory() {
+    return directory;
+  }
+
+  void setClock(LongSupplier clock) {
+    this.clock = clock;
+  }
+
+  private void schedule(String entityType) {
+    Source source = sources.get(entityType);
+    source.lastChange.set(clock.getAsLong());
+    if (source.scheduled.compareAndSet(false, true)) {
+      writer.schedule(() -> writeWhenQuiet(entityType), debounce.toMillis(), TimeUnit.MILLISECONDS);
+    }
+  }
+
+  void writeWhenQuiet(String entityType) {
+    long quietFor = clock.getAsLong() - sources.get(entityType).lastChange.get();
+    if (quietFor < debounce.toNanos()) {
+      // changed again since the write was scheduled; wait until debounce after the last change
+      writer.schedule(() -> writeWhenQuiet(entityType), debounce.toNanos() - quietFor, TimeUnit.NANOSECONDS);
+      return;
+    }
+    write(entityType);
+  }
+
+  void write(String entityType) {
+    Source source = sources.get(entityType);
+    source.scheduled.set(false);
+    long version = source.version.get();
+    try {
+      String name = entityType + "-" + sequence.incrementAndGet();
+      Path json = directory.resolve(name + ".json");
+      Path gzip = directory.resolve(name + ".json.gz");
+      Iterable<?> rows = source.findAll.get();
+      writeAtomically(json, out -> mapper.writeValue(out, rows));
+      writeAtomically(gzip, out -> {
+        try (GZIPOutputStream compressed = new GZIPOutputStream(out)) {
+          Files.copy(json, compressed);
+        }
+      });
+      String hash = md5(json);
+      Snapshot snapshot = new Snapshot(version, snapshotFile(json, hash), snapshotFile(gzip, hash + "-gzip"));
+      Snapshot replaced = source.current.getAndSet(snapshot);
+      log.info("wrote {} snapshot {} ({} bytes)", entityType, name, snapshot.json().size());
+      if (replaced != null) {
+        writer.schedule(() -> delete(replaced), retain.toMillis(), TimeUnit.MILLISECONDS);
+      }
+    } catch (IOException | RuntimeException e) {
+      log.warn("could not write {} snapshot; serving without it", entityType, e);
+    }
+  }
+
+  private void writeAtomically(Path target, FileWriter contents) throws IOException {
+    Path temporary = Files.createTempFile(directory, target.getFileName().toString() + "-", ".tmp");
+    try (OutputStream out = Files.newOutputStream(temporary)) {
+      contents.write(out);
+    }
+    Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  private static String md5(Path file) throws IOException {
+    try (InputStream in = Files.newInputStream(file)) {
+      return DigestUtils.md5DigestAsHex(in);
+    }
+  }
+
+  private static SnapshotFile snapshotFile(Path path, String hash) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long size = channel.size();
+      return new SnapshotFile(path, size, "\"" + hash + "\"", channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+    }
+  }
+
+  private static void delete(Snapshot snapshot) {
+    snapshot.json().path().toFile().delete();
+    snapshot.gzip().path().toFile().delete();
+  }
+
+  private interface FileWriter {
+    void write(OutputStream out) throws IOException;
+  }
+
+  private static final class Source {
+    private final Supplier<? extends Iterable<?>> findAll;
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final AtomicLong lastChange = new AtomicLong();
+    private final AtomicReference<Snapshot> current = new AtomicReference<>();
+
+    private Source(Supplier<? extends Iterable<?>> findAll) {
+      this.findAll = findAll;
+    }
+  }
+
+  record Snapshot(long version, SnapshotFile json, SnapshotFile gzip) {
+  }
+
+  record SnapshotFile(Path path, long size, String etag, MappedByteBuffer mapped) {
+  }
+}
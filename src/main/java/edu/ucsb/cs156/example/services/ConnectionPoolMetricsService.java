@@ -0,0 +1,109 @@
+package edu.ucsb.cs156.example.services;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import edu.ucsb.cs156.example.models.ConnectionPoolStats;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.stereotype.Service;
+
+/**
+ * This is a service that collects HikariCP metrics for every connection pool
+ * in the application: how long threads wait for a connection, how long
+ * connections are held, timeouts, and the pool's current occupancy.
+ *
+ * Hikari calls create() once per pool when the pool starts; the tracker it
+ * returns is then called on every checkout and return, so recording is
+ * limited to LongAdder and LongAccumulator updates.
+ */
+
+@Service("connectionPoolMetrics")
+public class ConnectionPoolMetricsService implements MetricsTrackerFactory {
+
+  private final Map<String, Tracker> trackers = new ConcurrentSkipListMap<>();
+
+  @Override
+  public IMetricsTracker create(String poolName, PoolStats poolStats) {
+    Tracker tracker = new Tracker(poolStats);
+    trackers.put(poolName, tracker);
+    return tracker;
+  }
+
+  /**
+   * This method returns the current metrics for every pool, ordered by pool name.
+   * @return one entry per pool that has started
+   */
+  public List<ConnectionPoolStats> getStats() {
+    List<ConnectionPoolStats> stats = new ArrayList<>();
+    trackers.forEach((poolName, tracker) -> stats.add(tracker.snapshot(poolName)));
+    return stats;
+  }
+
+  static final class Tracker implements IMetricsTracker {
+    private final PoolStats poolStats;
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder acquireNanos = new LongAdder();
+    private final LongAccumulator maxAcquireNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder usages = new LongAdder();
+    private final LongAdder usageMillis = new LongAdder();
+    private final LongAccumulator maxUsageMillis = new LongAccumulator(Math::max, 0);
+    private final LongAdder created = new LongAdder();
+
+    Tracker(PoolStats poolStats) {
+      this.poolStats = poolStats;
+    }
+
+    @Override
+    public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+      created.increment();
+    }
+
+    @Override
+    public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+      acquisitions.increment();
+      acquireNanos.add(elapsedAcquiredNanos);
+      maxAcquireNanos.accumulate(elapsedAcquiredNanos);
+    }
+
+    @Override
+    public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+      usages.increment();
+      usageMillis.add(elapsedBorrowedMillis);
+      maxUsageMillis.accumulate(elapsedBorrowedMillis);
+    }
+
+    @Override
+    public void recordConnectionTimeout() {
+      timeouts.increment();
+    }
+
+    ConnectionPoolStats snapshot(String poolName) {
+      long acquired = acquisitions.sum();
+      long used = usages.sum();
+      return ConnectionPoolStats.builder()
+          .pool(poolName)
+          .activeConnections(poolStats.getActiveConnections())
+          .idleConnections(poolStats.getIdleConnections())
+          .totalConnections(poolStats.getTotalConnections())
+          .maxConnections(poolStats.getMaxConnections())
+          .pendingThreads(poolStats.getPendingThreads())
+          .acquisitions(acquired)
+          .meanAcquireMillis(acquired == 0 ? 0 : acquireNanos.sum() / 1e6 / acquired)
+          .maxAcquireMillis(maxAcquireNanos.get() / 1e6)
+          .acquireTimeouts(timeouts.sum())
+          .meanUsageMillis(used == 0 ? 0 : (double) usageMillis.sum() / used)
+          .maxUsageMillis(maxUsageMillis.get())
+          .connectionsCreated(created.sum())
+          .build();
+    }
+  }
+}
@@ -0,0 +1,67 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.models.CacheRegionStats;
+import edu.ucsb.cs156.example.models.CacheStats;
+import jakarta.persistence.EntityManagerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * This is a service that reads Hibernate's runtime statistics.
+ *
+ * Statistics are only collected when hibernate.generate_statistics is true.
+ */
+
+@Service("hibernateStatistics")
+public class HibernateStatisticsService {
+
+  @Autowired
+  EntityManagerFactory entityManagerFactory;
+
+  /**
+   * This method returns Hibernate's statistics object.
+   * @return the live statistics for the session factory
+   */
+  public Statistics getStatistics() {
+    return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+  }
+
+  /**
+   * This method returns hit, miss and put counts for the second-level and query caches.
+   * @return the cache statistics, overall and per region
+   */
+  public CacheStats getCacheStats() {
+    Statistics statistics = getStatistics();
+    String[] regionNames = statistics.getSecondLevelCacheRegionNames();
+    Arrays.sort(regionNames);
+    List<CacheRegionStats> regions = new ArrayList<>();
+    for (String regionName : regionNames) {
+      CacheRegionStatistics region = statistics.getCacheRegionStatistics(regionName);
+      regions.add(CacheRegionStats.builder()
+          .region(regionName)
+          .hitCount(region.getHitCount())
+          .missCount(region.getMissCount())
+          .putCount(region.getPutCount())
+          .elementCountInMemory(region.getElementCountInMemory())
+          .build());
+    }
+    return CacheStats.builder()
+        .statisticsEnabled(statistics.isStatisticsEnabled())
+        .secondLevelCacheHitCount(statistics.getSecondLevelCacheHitCount())
+        .secondLevelCacheMissCount(statistics.getSecondLevelCacheMissCount())
+        .secondLevelCachePutCount(statistics.getSecondLevelCachePutCount())
+        .queryCacheHitCount(statistics.getQueryCacheHitCount())
+        .queryCacheMissCount(statistics.getQueryCacheMissCount())
+        .queryCachePutCount(statistics.getQueryCachePutCount())
+        .regions(regions)
+        .build();
+  }
+}
@@ -0,0 +1,274 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.entities.UCSBDiningCommonsMenuItem;
+import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsMenuItemRepository;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * This is a service that keeps every UCSBDiningCommonsMenuItem in memory, so
+ * that the menu item /all and get-by-id endpoints can be answered without
+ * Hibernate.
+ *
+ * Rows are held column by column in primitive arrays: the ids in a long[],
+ * the names in a String[], and diningCommonsCode and station as int codes into
+ * a dictionary, since only a handful of distinct values occur.  An
+ * open-addressing long to int hash index finds the row for an id without
+ * boxing.  No Hibernate entities, proxies or persistence contexts are kept.
+ *
+ * The store is loaded once the application is ready, and the controller writes
+ * through to it after each save, once the transaction has committed.  Writes
+ * are copy-on-write: the arrays are copied, changed, and published through a
+ * volatile field, so readers never lock and always see a complete store.
+ * Menu items are written rarely and by admins, so copying is cheap enough.
+ *
+ * The store only serves when app.menuItemStore.enabled is true.  Rows changed
+ * other than through UCSBDiningCommonsMenuItemController are not seen until the
+ * application restarts, so leave it off if anything else writes to the table.
+ */
+
+@Slf4j
+@Service("menuItemStore")
+public class MenuItemStoreService {
+
+  @Value("${app.menuItemStore.enabled:false}")
+  private boolean enabled = false;
+
+  @Autowired
+  private UCSBDiningCommonsMenuItemRepository menuItemRepository;
+
+  private volatile Rows rows;
+
+  /**
+   * This method loads every menu item from the database; it is called by Spring once the application is ready.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public synchronized void load() {
+    if (!enabled) {
+      return;
+    }
+    Rows loaded = new Rows();
+    menuItemRepository.findAll().forEach(loaded::put);
+    rows = loaded;
+    log.info("menu item store loaded {} items ({} distinct codes and stations)", loaded.size, loaded.dictionary.size());
+  }
+
+  /**
+   * This method returns whether the store is loaded, and should be used instead of the repository.
+   * @return whether reads should come from the store
+   */
+  public boolean isServing() {
+    return rows != null;
+  }
+
+  /**
+   * This method returns every menu item, in the order they were loaded or added.
+   * @return new (unmanaged) UCSBDiningCommonsMenuItem objects
+   */
+  public List<UCSBDiningCommonsMenuItem> findAll() {
+    Rows current = rows;
+    List<UCSBDiningCommonsMenuItem> items = new ArrayList<>(current.size);
+    for (int row = 0; row < current.size; row++) {
+      items.add(current.item(row));
+    }
+    return items;
+  }
+
+  /**
+   * This method looks up a single menu item.
+   * @param id the id of the menu item
+   * @return a new (unmanaged) UCSBDiningCommonsMenuItem, or empty if there is none with this id
+   */
+  public Optional<UCSBDiningCommonsMenuItem> findById(long id) {
+    Rows current = rows;
+    int row = current.indexOf(id);
+    return row < 0 ? Optional.empty() : Optional.of(current.item(row));
+  }
+
+  /**
+   * This method looks up several menu items.
+   * @param ids the ids of the menu items
+   * @return new (unmanaged) UCSBDiningCommonsMenuItem objects for the ids that exist, in the order of ids
+   */
+  public List<UCSBDiningCommonsMenuItem> findAllById(Iterable<Long> ids) {
+    Rows current = rows;
+    List<UCSBDiningCommonsMenuItem> items = new ArrayList<>();
+    for (long id : ids) {
+      int row = current.indexOf(id);
+      if (row >= 0) {
+        items.add(current.item(row));
+      }
+    }
+    return items;
+  }
+
+  /**
+   * This method adds or replaces a menu item that has just been saved.  Inside a transaction
+   * the store is only changed once the transaction commits.
+   * @param item the saved menu item
+   */
+  public void put(UCSBDiningCommonsMenuItem item) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      apply(item);
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        apply(item);
+      }
+    });
+  }
+
+  private synchronized void apply(UCSBDiningCommonsMenuItem item) {
+    if (rows == null) {
+      // not loaded yet; load() will read this item from the database
+      return;
+    }
+    Rows next = new Rows(rows);
+    next.put(item);
+    rows = next;
+  }
+
+  static final class Rows {
+    private static final int EMPTY_ID = 0;
+
+    private long[] ids;
+    private String[] names;
+    private int[] diningCommonsCodes;
+    private int[] stations;
+    private int size;
+
+    private final List<String> dictionary;
+    private final Map<String, Integer> dictionaryCodes;
+
+    // hash index from id to row; ids are generated from 1, so 0 marks an empty slot
+    private long[] slotIds;
+    private int[] slotRows;
+
+    Rows() {
+      ids = new long[16];
+      names = new String[16];
+      diningCommonsCodes = new int[16];
+      stations = new int[16];
+      dictionary = new ArrayList<>();
+      dictionaryCodes = new HashMap<>();
+      slotIds = new long[32];
+      slotRows = new int[32];
+    }
+
+    Rows(Rows other) {
+      ids = other.ids.clone();
+      names = other.names.clone();
+      diningCommonsCodes = other.diningCommonsCodes.clone();
+      stations = other.stations.clone();
+      size = other.size;
+      dictionary = new ArrayList<>(other.dictionary);
+      dictionaryCodes = new HashMap<>(other.dictionaryCodes);
+      slotIds = other.slotIds.clone();
+      slotRows = other.slotRows.clone();
+    }
+
+    int indexOf(long id) {
+      int mask = slotIds.length - 1;
+      for (int slot = slot(id, mask); slotIds[slot] != EMPTY_ID; slot = (slot + 1) & mask) {
+        if (slotIds[slot] == id) {
+          return slotRows[slot];
+        }
+      }
+      return -1;
+    }
+
+    void put(UCSBDiningCommonsMenuItem item) {
+      long id = item.getId();
+      if (id == EMPTY_ID) {
+        throw new IllegalArgumentException("menu item has not been saved: " + item);
+      }
+      int row = indexOf(id);
+      if (row < 0) {
+        row = append(id);
+      }
+      names[row] = item.getName();
+      diningCommonsCodes[row] = encode(item.getDiningCommonsCode());
+      stations[row] = encode(item.getStation());
+    }
+
+    UCSBDiningCommonsMenuItem item(int row) {
+      return UCSBDiningCommonsMenuItem.builder()
+          .id(ids[row])
+          .diningCommonsCode(decode(diningCommonsCodes[row]))
+          .name(names[row])
+          .station(decode(stations[row]))
+          .build();
+    }
+
+    private int append(long id) {
+      if (size == ids.length) {
+        int capacity = size * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        names = Arrays.copyOf(names, capacity);
+        diningCommonsCodes = Arrays.copyOf(diningCommonsCodes, capacity);
+        stations = Arrays.copyOf(stations, capacity);
+      }
+      int row = size++;
+      ids[row] = id;
+      if (size * 2 > slotIds.length) {
+        rehash(slotIds.length * 2);
+      } else {
+        index(id, row);
+      }
+      return row;
+    }
+
+    private void rehash(int capacity) {
+      slotIds = new long[capacity];
+      slotRows = new int[capacity];
+      for (int row = 0; row < size; row++) {
+        index(ids[row], row);
+      }
+    }
+
+    private void index(long id, int row) {
+      int mask = slotIds.length - 1;
+      int slot = slot(id, mask);
+      while (slotIds[slot] != EMPTY_ID) {
+        slot = (slot + 1) & mask;
+      }
+      slotIds[slot] = id;
+      slotRows[slot] = row;
+    }
+
+    private int encode(String value) {
+      if (value == null) {
+        return -1;
+      }
+      return dictionaryCodes.computeIfAbsent(value, key -> {
+        dictionary.add(key);
+        return dictionary.size() - 1;
+      });
+    }
+
+    private String decode(int code) {
+      return code < 0 ? null : dictionary.get(code);
+    }
+
+    private static int slot(long id, int mask) {
+      long mixed = id * 0x9E3779B97F4A7C15L;
+      return (int) (mixed ^ (mixed >>> 32)) & mask;
+    }
+  }
+}
@@ -0,0 +1,213 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.models.EntityChangeEvent;
+import edu.ucsb.cs156.example.models.EntityChangeEvent.ChangeType;
+import edu.ucsb.cs156.example.models.NegativeLookupStats;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * This is a service that remembers ids that were looked up and not found, so
+ * that repeated lookups of the same missing id (from bots, or clients holding
+ * stale links) are answered with a 404 without querying the database.
+ *
+ * Each entity type has a bounded map from missing id to the time the entry
+ * expires.  An entry is removed as soon as a controller publishes a change
+ * creating or updating that id, and entries expire after ttl, which bounds how
+ * long a row inserted some other way (or by another instance) can be reported
+ * missing.  Expired entries are swept away by a background thread every
+ * sweepInterval; while a type's map holds maxEntries, further misses are
+ * simply not remembered.
+ *
+ * A lookup in a read-only transaction may have gone to a lagging read
+ * replica, so before such a miss is remembered, the id is looked up again on
+ * the primary database (see PrimaryReadService).
+ *
+ * A lookup that raced with an insert must not leave a stale entry behind, so
+ * each type also has a generation number, incremented after every committed
+ * create or update; a miss is only remembered if the generation did not change
+ * while it was being looked up.
+ *
+ * @see edu.ucsb.cs156.example.models.NegativeLookupStats
+ */
+
+@Service("negativeLookupCache")
+public class NegativeLookupCacheService {
+
+  @Value("${app.negativeLookupCache.enabled:true}")
+  private boolean enabled = true;
+
+  @Value("${app.negativeLookupCache.ttl:30s}")
+  private Duration ttl = Duration.ofSeconds(30);
+
+  @Value("${app.negativeLookupCache.maxEntries:10000}")
+  private int maxEntries = 10000;
+
+  @Value("${app.negativeLookupCache.sweepInterval:10s}")
+  private Duration sweepInterval = Duration.ofSeconds(10);
+
+  @Autowired
+  private PrimaryReadService primaryReads;
+
+  private final ConcurrentHashMap<String, MissingIds> types = new ConcurrentHashMap<>();
+
+  private LongSupplier clock = System::nanoTime;
+
+  private ScheduledExecutorService sweeper;
+
+  /**
+   * This method starts the sweep of expired entries; it is called by Spring
+   * once the property values have been injected.
+   */
+  @PostConstruct
+  public void init() {
+    if (enabled && !sweepInterval.isZero() && sweeper == null) {
+      sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "negative-lookup-sweep");
+        thread.setDaemon(true);
+        return thread;
+      });
+      sweeper.scheduleWithFixedDelay(this::sweep, sweepInterval.toMillis(), sweepInterval.toMillis(),
+          TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * This method stops the sweep; it is called by Spring on shutdown.
+   */
+  @PreDestroy
+  public void shutdown() {
+    if (sweeper != null) {
+      sweeper.shutdownNow();
+    }
+  }
+
+  /**
+   * This method looks up an entity by id, unless the id is known to be missing.
+   * @param <T> the type of entity
+   * @param <ID> the type of its id
+   * @param entityType the class of the entity, e.g. Restaurant.class
+   * @param id the id to look up
+   * @param findById repository method performing the lookup
+   * @return the entity
+   * @throws EntityNotFoundException if there is no entity with this id
+   */
+  public <T, ID> T findOrThrow(Class<T> entityType, ID id, Function<ID, Optional<T>> findById) {
+    if (!enabled) {
+      return findById.apply(id).orElseThrow(() -> new EntityNotFoundException(entityType, id));
+    }
+    MissingIds missing = types.computeIfAbsent(entityType.getSimpleName(), key -> new MissingIds());
+    long now = clock.getAsLong();
+    Long expiresAt = missing.expiresAt.get(id);
+    if (expiresAt != null) {
+      if (expiresAt - now > 0) {
+        missing.hits.increment();
+        throw new EntityNotFoundException(entityType, id);
+      }
+      missing.expiresAt.remove(id, expiresAt);
+    }
+
+    long generation = missing.generation.get();
+    Optional<T> found = findById.apply(id);
+    if (found.isEmpty() && TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+      // the replica may not have the row yet; only a miss on the primary is remembered
+      found = primaryReads.read(() -> findById.apply(id));
+    }
+    if (found.isPresent()) {
+      return found.get();
+    }
+    missing.misses.increment();
+    if (missing.expiresAt.size() >= maxEntries) {
+      throw new EntityNotFoundException(entityType, id);
+    }
+    missing.expiresAt.put(id, now + ttl.toNanos());
+    if (missing.generation.get() != generation) {
+      // the id may have been created while it was being looked up
+      missing.expiresAt.remove(id);
+    }
+    throw new EntityNotFoundException(entityType, id);
+  }
+
+  /**
+   * This method is called by Spring after a change to an entity is committed (or right away,
+   * outside a transaction).  Creating or updating an id means it is no longer missing.
+   * @param event the change that was made
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onEntityChange(EntityChangeEvent event) {
+    MissingIds missing = types.get(event.getEntityType());
+    if (missing == null || event.getChangeType() == ChangeType.DELETED) {
+      return;
+    }
+    missing.generation.incrementAndGet();
+    missing.expiresAt.remove(event.getId());
+  }
+
+  /**
+   * This method forgets every missing id.
+   */
+  public void clear() {
+    types.clear();
+  }
+
+  /**
+   * This method returns counters describing how often missing ids were answered from the cache.
+   * @return the current statistics
+   */
+  public NegativeLookupStats getStats() {
+    Map<String, Long> hitsByType = new TreeMap<>();
+    Map<String, Long> missesByType = new TreeMap<>();
+    int entries = 0;
+    for (Map.Entry<String, MissingIds> type : types.entrySet()) {
+      hitsByType.put(type.getKey(), type.getValue().hits.sum());
+      missesByType.put(type.getKey(), type.getValue().misses.sum());
+      entries += type.getValue().expiresAt.size();
+    }
+    return NegativeLookupStats.builder()
+        .enabled(enabled)
+        .entries(entries)
+        .hitsByType(hitsByType)
+        .missesByType(missesByType)
+        .build();
+  }
+
+  /**
+   * This method drops the entries that have expired.
+   */
+  void sweep() {
+    long now = clock.getAsLong();
+    types.values().forEach(missing -> missing.expiresAt.values().removeIf(entry -> entry - now <= 0));
+  }
+
+  void setClock(LongSupplier clock) {
+    this.clock = clock;
+  }
+
+  private static final class MissingIds {
+    private final ConcurrentHashMap<Object, Long> expiresAt = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+  }
+}
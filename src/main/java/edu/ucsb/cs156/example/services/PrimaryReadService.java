@@ -0,0 +1,63 @@
+package edu.ucsb.cs156.example.services;
+
+import java.util.function.Supplier;
+
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * This is a service that runs a query against the primary database, even
+ * when a read replica is configured.
+ *
+ * Repository reads run in read-only transactions, which are routed to the
+ * replica (see ReplicaDataSourceConfig), so they may not yet see a change
+ * that was just committed.  That is fine for a single response, but not for
+ * results that are kept and served after the replica has caught up, such as
+ * cached responses, snapshots and remembered missing ids.  Those are read
+ * here, in a new read-write transaction, which always uses the primary.
+ * Nothing is written in it, so it is rolled back rather than committed,
+ * which also spares Hibernate a flush of the entities the query loaded.
+ *
+ * Without a transaction manager (as in controller slice tests, which have no
+ * database) the query simply runs.
+ */
+
+@Service("primaryReads")
+public class PrimaryReadService {
+
+  private final TransactionTemplate transaction;
+
+  /**
+   * Creates the service.
+   * @param transactionManager the application's transaction manager, or null if there is none
+   */
+  public PrimaryReadService(@Nullable PlatformTransactionManager transactionManager) {
+    if (transactionManager == null) {
+      this.transaction = null;
+      return;
+    }
+    this.transaction = new TransactionTemplate(transactionManager);
+    transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    transaction.setReadOnly(false);
+  }
+
+  /**
+   * This method runs a query in its own read-write transaction, suspending any
+   * transaction the caller is in, so that it reads from the primary.
+   * @param <T> the type of the result
+   * @param query the query, e.g. a repository method
+   * @return the query's result
+   */
+  public <T> T read(Supplier<T> query) {
+    if (transaction == null) {
+      return query.get();
+    }
+    return transaction.execute(status -> {
+      status.setRollbackOnly();
+      return query.get();
+    });
+  }
+}
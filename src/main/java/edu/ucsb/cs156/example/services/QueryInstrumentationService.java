@@ -0,0 +1,223 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.models.SlowQuery;
+import edu.ucsb.cs156.example.models.SqlStatementStats;
+import edu.ucsb.cs156.example.models.SqlStats;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * This is a service that watches every SQL statement the application runs,
+ * via a datasource-proxy listener on the application's DataSource.
+ *
+ * It keeps per-statement counts and timings, logs and remembers statements
+ * slower than app.sql.slowQueryThreshold, and flags requests that run the same
+ * statement app.sql.repeatedStatementThreshold or more times, which is what an
+ * N+1 query looks like.  Requests are tracked per thread between beginRequest
+ * and endRequest, which the web layer calls around each handler.
+ *
+ * Recording can be switched off at runtime (or with app.sql.instrumentation.enabled)
+ * without restarting, in which case the listener does nothing.
+ */
+
+@Slf4j
+@Service("queryInstrumentation")
+public class QueryInstrumentationService implements QueryExecutionListener {
+
+  /**
+   * Request attribute holding the number of SQL statements the handler ran,
+   * set once the request completes.
+   */
+  public static final String STATEMENT_COUNT_ATTRIBUTE = QueryInstrumentationService.class.getName() + ".statementCount";
+
+  @Value("${app.sql.instrumentation.enabled:true}")
+  private volatile boolean enabled = true;
+
+  @Value("${app.sql.slowQueryThreshold:500ms}")
+  private Duration slowQueryThreshold = Duration.ofMillis(500);
+
+  @Value("${app.sql.repeatedStatementThreshold:5}")
+  private int repeatedStatementThreshold = 5;
+
+  @Value("${app.sql.maxDistinctStatements:500}")
+  private int maxDistinctStatements = 500;
+
+  @Value("${app.sql.slowQueryHistory:100}")
+  private int slowQueryHistory = 100;
+
+  private final ConcurrentHashMap<String, Timing> statements = new ConcurrentHashMap<>();
+
+  private final ConcurrentHashMap<String, LongAdder> suspectedNPlusOne = new ConcurrentHashMap<>();
+
+  private final Deque<SlowQuery> slowQueries = new ArrayDeque<>();
+
+  private final ThreadLocal<RequestScope> currentRequest = new ThreadLocal<>();
+
+  /**
+   * This method starts counting statements for the request being handled on this thread.
+   * @param request a description of the request, e.g. "GET /api/restaurants/all"
+   */
+  public void beginRequest(String request) {
+    currentRequest.set(new RequestScope(request));
+  }
+
+  /**
+   * This method stops counting statements for this thread's request and records any N+1 suspects.
+   * @return how many statements the request ran, or 0 if no request was begun on this thread
+   */
+  public int endRequest() {
+    RequestScope scope = currentRequest.get();
+    currentRequest.remove();
+    if (scope == null) {
+      return 0;
+    }
+    scope.executions.forEach((sql, count) -> {
+      if (count >= repeatedStatementThreshold) {
+        log.warn("possible N+1: {} ran {} times during {}", sql, count, scope.request);
+        suspectedNPlusOne.computeIfAbsent(scope.request + " :: " + sql, key -> new LongAdder()).increment();
+      }
+    });
+    return scope.total;
+  }
+
+  /**
+   * This method returns how many statements have run so far in this thread's request.
+   * @return the statement count, or 0 if no request was begun on this thread
+   */
+  public int getCurrentRequestStatementCount() {
+    RequestScope scope = currentRequest.get();
+    return scope == null ? 0 : scope.total;
+  }
+
+  @Override
+  public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+  }
+
+  @Override
+  public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    if (!enabled) {
+      return;
+    }
+    long elapsedMillis = execInfo.getElapsedTime();
+    RequestScope scope = currentRequest.get();
+    for (QueryInfo queryInfo : queryInfoList) {
+      String sql = queryInfo.getQuery();
+      Timing timing = statements.get(sql);
+      if (timing == null && statements.size() < maxDistinctStatements) {
+        timing = statements.computeIfAbsent(sql, key -> new Timing());
+      }
+      if (timing != null) {
+        timing.record(elapsedMillis);
+      }
+      if (scope != null) {
+        scope.record(sql);
+      }
+      if (elapsedMillis >= slowQueryThreshold.toMillis()) {
+        String request = scope == null ? null : scope.request;
+        log.warn("slow query ({} ms{}): {}", elapsedMillis, request == null ? "" : ", " + request, sql);
+        rememberSlowQuery(SlowQuery.builder()
+            .sql(sql)
+            .elapsedMillis(elapsedMillis)
+            .at(Instant.now())
+            .request(request)
+            .build());
+      }
+    }
+  }
+
+  private synchronized void rememberSlowQuery(SlowQuery slowQuery) {
+    if (slowQueries.size() >= slowQueryHistory) {
+      slowQueries.removeFirst();
+    }
+    slowQueries.addLast(slowQuery);
+  }
+
+  /**
+   * This method turns recording on or off.
+   * @param enabled whether statements should be recorded
+   */
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+    log.info("SQL instrumentation {}", enabled ? "enabled" : "disabled");
+  }
+
+  /**
+   * This method forgets everything recorded so far.
+   */
+  public synchronized void reset() {
+    statements.clear();
+    suspectedNPlusOne.clear();
+    slowQueries.clear();
+  }
+
+  /**
+   * This method returns what has been recorded so far.
+   * @return per-statement timings (most expensive first), recent slow queries and N+1 suspects
+   */
+  public synchronized SqlStats getStats() {
+    List<SqlStatementStats> byStatement = new ArrayList<>();
+    statements.forEach((sql, timing) -> byStatement.add(SqlStatementStats.builder()
+        .sql(sql)
+        .count(timing.count.sum())
+        .totalMillis(timing.totalMillis.sum())
+        .maxMillis(timing.maxMillis.get())
+        .build()));
+    byStatement.sort(Comparator.comparingLong(SqlStatementStats::getTotalMillis).reversed());
+    Map<String, Long> suspects = new TreeMap<>();
+    suspectedNPlusOne.forEach((key, count) -> suspects.put(key, count.sum()));
+    return SqlStats.builder()
+        .enabled(enabled)
+        .slowQueryThresholdMillis(slowQueryThreshold.toMillis())
+        .repeatedStatementThreshold(repeatedStatementThreshold)
+        .statements(byStatement)
+        .slowQueries(new ArrayList<>(slowQueries))
+        .suspectedNPlusOne(suspects)
+        .build();
+  }
+
+  private static final class Timing {
+    final LongAdder count = new LongAdder();
+    final LongAdder totalMillis = new LongAdder();
+    final LongAccumulator maxMillis = new LongAccumulator(Math::max, 0);
+
+    void record(long elapsedMillis) {
+      count.increment();
+      totalMillis.add(elapsedMillis);
+      maxMillis.accumulate(elapsedMillis);
+    }
+  }
+
+  private static final class RequestScope {
+    final String request;
+    final Map<String, Integer> executions = new HashMap<>();
+    int total;
+
+    RequestScope(String request) {
+      this.request = request;
+    }
+
+    void record(String sql) {
+      executions.merge(sql, 1, Integer::sum);
+      total++;
+    }
+  }
+}
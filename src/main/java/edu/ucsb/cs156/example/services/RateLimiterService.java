@@ -0,0 +1,203 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.models.RateLimitStats;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.AntPathMatcher;
+
+/**
+ * This is a service that decides whether an /api request may proceed,
+ * using one token bucket per (route, client) pair.
+ *
+ * Each bucket is a single AtomicLong holding the time at which the bucket
+ * will be full again (the "generic cell rate" formulation of a token bucket),
+ * so admitting a request is one compareAndSet and never takes a lock.
+ * Buckets live in a ConcurrentHashMap, which stripes its own bins.  A
+ * background sweep every app.ratelimit.sweepSeconds drops buckets that are
+ * full again, which is the same as having no bucket; while the map holds
+ * maxBuckets, requests from clients without a bucket are rejected rather
+ * than letting the map grow, so the request path never scans it.
+ *
+ * Routes are configured as "antPattern:capacity:refillPerSecond" entries in
+ * app.ratelimit.routes; the first matching pattern wins, and any other /api
+ * path gets the default capacity and refill rate.
+ *
+ * @see edu.ucsb.cs156.example.models.RateLimitStats
+ */
+
+@Slf4j
+@Service("rateLimiter")
+public class RateLimiterService {
+
+  static final String DEFAULT_ROUTE = "/api/**";
+
+  @Value("${app.ratelimit.enabled:false}")
+  private boolean enabled = false;
+
+  @Value("${app.ratelimit.capacity:100}")
+  private long capacity = 100;
+
+  @Value("${app.ratelimit.refillPerSecond:20}")
+  private double refillPerSecond = 20;
+
+  @Value("${app.ratelimit.routes:}")
+  private List<String> routes = new ArrayList<>();
+
+  @Value("${app.ratelimit.maxBuckets:100000}")
+  private int maxBuckets = 100000;
+
+  @Value("${app.ratelimit.sweepSeconds:10}")
+  private long sweepSeconds = 10;
+
+  private final AntPathMatcher matcher = new AntPathMatcher();
+
+  private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+  private final ConcurrentHashMap<String, LongAdder> rejections = new ConcurrentHashMap<>();
+
+  private final List<Limit> limits = new ArrayList<>();
+
+  private LongSupplier clock = System::nanoTime;
+
+  private ScheduledExecutorService sweeper;
+
+  /**
+   * This method parses the configured route limits and starts the sweep of
+   * full buckets; it is called by Spring once the property values have been
+   * injected.
+   */
+  @PostConstruct
+  public void init() {
+    limits.clear();
+    for (String route : routes) {
+      String[] parts = route.trim().split(":");
+      if (parts.length != 3) {
+        throw new IllegalArgumentException(
+            "app.ratelimit.routes entries must look like pattern:capacity:refillPerSecond, got " + route);
+      }
+      limits.add(new Limit(parts[0], Long.parseLong(parts[1]), Double.parseDouble(parts[2])));
+    }
+    limits.add(new Limit(DEFAULT_ROUTE, capacity, refillPerSecond));
+    log.info("rate limiting enabled={} limits={}", enabled, limits);
+    if (enabled && sweepSeconds > 0 && sweeper == null) {
+      sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "rate-limit-sweep");
+        thread.setDaemon(true);
+        return thread;
+      });
+      sweeper.scheduleWithFixedDelay(this::sweep, sweepSeconds, sweepSeconds, TimeUnit.SECONDS);
+    }
+  }
+
+  /**
+   * This method stops the sweep; it is called by Spring on shutdown.
+   */
+  @PreDestroy
+  public void shutdown() {
+    if (sweeper != null) {
+      sweeper.shutdownNow();
+    }
+  }
+
+  /**
+   * This method returns whether rate limiting is turned on.
+   * @return whether requests should be checked at all
+   */
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * This method takes one token from the bucket for this client on the route matching path.
+   * @param path the request path, e.g. /api/restaurants/all
+   * @param clientKey identifies the caller, e.g. the user name or remote address
+   * @return 0 if the request is admitted, otherwise the number of nanoseconds until it would be
+   */
+  public long tryAcquire(String path, String clientKey) {
+    Limit limit = limitFor(path);
+    long now = clock.getAsLong();
+    long interval = limit.intervalNanos();
+    String key = limit.pattern() + " " + clientKey;
+    AtomicLong bucket = buckets.get(key);
+    if (bucket == null) {
+      if (buckets.size() >= maxBuckets) {
+        // concurrent first requests can still overshoot by a few, but never by more than the number of threads
+        rejections.computeIfAbsent(limit.pattern(), pattern -> new LongAdder()).increment();
+        return interval;
+      }
+      bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+    }
+    long burst = interval * limit.capacity();
+    while (true) {
+      long fullAt = bucket.get();
+      long next = Math.max(fullAt, now) + interval;
+      long waitNanos = next - burst - now;
+      if (waitNanos > 0) {
+        rejections.computeIfAbsent(limit.pattern(), pattern -> new LongAdder()).increment();
+        return waitNanos;
+      }
+      if (bucket.compareAndSet(fullAt, next)) {
+        return 0;
+      }
+    }
+  }
+
+  /**
+   * This method returns counters describing what the rate limiter has done so far.
+   * @return the current statistics
+   */
+  public RateLimitStats getStats() {
+    Map<String, Long> byRoute = new TreeMap<>();
+    rejections.forEach((route, count) -> byRoute.put(route, count.sum()));
+    return RateLimitStats.builder()
+        .enabled(enabled)
+        .buckets(buckets.size())
+        .rejectedTotal(byRoute.values().stream().mapToLong(Long::longValue).sum())
+        .rejectedByRoute(byRoute)
+        .build();
+  }
+
+  /**
+   * This method drops the buckets that are full again; a client without a
+   * bucket is treated exactly like one with a full bucket.
+   */
+  void sweep() {
+    long now = clock.getAsLong();
+    buckets.values().removeIf(bucket -> bucket.get() <= now);
+  }
+
+  Limit limitFor(String path) {
+    for (Limit limit : limits) {
+      if (matcher.match(limit.pattern(), path)) {
+        return limit;
+      }
+    }
+    return limits.get(limits.size() - 1);
+  }
+
+  void setClock(LongSupplier clock) {
+    this.clock = clock;
+  }
+
+  record Limit(String pattern, long capacity, double refillPerSecond) {
+    long intervalNanos() {
+      return (long) (TimeUnit.SECONDS.toNanos(1) / refillPerSecond);
+    }
+  }
+}
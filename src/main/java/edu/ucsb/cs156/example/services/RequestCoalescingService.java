@@ -0,0 +1,114 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.models.CoalescedKeyStats;
+import edu.ucsb.cs156.example.models.CoalescingStats;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * This is a service that lets concurrent callers asking for the same read
+ * share one database call (sometimes called "single-flight").
+ *
+ * The first caller for a key becomes the leader: it runs the loader and
+ * publishes the result through a CompletableFuture held in a ConcurrentHashMap.
+ * Callers that arrive while the load is in flight wait on that future and
+ * get the same result (or the same exception) instead of querying the
+ * database themselves.  Once the load finishes the key is removed, so
+ * nothing is cached: the next caller starts a fresh read.
+ *
+ * Callers must treat the shared result as read-only.
+ *
+ * @see edu.ucsb.cs156.example.models.CoalescingStats
+ */
+
+@Service("requestCoalescing")
+public class RequestCoalescingService {
+
+  @Value("${app.coalescing.enabled:true}")
+  private boolean enabled = true;
+
+  private final ConcurrentHashMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+  private final ConcurrentSkipListMap<String, Counters> counters = new ConcurrentSkipListMap<>();
+
+  /**
+   * This method returns the result of loader, sharing it with every other
+   * caller that asks for the same key while the load is running.
+   * @param <T> the type of the result
+   * @param key identifies the read, e.g. "UCSBDate.findAll"
+   * @param loader performs the read
+   * @return the result of this caller's load, or of the load it joined
+   */
+  @SuppressWarnings("unchecked")
+  public <T> T coalesce(String key, Supplier<T> loader) {
+    Counters keyCounters = counters.computeIfAbsent(key, k -> new Counters());
+    keyCounters.calls.increment();
+    if (!enabled) {
+      keyCounters.loads.increment();
+      return loader.get();
+    }
+
+    CompletableFuture<Object> mine = new CompletableFuture<>();
+    CompletableFuture<Object> leader = inFlight.putIfAbsent(key, mine);
+    if (leader != null) {
+      keyCounters.coalesced.increment();
+      try {
+        return (T) leader.join();
+      } catch (CompletionException e) {
+        // the leader only ever completes exceptionally with a RuntimeException
+        throw (RuntimeException) e.getCause();
+      }
+    }
+
+    keyCounters.loads.increment();
+    try {
+      T result = loader.get();
+      mine.complete(result);
+      return result;
+    } catch (RuntimeException e) {
+      mine.completeExceptionally(e);
+      throw e;
+    } finally {
+      inFlight.remove(key, mine);
+      // releases any waiters if the loader threw an Error; a no-op otherwise
+      mine.completeExceptionally(new IllegalStateException("load for " + key + " did not complete"));
+    }
+  }
+
+  /**
+   * This method returns per-key counts of the calls made and the calls that were coalesced.
+   * @return the current statistics
+   */
+  public CoalescingStats getStats() {
+    List<CoalescedKeyStats> keys = new ArrayList<>();
+    counters.forEach((key, keyCounters) -> keys.add(CoalescedKeyStats.builder()
+        .key(key)
+        .calls(keyCounters.calls.sum())
+        .loads(keyCounters.loads.sum())
+        .coalesced(keyCounters.coalesced.sum())
+        .build()));
+    return CoalescingStats.builder()
+        .enabled(enabled)
+        .inFlight(inFlight.size())
+        .callsTotal(keys.stream().mapToLong(CoalescedKeyStats::getCalls).sum())
+        .coalescedTotal(keys.stream().mapToLong(CoalescedKeyStats::getCoalesced).sum())
+        .keys(keys)
+        .build();
+  }
+
+  private static final class Counters {
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+  }
+}
@@ -0,0 +1,231 @@
+package edu.ucsb.cs156.example.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import edu.ucsb.cs156.example.models.EntityChangeEvent;
+import edu.ucsb.cs156.example.models.ResponseCacheStats;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.DigestUtils;
+
+/**
+ * This is a service that keeps the serialized JSON of each /all response,
+ * so that repeated requests are answered with stored bytes instead of
+ * reading and serializing the whole table again.
+ *
+ * Each entity type has a version number, which is incremented after every
+ * committed change published by a controller (an EntityChangeEvent).  A
+ * stored response is tagged with the version that was current before its
+ * rows were read, and is only served while that is still the current version,
+ * so a response read while a change was being committed is never served
+ * after the change.  The rows are read from the primary database (see
+ * PrimaryReadService), since a response read from a lagging read replica
+ * would otherwise be stored under the new version and served for maxAge.
+ * Responses also expire after maxAge, which bounds how long a response for a
+ * table changed without going through a controller can be served.
+ *
+ * Responses of at least gzipMinBytes are also stored gzip-compressed, for
+ * clients that send Accept-Encoding: gzip.
+ *
+ * Callers that pass a coalescing key share a read already in flight (see
+ * RequestCoalescingService).  The shared read carries the version its leader
+ * saw, and the response is stored under that version; a caller that saw a
+ * later version than the leader (a change committed after the leader started
+ * reading) reads again instead of using the leader's rows.
+ *
+ * @see edu.ucsb.cs156.example.models.ResponseCacheStats
+ */
+
+@Service("responseCache")
+public class ResponseCacheService {
+
+  @Value("${app.responseCache.enabled:true}")
+  private boolean enabled = true;
+
+  @Value("${app.responseCache.maxAge:60s}")
+  private Duration maxAge = Duration.ofSeconds(60);
+
+  @Value("${app.responseCache.gzipMinBytes:1024}")
+  private int gzipMinBytes = 1024;
+
+  @Autowired
+  private ObjectMapper mapper;
+
+  @Autowired
+  private RequestCoalescingService requestCoalescing;
+
+  @Autowired
+  private PrimaryReadService primaryReads;
+
+  private final ConcurrentHashMap<String, AtomicLong> versions = new ConcurrentHashMap<>();
+
+  private final ConcurrentHashMap<String, CachedResponse> responses = new ConcurrentHashMap<>();
+
+  private final ConcurrentHashMap<String, LongAdder> hits = new ConcurrentHashMap<>();
+
+  private final ConcurrentHashMap<String, LongAdder> misses = new ConcurrentHashMap<>();
+
+  private LongSupplier clock = System::nanoTime;
+
+  /**
+   * This method returns the serialized response for an entity type, reading and
+   * serializing it with findAll only if there is no current stored response.
+   * @param entityType the simple name of the entity class, e.g. "Restaurant"
+   * @param findAll reads every row of the type
+   * @return the serialized response
+   * @throws IOException if the rows cannot be serialized
+   */
+  public CachedResponse get(String entityType, Supplier<?> findAll) throws IOException {
+    return get(entityType, null, findAll);
+  }
+
+  /**
+   * This method returns the serialized response for an entity type, reading and
+   * serializing it with findAll only if there is no current stored response.
+   * @param entityType the simple name of the entity class, e.g. "Restaurant"
+   * @param coalescingKey key under which concurrent reads are shared, e.g. "UCSBDate.findAll",
+   *   or null to always read separately
+   * @param findAll reads every row of the type
+   * @return the serialized response
+   * @throws IOException if the rows cannot be serialized
+   */
+  public CachedResponse get(String entityType, String coalescingKey, Supplier<?> findAll) throws IOException {
+    long version = versionOf(entityType).get();
+    long now = clock.getAsLong();
+    CachedResponse cached = responses.get(entityType);
+    if (enabled && cached != null && cached.version() == version && now - cached.storedAt() < maxAge.toNanos()) {
+      hits.computeIfAbsent(entityType, key -> new LongAdder()).increment();
+      return cached;
+    }
+    misses.computeIfAbsent(entityType, key -> new LongAdder()).increment();
+    VersionedRows rows = read(entityType, coalescingKey, findAll);
+    CachedResponse fresh = serialize(rows.version(), now, rows.rows());
+    if (enabled) {
+      // keep whichever response was read at the later version
+      responses.merge(entityType, fresh, (old, candidate) -> candidate.version() >= old.version() ? candidate : old);
+    }
+    return fresh;
+  }
+
+  /**
+   * This method reads every row of an entity type from the primary database, tagged with
+   * the version that was current before the rows were read.  With a coalescing key, a read already in flight
+   * is shared, unless it started before a change that this caller has already seen.
+   * @param entityType the simple name of the entity class, e.g. "Restaurant"
+   * @param coalescingKey key under which concurrent reads are shared, or null to always read separately
+   * @param findAll reads every row of the type
+   * @return the rows and their version
+   */
+  public VersionedRows read(String entityType, String coalescingKey, Supplier<?> findAll) {
+    long version = versionOf(entityType).get();
+    if (coalescingKey != null) {
+      VersionedRows shared = requestCoalescing.coalesce(coalescingKey, () -> readNow(entityType, findAll));
+      if (shared.version() >= version) {
+        return shared;
+      }
+    }
+    return readNow(entityType, findAll);
+  }
+
+  /**
+   * This method is called by Spring after the transaction in which a controller
+   * published an EntityChangeEvent commits (or straight away, if there was no
+   * transaction).  It retires the stored response for that entity type.
+   * @param event the change that was made
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onEntityChange(EntityChangeEvent event) {
+    versionOf(event.getEntityType()).incrementAndGet();
+    responses.remove(event.getEntityType());
+  }
+
+  /**
+   * This method drops every stored response.
+   */
+  public void clear() {
+    responses.clear();
+  }
+
+  /**
+   * This method returns hit and miss counts per entity type.
+   * @return the current statistics
+   */
+  public ResponseCacheStats getStats() {
+    Map<String, Long> versionsByType = new TreeMap<>();
+    versions.forEach((key, version) -> versionsByType.put(key, version.get()));
+    return ResponseCacheStats.builder()
+        .enabled(enabled)
+        .entries(responses.size())
+        .hitsByType(sums(hits))
+        .missesByType(sums(misses))
+        .versionsByType(versionsByType)
+        .build();
+  }
+
+  void setClock(LongSupplier clock) {
+    this.clock = clock;
+  }
+
+  private AtomicLong versionOf(String entityType) {
+    return versions.computeIfAbsent(entityType, key -> new AtomicLong());
+  }
+
+  private VersionedRows readNow(String entityType, Supplier<?> findAll) {
+    long version = versionOf(entityType).get();
+    return new VersionedRows(version, primaryReads.read(findAll));
+  }
+
+  private CachedResponse serialize(long version, long storedAt, Object body) throws IOException {
+    byte[] json = mapper.writeValueAsBytes(body);
+    byte[] gzip = json.length >= gzipMinBytes ? gzip(json) : null;
+    return new CachedResponse(version, storedAt, json, gzip, DigestUtils.md5DigestAsHex(json));
+  }
+
+  private static byte[] gzip(byte[] bytes) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4);
+    try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+      gzip.write(bytes);
+    }
+    return out.toByteArray();
+  }
+
+  private static Map<String, Long> sums(Map<String, LongAdder> counters) {
+    Map<String, Long> result = new TreeMap<>();
+    counters.forEach((key, counter) -> result.put(key, counter.sum()));
+    return result;
+  }
+
+  /**
+   * A serialized /all response.
+   * @param version the entity type's version before the rows were read
+   * @param storedAt when the rows were read, in System.nanoTime() units
+   * @param json the response body
+   * @param gzip the response body gzip-compressed, or null if it is too small to be worth it
+   * @param hash an MD5 hash of json, for the ETag
+   */
+  public record CachedResponse(long version, long storedAt, byte[] json, byte[] gzip, String hash) {
+  }
+
+  /**
+   * Every row of an entity type, as read by findAll.
+   * @param version the entity type's version before the rows were read
+   * @param rows the rows
+   */
+  public record VersionedRows(long version, Object rows) {
+  }
+}
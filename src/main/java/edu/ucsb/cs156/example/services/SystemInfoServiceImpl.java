@@ -2,14 +2,23 @@ package edu.ucsb.cs156.example.services;
 
 
 import edu.ucsb.cs156.example.models.SystemInfo;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Service;
 
 /**
  * This is a service for getting information about the system.
  * 
+ * Everything in SystemInfo comes from configuration properties, so it is
+ * built once when the service starts and the same instance is returned on
+ * every call.  It is rebuilt only when the application context is refreshed,
+ * which is the only time the configuration can change.
+ * 
  * This class relies on property values. For hints on testing, see: <a href="https://www.baeldung.com/spring-boot-testing-configurationproperties">https://www.baeldung.com/spring-boot-testing-configurationproperties</a>
  * 
  */
@@ -18,15 +27,30 @@ import org.springframework.stereotype.Service;
 @Service("systemInfo")
 @ConfigurationProperties
 public class SystemInfoServiceImpl extends SystemInfoService {
-  
-  @Value("${spring.h2.console.enabled:false}")
-  private boolean springH2ConsoleEnabled;
 
-  @Value("${app.showSwaggerUILink:false}")
-  private boolean showSwaggerUILink;
+  @Autowired
+  private Environment environment;
 
-  @Value("${app.oauth.login:/oauth2/authorization/google}")
-  private String oauthLogin;
+  private volatile SystemInfo systemInfo;
+
+  /**
+   * This method reads the configuration properties and builds the system information.
+   * It is called by Spring once the service is created, and again whenever the
+   * application context is refreshed.
+   */
+  @PostConstruct
+  @EventListener(ContextRefreshedEvent.class)
+  public void refresh() {
+    SystemInfo si = SystemInfo.builder()
+        .springH2ConsoleEnabled(environment.getProperty("spring.h2.console.enabled", Boolean.class, false))
+        .showSwaggerUILink(environment.getProperty("app.showSwaggerUILink", Boolean.class, false))
+        .oauthLogin(environment.getProperty("app.oauth.login", "/oauth2/authorization/google"))
+        .build();
+    if (!si.equals(systemInfo)) {
+      log.info("system info is {}", si);
+      systemInfo = si;
+    }
+  }
 
   /**
    * This method returns the system information.
@@ -34,13 +58,7 @@ public class SystemInfoServiceImpl extends SystemInfoService {
    * @return the system information
    */
   public SystemInfo getSystemInfo() {
-    SystemInfo si = SystemInfo.builder()
-    .springH2ConsoleEnabled(this.springH2ConsoleEnabled)
-    .showSwaggerUILink(this.showSwaggerUILink)
-    .oauthLogin(this.oauthLogin)
-    .build();
-  log.info("getSystemInfo returns {}",si);
-  return si;
+    return systemInfo;
   }
 
 }
@@ -0,0 +1,102 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.entities.Tombstone;
+import edu.ucsb.cs156.example.models.EntityChangeEvent;
+import edu.ucsb.cs156.example.models.EntityChangeEvent.ChangeType;
+import edu.ucsb.cs156.example.repositories.TombstoneRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+/**
+ * This is a service that records a Tombstone every time a controller deletes a row,
+ * so that the /changes endpoints can report deletions to clients.
+ *
+ * Tombstones are kept for retention; every pruneInterval a background thread
+ * deletes the older ones, so the /changes endpoints reject a since older than
+ * retention (see ApiController.changesSince).
+ */
+
+@Slf4j
+@Service("tombstones")
+public class TombstoneService {
+
+  @Autowired
+  TombstoneRepository tombstoneRepository;
+
+  @Value("${app.tombstones.retention:30d}")
+  private Duration retention = Duration.ofDays(30);
+
+  @Value("${app.tombstones.pruneInterval:1h}")
+  private Duration pruneInterval = Duration.ofHours(1);
+
+  private ScheduledExecutorService pruner;
+
+  /**
+   * This method starts the pruning of old tombstones; it is called by Spring
+   * once the property values have been injected.
+   */
+  @PostConstruct
+  public void init() {
+    if (!pruneInterval.isZero() && pruner == null) {
+      pruner = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "tombstone-prune");
+        thread.setDaemon(true);
+        return thread;
+      });
+      pruner.scheduleWithFixedDelay(this::prune, pruneInterval.toMillis(), pruneInterval.toMillis(),
+          TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * This method stops the pruning; it is called by Spring on shutdown.
+   */
+  @PreDestroy
+  public void shutdown() {
+    if (pruner != null) {
+      pruner.shutdownNow();
+    }
+  }
+
+  /**
+   * This method is called by Spring whenever a controller publishes an EntityChangeEvent.
+   * @param event the change that was made
+   */
+  @EventListener
+  public void onEntityChange(EntityChangeEvent event) {
+    if (event.getChangeType() != ChangeType.DELETED) {
+      return;
+    }
+    tombstoneRepository.save(Tombstone.builder()
+        .entityType(event.getEntityType())
+        .entityId(event.getId().toString())
+        .deletedAt(LocalDateTime.now())
+        .build());
+  }
+
+  /**
+   * This method deletes the tombstones older than retention.  A failure is logged
+   * rather than thrown, so that the next scheduled run still happens.
+   */
+  void prune() {
+    try {
+      int deleted = tombstoneRepository.deleteAllByDeletedAtBefore(LocalDateTime.now().minus(retention));
+      log.debug("pruned {} tombstones older than {}", deleted, retention);
+    } catch (RuntimeException e) {
+      log.warn("could not prune tombstones", e);
+    }
+  }
+}
@@ -1,6 +1,7 @@
 package edu.ucsb.cs156.example.services.wiremock;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
@@ -33,6 +34,9 @@ public class WiremockServiceImpl extends WiremockService {
 
   WireMockServer wireMockServer;
 
+  @Value("${app.wiremock.users:0}")
+  private int users;
+
   /**
    * This method returns the wiremockServer
    * 
@@ -106,6 +110,59 @@ public class WiremockServiceImpl extends WiremockService {
 
   }
 
+  /**
+   * This method sets up mocks for authentication that can log in many distinct users,
+   * for load testing the login path and the users table at realistic cardinality.
+   *
+   * The username typed on the wiremock login page becomes the authorization code,
+   * the access token is derived from the code, and /userinfo extracts the username
+   * back out of the bearer token, so the same username always yields the same
+   * sub and email (username@ucsb.edu).  Logging in as "admingaucho" therefore
+   * yields the admin user.  If the username is left blank, one of user0 .. user(n-1)
+   * is picked at random.
+   *
+   * @param s in an instance of a WireMockServer or WireMockExtension
+   * @param n the number of distinct users to pick from when no username is given
+   */
+  public static void setupMultiUserOauthMocks(Stubbing s, int n) {
+
+    s.stubFor(get(urlPathMatching("/oauth/authorize.*"))
+        .willReturn(aResponse()
+            .withStatus(200)
+            .withHeader("Content-Type", "text/html")
+            .withBodyFile("login.html")));
+
+    s.stubFor(post(urlPathEqualTo("/login"))
+        .willReturn(temporaryRedirect(
+            "{{formData request.body 'form' urlDecode=true}}{{{form.redirectUri}}}?code="
+                + "{{#if form.username}}{{{urlEncode form.username}}}{{else}}user{{randomInt lower=0 upper=" + n + "}}{{/if}}"
+                + "&state={{{form.state}}}")));
+
+    s.stubFor(post(urlPathEqualTo("/oauth/token"))
+        .willReturn(
+            okJson(
+                "{{formData request.body 'form' urlDecode=true}}{\"access_token\":\"token-{{{form.code}}}\",\"token_type\": \"Bearer\",\"expires_in\":\"3600\",\"scope\":\"https://www.googleapis.com/auth/userinfo.profile https://www.googleapis.com/auth/userinfo.email openid\"}")));
+
+    s.stubFor(get(urlPathMatching("/userinfo"))
+        .willReturn(aResponse()
+            .withStatus(200)
+            .withHeader("Content-Type", "application/json")
+            .withBody(
+                """
+                    {{regexExtract request.headers.Authorization 'Bearer token-(.+)' 'user'}}{
+                      "sub": "wiremock-{{user.0}}",
+                      "name": "{{user.0}} Gaucho",
+                      "given_name": "{{user.0}}",
+                      "family_name": "Gaucho",
+                      "picture": "https://lh3.googleusercontent.com/a/ACg8ocJpOe2SqIpirdIMx7KTj1W4OQ45t6FwpUo40K2V2JON=s96-c",
+                      "email": "{{user.0}}@ucsb.edu",
+                      "email_verified": true,
+                      "locale": "en",
+                      "hd": "ucsb.edu"
+                    }
+                    """)));
+  }
+
   /**
    * This method initializes the WireMockServer
    */
@@ -114,7 +171,12 @@ public class WiremockServiceImpl extends WiremockService {
 
     WireMockServer wireMockServer = new WireMockServer(options()
         .port(8090).globalTemplating(true));
-    setupOauthMocks(wireMockServer, true);
+    if (users > 0) {
+      log.info("wiremock will log in up to {} distinct users", users);
+      setupMultiUserOauthMocks(wireMockServer, users);
+    } else {
+      setupOauthMocks(wireMockServer, true);
+    }
 
     wireMockServer.start();
 
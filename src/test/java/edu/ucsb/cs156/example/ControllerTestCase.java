@@ -3,6 +3,7 @@ package edu.ucsb.cs156.example;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import org.junit.jupiter.api.BeforeEach;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
@@ -11,6 +12,8 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import edu.ucsb.cs156.example.services.CurrentUserService;
 import edu.ucsb.cs156.example.services.GrantedAuthoritiesService;
+import edu.ucsb.cs156.example.services.NegativeLookupCacheService;
+import edu.ucsb.cs156.example.services.ResponseCacheService;
 import edu.ucsb.cs156.example.services.wiremock.WiremockService;
 import edu.ucsb.cs156.example.testconfig.TestConfig;
 import org.springframework.test.web.servlet.MvcResult;
@@ -33,9 +36,26 @@ public abstract class ControllerTestCase {
   @Autowired
   public ObjectMapper mapper;
 
+  @Autowired
+  public ResponseCacheService responseCacheService;
+
+  @Autowired
+  public NegativeLookupCacheService negativeLookupCacheService;
+
   @MockBean
   WiremockService mockWiremockService;
 
+  // the cached /all responses and missing ids would otherwise outlive the repository mocks of earlier tests;
+  // subclasses that do not start a Spring context (e.g. CurrentUserServiceTests) have nothing to clear
+  @BeforeEach
+  public void clearResponseCache() {
+    if (responseCacheService == null) {
+      return;
+    }
+    responseCacheService.clear();
+    negativeLookupCacheService.clear();
+  }
+
   protected Map<String, Object> responseToJson(MvcResult result) throws UnsupportedEncodingException, JsonProcessingException {
     String responseString = result.getResponse().getContentAsString();
     return mapper.readValue(responseString, Map.class);
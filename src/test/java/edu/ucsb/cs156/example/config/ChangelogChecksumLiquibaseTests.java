@@ -0,0 +1,95 @@
+package edu.ucsb.cs156.example.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+class ChangelogChecksumLiquibaseTests {
+
+  private final DriverManagerDataSource dataSource = new DriverManagerDataSource(
+      "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+
+  private final JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+
+  private ChangelogChecksumLiquibase liquibase(boolean skipWhenUnchanged) {
+    ChangelogChecksumLiquibase liquibase = new ChangelogChecksumLiquibase();
+    liquibase.setDataSource(dataSource);
+    liquibase.setResourceLoader(new DefaultResourceLoader());
+    liquibase.setChangeLog("db/migration/changelog-master.json");
+    liquibase.setSkipWhenUnchanged(skipWhenUnchanged);
+    return liquibase;
+  }
+
+  private boolean tableExists(String table) {
+    return jdbc.queryForObject(
+        "SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_NAME = ?", Integer.class, table) > 0;
+  }
+
+  @Test
+  void test_first_run_migrates_and_stores_the_checksum() throws Exception {
+    ChangelogChecksumLiquibase liquibase = liquibase(true);
+    assertNull(liquibase.storedChecksum());
+
+    liquibase.afterPropertiesSet();
+
+    assertTrue(tableExists("RESTAURANTS"));
+    assertEquals(liquibase.changelogChecksum(), liquibase.storedChecksum());
+  }
+
+  @Test
+  void test_unchanged_changelogs_skip_liquibase() throws Exception {
+    liquibase(true).afterPropertiesSet();
+    // a real Liquibase run would recreate its lock table
+    jdbc.execute("DROP TABLE DATABASECHANGELOGLOCK");
+
+    liquibase(true).afterPropertiesSet();
+
+    assertFalse(tableExists("DATABASECHANGELOGLOCK"));
+  }
+
+  @Test
+  void test_changed_checksum_runs_liquibase_and_updates_the_marker() throws Exception {
+    liquibase(true).afterPropertiesSet();
+    jdbc.execute("DROP TABLE DATABASECHANGELOGLOCK");
+    jdbc.update("UPDATE CHANGELOG_MARKER SET CHECKSUM = 'stale'");
+
+    ChangelogChecksumLiquibase liquibase = liquibase(true);
+    liquibase.afterPropertiesSet();
+
+    assertTrue(tableExists("DATABASECHANGELOGLOCK"));
+    assertEquals(liquibase.changelogChecksum(), liquibase.storedChecksum());
+    assertEquals(1, jdbc.queryForObject("SELECT COUNT(*) FROM CHANGELOG_MARKER", Integer.class));
+  }
+
+  @Test
+  void test_skipWhenUnchanged_false_always_runs_liquibase() throws Exception {
+    liquibase(true).afterPropertiesSet();
+    // the stored checksum still matches, so only the flag can make Liquibase run
+    jdbc.execute("DROP TABLE DATABASECHANGELOGLOCK");
+
+    ChangelogChecksumLiquibase liquibase = liquibase(false);
+    liquibase.afterPropertiesSet();
+
+    assertTrue(tableExists("DATABASECHANGELOGLOCK"));
+    assertEquals(liquibase.changelogChecksum(), liquibase.storedChecksum());
+  }
+
+  @Test
+  void test_checksum_depends_on_the_changelog_files() {
+    ChangelogChecksumLiquibase all = liquibase(true);
+    ChangelogChecksumLiquibase some = liquibase(true);
+    some.setChecksumLocations("classpath*:db/migration/changes/Restaurants.json");
+
+    assertEquals(all.changelogChecksum(), liquibase(true).changelogChecksum());
+    assertNotEquals(all.changelogChecksum(), some.changelogChecksum());
+  }
+}
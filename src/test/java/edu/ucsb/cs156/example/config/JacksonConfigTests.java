@@ -0,0 +1,66 @@
+package edu.ucsb.cs156.example.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.fasterxml.jackson.core.StreamReadFeature;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import edu.ucsb.cs156.example.entities.UCSBDate;
+import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
+
+class JacksonConfigTests {
+
+  private final ObjectMapper defaultMapper = Jackson2ObjectMapperBuilder.json()
+      .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+
+  private final ObjectMapper tunedMapper = tuned();
+
+  private static ObjectMapper tuned() {
+    Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+        .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    JacksonConfig.tune(builder);
+    return builder.build();
+  }
+
+  private final List<Object> entities = List.of(
+      UCSBDate.builder().id(1).quarterYYYYQ("20241").name("firstDayOfClasses")
+          .localDateTime(LocalDateTime.parse("2024-01-08T08:00:00")).build(),
+      UCSBDiningCommons.builder().code("ortega").name("Ortega").hasSackMeal(true).hasTakeOutMeal(true)
+          .hasDiningCam(true).latitude(34.410987).longitude(-119.84709).build());
+
+  @Test
+  void test_tuned_mapper_registers_blackbird() {
+    assertTrue(tunedMapper.getRegisteredModuleIds().stream()
+        .anyMatch(id -> id.toString().contains("Blackbird")));
+    assertFalse(tunedMapper.isEnabled(SerializationFeature.FLUSH_AFTER_WRITE_VALUE));
+  }
+
+  @Test
+  void test_tuned_mapper_uses_the_fast_double_writer_and_parser() {
+    assertTrue(tunedMapper.getFactory().isEnabled(StreamWriteFeature.USE_FAST_DOUBLE_WRITER));
+    assertTrue(tunedMapper.getFactory().isEnabled(StreamReadFeature.USE_FAST_DOUBLE_PARSER));
+    assertFalse(defaultMapper.getFactory().isEnabled(StreamWriteFeature.USE_FAST_DOUBLE_WRITER));
+  }
+
+  @Test
+  void test_tuned_mapper_writes_the_same_json_as_the_default() throws Exception {
+    assertEquals(defaultMapper.writeValueAsString(entities), tunedMapper.writeValueAsString(entities));
+  }
+
+  @Test
+  void test_tuned_mapper_reads_what_it_writes() throws Exception {
+    String json = tunedMapper.writeValueAsString(entities.get(0));
+    assertEquals(entities.get(0), tunedMapper.readValue(json, UCSBDate.class));
+    assertTrue(json.contains("\"localDateTime\":\"2024-01-08T08:00:00\""));
+  }
+}
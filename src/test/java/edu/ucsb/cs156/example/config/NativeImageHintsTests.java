@@ -0,0 +1,34 @@
+package edu.ucsb.cs156.example.config;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+
+import net.ttddyy.dsproxy.proxy.ProxyJdbcObject;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+class NativeImageHintsTests {
+
+  private final RuntimeHints hints = new RuntimeHints();
+
+  NativeImageHintsTests() {
+    new NativeImageHints.Registrar().registerHints(hints, getClass().getClassLoader());
+  }
+
+  @Test
+  void test_liquibase_changelogs_are_included() {
+    assertTrue(RuntimeHintsPredicates.resource().forResource("db/migration/changelog-master.json").test(hints));
+    assertTrue(RuntimeHintsPredicates.resource().forResource("db/migration/changes/Restaurants.json").test(hints));
+  }
+
+  @Test
+  void test_datasource_proxy_jdk_proxies_are_registered() {
+    assertTrue(RuntimeHintsPredicates.proxies().forInterfaces(ProxyJdbcObject.class, Connection.class).test(hints));
+    assertTrue(RuntimeHintsPredicates.proxies().forInterfaces(ProxyJdbcObject.class, PreparedStatement.class)
+        .test(hints));
+  }
+}
@@ -0,0 +1,66 @@
+package edu.ucsb.cs156.example.config;
+
+import edu.ucsb.cs156.example.ControllerTestCase;
+import edu.ucsb.cs156.example.controllers.SystemInfoController;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.SystemInfoService;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = SystemInfoController.class)
+@TestPropertySource(properties = {
+    "app.ratelimit.enabled=true",
+    "app.ratelimit.capacity=2",
+    "app.ratelimit.refillPerSecond=0.01"
+})
+public class RateLimitFilterTests extends ControllerTestCase {
+
+  @MockBean
+  UserRepository userRepository;
+
+  @MockBean
+  SystemInfoService systemInfoService;
+
+  @Test
+  public void anonymous_clients_are_limited_by_address() throws Exception {
+    mockMvc.perform(get("/api/systemInfo").with(request -> remoteAddr(request, "10.0.0.1")))
+        .andExpect(status().isOk());
+    mockMvc.perform(get("/api/systemInfo").with(request -> remoteAddr(request, "10.0.0.1")))
+        .andExpect(status().isOk());
+    mockMvc.perform(get("/api/systemInfo").with(request -> remoteAddr(request, "10.0.0.1")))
+        .andExpect(status().isTooManyRequests())
+        .andExpect(header().string("Retry-After", "100"))
+        .andExpect(jsonPath("$.type").value("TooManyRequests"));
+
+    mockMvc.perform(get("/api/systemInfo").with(request -> remoteAddr(request, "10.0.0.2")))
+        .andExpect(status().isOk());
+  }
+
+  @WithMockUser(username = "limited", roles = { "USER" })
+  @Test
+  public void logged_in_users_are_limited_by_name() throws Exception {
+    mockMvc.perform(get("/api/systemInfo")).andExpect(status().isOk());
+    mockMvc.perform(get("/api/systemInfo")).andExpect(status().isOk());
+    mockMvc.perform(get("/api/systemInfo")).andExpect(status().isTooManyRequests());
+  }
+
+  @Test
+  public void non_api_paths_are_not_limited() throws Exception {
+    for (int i = 0; i < 3; i++) {
+      mockMvc.perform(get("/csrf-not-an-api-path")).andExpect(status().isNotFound());
+    }
+  }
+
+  private static MockHttpServletRequest remoteAddr(MockHttpServletRequest request, String address) {
+    request.setRemoteAddr(address);
+    return request;
+  }
+}
@@ -0,0 +1,119 @@
+package edu.ucsb.cs156.example.config;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+class ReplicaFallbackDataSourceTests {
+
+  private final DataSource replica = mock(DataSource.class);
+  private final DataSource primary = mock(DataSource.class);
+  private final Connection replicaConnection = mock(Connection.class);
+  private final Connection primaryConnection = mock(Connection.class);
+
+  private ReplicaFallbackDataSource dataSource(String lagQuery) throws SQLException {
+    when(replica.getConnection()).thenReturn(replicaConnection);
+    when(primary.getConnection()).thenReturn(primaryConnection);
+    return new ReplicaFallbackDataSource(replica, primary, Duration.ofSeconds(10), lagQuery, Duration.ZERO);
+  }
+
+  @Test
+  void healthy_replica_serves_connections() throws Exception {
+    ReplicaFallbackDataSource dataSource = dataSource("");
+    when(replicaConnection.isValid(anyInt())).thenReturn(true);
+    dataSource.check();
+    assertTrue(dataSource.isReplicaUsable());
+    assertSame(replicaConnection, dataSource.getConnection());
+  }
+
+  @Test
+  void failed_connection_falls_back_to_primary_until_next_check() throws Exception {
+    ReplicaFallbackDataSource dataSource = dataSource("");
+    when(replica.getConnection()).thenThrow(new SQLException("down"));
+    assertSame(primaryConnection, dataSource.getConnection());
+    assertFalse(dataSource.isReplicaUsable());
+    assertSame(primaryConnection, dataSource.getConnection());
+    verify(replica, times(1)).getConnection();
+  }
+
+  @Test
+  void lagging_replica_is_not_used() throws Exception {
+    ReplicaFallbackDataSource dataSource = dataSource("SELECT lag");
+    Statement statement = mock(Statement.class);
+    ResultSet resultSet = mock(ResultSet.class);
+    when(replicaConnection.createStatement()).thenReturn(statement);
+    when(statement.executeQuery("SELECT lag")).thenReturn(resultSet);
+    when(resultSet.next()).thenReturn(true);
+    when(resultSet.getDouble(1)).thenReturn(30.0);
+
+    dataSource.check();
+    assertFalse(dataSource.isReplicaUsable());
+    assertSame(primaryConnection, dataSource.getConnection());
+
+    when(resultSet.getDouble(1)).thenReturn(2.0);
+    dataSource.check();
+    assertTrue(dataSource.isReplicaUsable());
+  }
+
+  @Test
+  void read_only_work_through_the_lazy_proxy_goes_to_the_replica() throws Exception {
+    ReplicaFallbackDataSource readOnly = dataSource("");
+    LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(primary);
+    proxy.setReadOnlyDataSource(readOnly);
+
+    try (Connection connection = proxy.getConnection()) {
+      connection.setReadOnly(true);
+      connection.createStatement();
+    }
+    verify(replicaConnection, times(1)).createStatement();
+
+    try (Connection connection = proxy.getConnection()) {
+      connection.createStatement();
+    }
+    verify(primaryConnection, times(1)).createStatement();
+    verify(replicaConnection, times(1)).createStatement();
+  }
+
+  @Test
+  void health_check_starts_once_the_bean_is_initialized() throws Exception {
+    when(replica.getConnection()).thenReturn(replicaConnection);
+    when(replicaConnection.isValid(anyInt())).thenReturn(false);
+    ReplicaFallbackDataSource dataSource =
+        new ReplicaFallbackDataSource(replica, primary, Duration.ofSeconds(10), "", Duration.ofHours(1));
+    verify(replica, never()).getConnection();
+
+    dataSource.afterPropertiesSet();
+    dataSource.afterPropertiesSet();
+    verify(replica, timeout(5000)).getConnection();
+    verify(replicaConnection, timeout(5000)).close();
+    assertFalse(dataSource.isReplicaUsable());
+    dataSource.close();
+    verify(replica, times(1)).getConnection();
+  }
+
+  @Test
+  void zero_check_interval_never_starts_the_health_check() throws Exception {
+    ReplicaFallbackDataSource dataSource = dataSource("");
+    dataSource.afterPropertiesSet();
+    dataSource.close();
+    verify(replica, never()).getConnection();
+  }
+}
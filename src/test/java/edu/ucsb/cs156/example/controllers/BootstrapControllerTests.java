@@ -0,0 +1,93 @@
+package edu.ucsb.cs156.example.controllers;
+
+import edu.ucsb.cs156.example.ControllerTestCase;
+import edu.ucsb.cs156.example.models.Bootstrap;
+import edu.ucsb.cs156.example.models.SystemInfo;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.SystemInfoService;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = BootstrapController.class)
+public class BootstrapControllerTests extends ControllerTestCase {
+
+  @MockBean
+  UserRepository userRepository;
+
+  @MockBean
+  SystemInfoService systemInfoService;
+
+  SystemInfo systemInfo = SystemInfo.builder()
+      .springH2ConsoleEnabled(false)
+      .showSwaggerUILink(true)
+      .oauthLogin("/oauth2/authorization/google")
+      .build();
+
+  @BeforeEach
+  public void setup() {
+    when(systemInfoService.getSystemInfo()).thenReturn(systemInfo);
+  }
+
+  @Test
+  public void logged_out_users_get_system_info_only() throws Exception {
+
+    // act
+    MvcResult response = mockMvc.perform(get("/api/bootstrap"))
+        .andExpect(status().isOk())
+        .andExpect(header().string("Cache-Control", "no-cache, private"))
+        .andReturn();
+
+    // assert
+    Map<String, Object> json = responseToJson(response);
+    assertNull(json.get("currentUser"));
+    assertEquals(mapper.writeValueAsString(systemInfo), mapper.writeValueAsString(json.get("systemInfo")));
+  }
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void logged_in_users_get_current_user_and_system_info() throws Exception {
+
+    // arrange
+    Bootstrap expected = Bootstrap.builder()
+        .currentUser(currentUserService.getCurrentUser())
+        .systemInfo(systemInfo)
+        .build();
+
+    // act
+    MvcResult response = mockMvc.perform(get("/api/bootstrap"))
+        .andExpect(status().isOk())
+        .andExpect(header().exists("ETag"))
+        .andReturn();
+
+    // assert
+    assertEquals(mapper.writeValueAsString(expected), response.getResponse().getContentAsString());
+  }
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void unchanged_response_is_not_modified() throws Exception {
+
+    // arrange
+    String etag = mockMvc.perform(get("/api/bootstrap"))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getHeader("ETag");
+
+    // act and assert
+    mockMvc.perform(get("/api/bootstrap").header("If-None-Match", etag))
+        .andExpect(status().isNotModified())
+        .andExpect(content().string(""));
+  }
+}
@@ -0,0 +1,134 @@
+package edu.ucsb.cs156.example.controllers;
+
+import edu.ucsb.cs156.example.ControllerTestCase;
+import edu.ucsb.cs156.example.models.CacheStats;
+import edu.ucsb.cs156.example.models.NegativeLookupStats;
+import edu.ucsb.cs156.example.models.ResponseCacheStats;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.HibernateStatisticsService;
+import edu.ucsb.cs156.example.services.NegativeLookupCacheService;
+import edu.ucsb.cs156.example.services.ResponseCacheService;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = CacheStatsController.class)
+public class CacheStatsControllerTests extends ControllerTestCase {
+
+  @MockBean
+  UserRepository userRepository;
+
+  @MockBean
+  HibernateStatisticsService hibernateStatisticsService;
+
+  @MockBean
+  ResponseCacheService responseCacheService;
+
+  @MockBean
+  NegativeLookupCacheService negativeLookupCacheService;
+
+  @Test
+  public void logged_out_users_cannot_get_stats() throws Exception {
+    mockMvc.perform(get("/api/admin/cache"))
+        .andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void regular_users_cannot_get_stats() throws Exception {
+    mockMvc.perform(get("/api/admin/cache"))
+        .andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void admin_can_get_stats() throws Exception {
+
+    // arrange
+
+    CacheStats stats = CacheStats.builder()
+        .statisticsEnabled(true)
+        .secondLevelCacheHitCount(10)
+        .secondLevelCacheMissCount(2)
+        .regions(List.of())
+        .build();
+    when(hibernateStatisticsService.getCacheStats()).thenReturn(stats);
+
+    // act
+    MvcResult response = mockMvc.perform(get("/api/admin/cache"))
+        .andExpect(status().isOk()).andReturn();
+
+    // assert
+    assertEquals(mapper.writeValueAsString(stats), response.getResponse().getContentAsString());
+  }
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void regular_users_cannot_get_response_cache_stats() throws Exception {
+    mockMvc.perform(get("/api/admin/cache/responses"))
+        .andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void admin_can_get_response_cache_stats() throws Exception {
+
+    // arrange
+
+    ResponseCacheStats stats = ResponseCacheStats.builder()
+        .enabled(true)
+        .entries(1)
+        .hitsByType(Map.of("Restaurant", 40L))
+        .missesByType(Map.of("Restaurant", 2L))
+        .versionsByType(Map.of("Restaurant", 1L))
+        .build();
+    when(responseCacheService.getStats()).thenReturn(stats);
+
+    // act
+    MvcResult response = mockMvc.perform(get("/api/admin/cache/responses"))
+        .andExpect(status().isOk()).andReturn();
+
+    // assert
+    assertEquals(mapper.writeValueAsString(stats), response.getResponse().getContentAsString());
+  }
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void regular_users_cannot_get_negative_lookup_stats() throws Exception {
+    mockMvc.perform(get("/api/admin/cache/notfound"))
+        .andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void admin_can_get_negative_lookup_stats() throws Exception {
+
+    // arrange
+
+    NegativeLookupStats stats = NegativeLookupStats.builder()
+        .enabled(true)
+        .entries(3)
+        .hitsByType(Map.of("Restaurant", 40L))
+        .missesByType(Map.of("Restaurant", 3L))
+        .build();
+    when(negativeLookupCacheService.getStats()).thenReturn(stats);
+
+    // act
+    MvcResult response = mockMvc.perform(get("/api/admin/cache/notfound"))
+        .andExpect(status().isOk()).andReturn();
+
+    // assert
+    assertEquals(mapper.writeValueAsString(stats), response.getResponse().getContentAsString());
+  }
+}
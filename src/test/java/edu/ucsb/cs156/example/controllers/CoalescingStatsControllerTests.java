@@ -0,0 +1,66 @@
+package edu.ucsb.cs156.example.controllers;
+
+import edu.ucsb.cs156.example.ControllerTestCase;
+import edu.ucsb.cs156.example.models.CoalescedKeyStats;
+import edu.ucsb.cs156.example.models.CoalescingStats;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.RequestCoalescingService;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = CoalescingStatsController.class)
+public class CoalescingStatsControllerTests extends ControllerTestCase {
+
+  @MockBean
+  UserRepository userRepository;
+
+  @MockBean
+  RequestCoalescingService requestCoalescingService;
+
+  @Test
+  public void logged_out_users_cannot_get_stats() throws Exception {
+    mockMvc.perform(get("/api/admin/coalescing"))
+        .andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void regular_users_cannot_get_stats() throws Exception {
+    mockMvc.perform(get("/api/admin/coalescing"))
+        .andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void admin_can_get_stats() throws Exception {
+
+    // arrange
+
+    CoalescingStats stats = CoalescingStats.builder()
+        .enabled(true)
+        .inFlight(1)
+        .callsTotal(12)
+        .coalescedTotal(9)
+        .keys(List.of(CoalescedKeyStats.builder().key("UCSBDate.findAll").calls(12).loads(3).coalesced(9).build()))
+        .build();
+    when(requestCoalescingService.getStats()).thenReturn(stats);
+
+    // act
+    MvcResult response = mockMvc.perform(get("/api/admin/coalescing"))
+        .andExpect(status().isOk()).andReturn();
+
+    // assert
+    assertEquals(mapper.writeValueAsString(stats), response.getResponse().getContentAsString());
+  }
+}
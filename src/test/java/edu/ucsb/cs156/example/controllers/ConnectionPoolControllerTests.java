@@ -0,0 +1,73 @@
+package edu.ucsb.cs156.example.controllers;
+
+import edu.ucsb.cs156.example.ControllerTestCase;
+import edu.ucsb.cs156.example.models.ConnectionPoolStats;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.ConnectionPoolMetricsService;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = ConnectionPoolController.class)
+public class ConnectionPoolControllerTests extends ControllerTestCase {
+
+  @MockBean
+  UserRepository userRepository;
+
+  @MockBean
+  ConnectionPoolMetricsService connectionPoolMetrics;
+
+  @Test
+  public void logged_out_users_cannot_get_pool_stats() throws Exception {
+    mockMvc.perform(get("/api/admin/pool"))
+        .andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void regular_users_cannot_get_pool_stats() throws Exception {
+    mockMvc.perform(get("/api/admin/pool"))
+        .andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void admin_can_get_pool_stats() throws Exception {
+
+    // arrange
+
+    List<ConnectionPoolStats> stats = List.of(ConnectionPoolStats.builder()
+        .pool("primary")
+        .activeConnections(3)
+        .idleConnections(7)
+        .totalConnections(10)
+        .maxConnections(10)
+        .pendingThreads(1)
+        .acquisitions(1000)
+        .meanAcquireMillis(0.4)
+        .maxAcquireMillis(12.5)
+        .acquireTimeouts(0)
+        .meanUsageMillis(3.2)
+        .maxUsageMillis(40)
+        .connectionsCreated(10)
+        .build());
+    when(connectionPoolMetrics.getStats()).thenReturn(stats);
+
+    // act
+    MvcResult response = mockMvc.perform(get("/api/admin/pool"))
+        .andExpect(status().isOk()).andReturn();
+
+    // assert
+    assertEquals(mapper.writeValueAsString(stats), response.getResponse().getContentAsString());
+  }
+}
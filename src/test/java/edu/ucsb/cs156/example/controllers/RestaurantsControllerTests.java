@@ -4,17 +4,34 @@ import edu.ucsb.cs156.example.repositories.UserRepository;
 import edu.ucsb.cs156.example.testconfig.TestConfig;
 import edu.ucsb.cs156.example.ControllerTestCase;
 import edu.ucsb.cs156.example.entities.Restaurant;
+import edu.ucsb.cs156.example.models.EntityBatch;
+import edu.ucsb.cs156.example.entities.Tombstone;
+import edu.ucsb.cs156.example.models.EntityChangeEvent;
+import edu.ucsb.cs156.example.models.EntityChangeEvent.ChangeType;
 import edu.ucsb.cs156.example.repositories.RestaurantRepository;
+import edu.ucsb.cs156.example.repositories.TombstoneRepository;
 
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+
+import java.io.ByteArrayInputStream;
+import java.time.LocalDateTime;
+import java.util.stream.IntStream;
+import java.util.stream.Collectors;
+import java.util.LinkedHashSet;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
 import java.util.Arrays;
 import java.util.Map;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
 import org.springframework.test.web.servlet.MvcResult;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -24,22 +41,32 @@ import static org.springframework.security.test.web.servlet.request.SecurityMock
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @WebMvcTest(controllers = RestaurantsController.class)
 @Import(TestConfig.class)
+@RecordApplicationEvents
 public class RestaurantsControllerTests extends ControllerTestCase {
 
+        @Autowired
+        ApplicationEvents applicationEvents;
+
         @MockBean
         RestaurantRepository restaurantRepository;
 
         @MockBean
         UserRepository userRepository;
 
+        @MockBean
+        TombstoneRepository tombstoneRepository;
+
         // Authorization tests for /api/phones/admin/all
 
         @Test
@@ -124,6 +151,35 @@ public class RestaurantsControllerTests extends ControllerTestCase {
                 assertEquals("Restaurant with id 7 not found", json.get("message"));
         }
 
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void missing_ids_are_not_looked_up_again_until_they_are_created() throws Exception {
+
+                // arrange
+
+                Restaurant created = Restaurant.builder().id(7L).name("Freebirds").description("Burritos").build();
+                when(restaurantRepository.findById(eq(7L))).thenReturn(Optional.empty());
+                when(restaurantRepository.save(any())).thenReturn(created);
+
+                // act
+                mockMvc.perform(get("/api/restaurants?id=7")).andExpect(status().isNotFound());
+                mockMvc.perform(get("/api/restaurants?id=7")).andExpect(status().isNotFound());
+
+                // assert
+                verify(restaurantRepository, times(1)).findById(eq(7L));
+
+                // act
+                mockMvc.perform(post("/api/restaurants/post?name=Freebirds&description=Burritos").with(csrf()))
+                                .andExpect(status().isOk());
+                when(restaurantRepository.findById(eq(7L))).thenReturn(Optional.of(created));
+                MvcResult response = mockMvc.perform(get("/api/restaurants?id=7"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(restaurantRepository, times(2)).findById(eq(7L));
+                assertEquals(mapper.writeValueAsString(created), response.getResponse().getContentAsString());
+        }
+
         @WithMockUser(roles = { "USER" })
         @Test
         public void logged_in_user_can_get_all_restaurants() throws Exception {
@@ -177,6 +233,10 @@ public class RestaurantsControllerTests extends ControllerTestCase {
 
                 // assert
                 verify(restaurantRepository, times(1)).save(restaurant1);
+                EntityChangeEvent event = applicationEvents.stream(EntityChangeEvent.class).findFirst().get();
+                assertEquals("Restaurant", event.getEntityType());
+                assertEquals(ChangeType.CREATED, event.getChangeType());
+                assertEquals(restaurant1, event.getEntity());
                 String expectedJson = mapper.writeValueAsString(restaurant1);
                 String responseString = response.getResponse().getContentAsString();
                 assertEquals(expectedJson, responseString);
@@ -203,6 +263,9 @@ public class RestaurantsControllerTests extends ControllerTestCase {
                 // assert
                 verify(restaurantRepository, times(1)).findById(15L);
                 verify(restaurantRepository, times(1)).delete(any());
+                EntityChangeEvent event = applicationEvents.stream(EntityChangeEvent.class).findFirst().get();
+                assertEquals(ChangeType.DELETED, event.getChangeType());
+                assertEquals(15L, event.getId());
 
                 Map<String, Object> json = responseToJson(response);
                 assertEquals("Restaurant with id 15 deleted", json.get("message"));
@@ -259,10 +322,52 @@ public class RestaurantsControllerTests extends ControllerTestCase {
                 // assert
                 verify(restaurantRepository, times(1)).findById(67L);
                 verify(restaurantRepository, times(1)).save(restaurantEdited); // should be saved with correct user
+                EntityChangeEvent event = applicationEvents.stream(EntityChangeEvent.class).findFirst().get();
+                assertEquals(ChangeType.UPDATED, event.getChangeType());
+                assertEquals(restaurantEdited, event.getEntity());
                 String responseString = response.getResponse().getContentAsString();
                 assertEquals(requestBody, responseString);
         }
 
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_can_edit_an_existing_restaurant_using_cbor() throws Exception {
+                // arrange
+
+                CBORMapper cborMapper = new CBORMapper();
+
+                Restaurant restaurantOrig = Restaurant.builder().id(67L)
+                                .name("Chipotle")
+                                .description("Mexican")
+                                .build();
+
+                Restaurant restaurantEdited = Restaurant.builder().id(67L)
+                                .name("Taco Bell")
+                                .description("American")
+                                .build();
+
+                byte[] requestBody = cborMapper.writeValueAsBytes(mapper.valueToTree(restaurantEdited));
+
+                when(restaurantRepository.findById(eq(67L))).thenReturn(Optional.of(restaurantOrig));
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                put("/api/restaurants?id=67")
+                                                .contentType(MediaType.APPLICATION_CBOR)
+                                                .accept(MediaType.APPLICATION_CBOR)
+                                                .content(requestBody)
+                                                .with(csrf()))
+                                .andExpect(status().isOk())
+                                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR))
+                                .andReturn();
+
+                // assert
+                verify(restaurantRepository, times(1)).save(restaurantEdited);
+                // read the expected tree back from JSON, so the small id is an int node as it is in the CBOR
+                assertEquals(mapper.readTree(mapper.writeValueAsString(restaurantEdited)),
+                                cborMapper.readTree(response.getResponse().getContentAsByteArray()));
+        }
+
         @WithMockUser(roles = { "ADMIN", "USER" })
         @Test
         public void admin_cannot_edit_restaurant_that_does_not_exist() throws Exception {
@@ -294,4 +399,193 @@ public class RestaurantsControllerTests extends ControllerTestCase {
                 assertEquals("Restaurant with id 67 not found", json.get("message"));
 
         }
+
+        // Tests for /api/restaurants/changes
+
+        @Test
+        public void logged_out_users_cannot_get_changes() throws Exception {
+                mockMvc.perform(get("/api/restaurants/changes?since=2024-10-01T00:00:00"))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_changes_since_a_watermark() throws Exception {
+
+                // arrange
+
+                LocalDateTime since = LocalDateTime.now().minusDays(1).withNano(0);
+
+                Restaurant updated = Restaurant.builder()
+                                .id(1L)
+                                .name("Taco Bell")
+                                .description("Mexican")
+                                .build();
+
+                Tombstone tombstone = Tombstone.builder()
+                                .entityType("Restaurant")
+                                .entityId("2")
+                                .deletedAt(since.plusHours(1))
+                                .build();
+
+                when(restaurantRepository.findAllByUpdatedAtAfter(eq(since))).thenReturn(Arrays.asList(updated));
+                when(tombstoneRepository.findAllByEntityTypeAndDeletedAtAfter(eq("Restaurant"), eq(since)))
+                                .thenReturn(Arrays.asList(tombstone));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/restaurants/changes?since=" + since))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+
+                verify(restaurantRepository, times(1)).findAllByUpdatedAtAfter(since);
+                Map<String, Object> json = responseToJson(response);
+                assertEquals(mapper.writeValueAsString(Arrays.asList(updated)), mapper.writeValueAsString(json.get("updated")));
+                assertEquals(Arrays.asList("2"), json.get("deleted"));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void changes_since_before_the_tombstone_retention_are_gone() throws Exception {
+
+                // act
+                mockMvc.perform(get("/api/restaurants/changes?since=" + LocalDateTime.now().minusDays(31).withNano(0)))
+                                .andExpect(status().isGone());
+
+                // assert: tombstones that old may have been pruned, so nothing is looked up
+                verify(restaurantRepository, never()).findAllByUpdatedAtAfter(any());
+                verify(tombstoneRepository, never()).findAllByEntityTypeAndDeletedAtAfter(any(), any());
+        }
+
+        // Tests for the response cache behind /api/restaurants/all
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void repeated_get_all_is_served_from_the_response_cache() throws Exception {
+
+                // arrange
+
+                List<Restaurant> restaurants = Arrays.asList(
+                                Restaurant.builder().id(1L).name("Taco Bell").description("Mexican").build());
+                when(restaurantRepository.findAll()).thenReturn(restaurants);
+
+                // act
+                MvcResult first = mockMvc.perform(get("/api/restaurants/all")
+                                .accept(MediaType.APPLICATION_JSON)
+                                .header("Accept-Encoding", "gzip"))
+                                .andExpect(status().isOk()).andReturn();
+                MvcResult second = mockMvc.perform(get("/api/restaurants/all"))
+                                .andExpect(status().isOk()).andReturn();
+                String etag = second.getResponse().getHeader("ETag");
+                mockMvc.perform(get("/api/restaurants/all").header("If-None-Match", etag))
+                                .andExpect(status().isNotModified());
+
+                // assert: one query, and a body too small to be worth compressing
+
+                verify(restaurantRepository, times(1)).findAll();
+                assertNull(first.getResponse().getHeader("Content-Encoding"));
+                assertEquals(first.getResponse().getHeader("ETag"), etag);
+                assertEquals(mapper.writeValueAsString(restaurants), second.getResponse().getContentAsString());
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void get_all_is_read_again_after_a_restaurant_changes() throws Exception {
+
+                // arrange
+
+                Restaurant chipotle = Restaurant.builder().name("Chipotle").description("Mexican").build();
+                when(restaurantRepository.findAll()).thenReturn(List.of()).thenReturn(List.of(chipotle));
+                when(restaurantRepository.save(eq(chipotle))).thenReturn(chipotle);
+
+                // act
+                mockMvc.perform(get("/api/restaurants/all")).andExpect(status().isOk());
+                mockMvc.perform(post("/api/restaurants/post?name=Chipotle&description=Mexican").with(csrf()))
+                                .andExpect(status().isOk());
+                MvcResult response = mockMvc.perform(get("/api/restaurants/all"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(restaurantRepository, times(2)).findAll();
+                assertEquals(mapper.writeValueAsString(Arrays.asList(chipotle)), response.getResponse().getContentAsString());
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void large_get_all_is_gzipped_for_clients_that_accept_it() throws Exception {
+
+                // arrange
+
+                List<Restaurant> restaurants = new ArrayList<>();
+                for (long i = 0; i < 40; i++) {
+                        restaurants.add(Restaurant.builder().id(i).name("Restaurant " + i).description("Description " + i).build());
+                }
+                when(restaurantRepository.findAll()).thenReturn(restaurants);
+                String expectedJson = mapper.writeValueAsString(restaurants);
+
+                // act
+                MvcResult gzipped = mockMvc.perform(get("/api/restaurants/all").header("Accept-Encoding", "gzip, deflate"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string("Content-Encoding", "gzip"))
+                                .andReturn();
+                MvcResult identity = mockMvc.perform(get("/api/restaurants/all").header("Accept-Encoding", "identity"))
+                                .andExpect(status().isOk()).andReturn();
+                MvcResult plain = mockMvc.perform(get("/api/restaurants/all"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                byte[] unzipped = new GZIPInputStream(new ByteArrayInputStream(
+                                gzipped.getResponse().getContentAsByteArray())).readAllBytes();
+                assertEquals(expectedJson, new String(unzipped, "UTF-8"));
+                assertTrue(gzipped.getResponse().getHeader("ETag").endsWith("-gzip\""));
+                assertNull(identity.getResponse().getHeader("Content-Encoding"));
+                assertEquals(expectedJson, identity.getResponse().getContentAsString());
+                assertEquals(expectedJson, plain.getResponse().getContentAsString());
+                verify(restaurantRepository, times(1)).findAll();
+        }
+
+        // Tests for /api/restaurants/batch
+
+        @Test
+        public void logged_out_users_cannot_get_a_batch() throws Exception {
+                mockMvc.perform(get("/api/restaurants/batch?ids=1,2"))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_a_batch_in_request_order_with_misses() throws Exception {
+
+                // arrange
+
+                Restaurant freebirds = Restaurant.builder().id(1L).name("Freebirds").description("Burritos").build();
+                Restaurant woodstocks = Restaurant.builder().id(2L).name("Woodstocks").description("Pizza").build();
+                when(restaurantRepository.findAllById(any())).thenReturn(List.of(freebirds, woodstocks));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/restaurants/batch?ids=2,3,1,2"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+
+                verify(restaurantRepository, times(1)).findAllById(eq(new LinkedHashSet<>(List.of(2L, 3L, 1L))));
+                EntityBatch<Restaurant> expected = EntityBatch.<Restaurant>builder()
+                                .items(List.of(woodstocks, freebirds))
+                                .missing(List.of(3L))
+                                .build();
+                assertEquals(mapper.writeValueAsString(expected), response.getResponse().getContentAsString());
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void batch_of_too_many_ids_is_rejected() throws Exception {
+
+                // act
+                String ids = IntStream.rangeClosed(1, 101).mapToObj(Integer::toString).collect(Collectors.joining(","));
+                mockMvc.perform(get("/api/restaurants/batch?ids=" + ids))
+                                .andExpect(status().isBadRequest());
+
+                // assert
+                verify(restaurantRepository, never()).findAllById(any());
+        }
 }
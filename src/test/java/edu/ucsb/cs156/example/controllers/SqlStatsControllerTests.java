@@ -0,0 +1,96 @@
+package edu.ucsb.cs156.example.controllers;
+
+import edu.ucsb.cs156.example.ControllerTestCase;
+import edu.ucsb.cs156.example.models.SqlStats;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.QueryInstrumentationService;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = SqlStatsController.class)
+public class SqlStatsControllerTests extends ControllerTestCase {
+
+  @MockBean
+  UserRepository userRepository;
+
+  @MockBean
+  QueryInstrumentationService queryInstrumentation;
+
+  private final SqlStats stats = SqlStats.builder()
+      .enabled(true)
+      .slowQueryThresholdMillis(500)
+      .repeatedStatementThreshold(5)
+      .statements(List.of())
+      .slowQueries(List.of())
+      .suspectedNPlusOne(Map.of())
+      .build();
+
+  @Test
+  public void logged_out_users_cannot_get_stats() throws Exception {
+    mockMvc.perform(get("/api/admin/sql"))
+        .andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void regular_users_cannot_get_stats() throws Exception {
+    mockMvc.perform(get("/api/admin/sql"))
+        .andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void regular_users_cannot_toggle_instrumentation() throws Exception {
+    mockMvc.perform(put("/api/admin/sql?enabled=false").with(csrf()))
+        .andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void admin_can_get_stats() throws Exception {
+    when(queryInstrumentation.getStats()).thenReturn(stats);
+
+    MvcResult response = mockMvc.perform(get("/api/admin/sql"))
+        .andExpect(status().isOk()).andReturn();
+
+    assertEquals(mapper.writeValueAsString(stats), response.getResponse().getContentAsString());
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void admin_can_toggle_instrumentation() throws Exception {
+    when(queryInstrumentation.getStats()).thenReturn(stats);
+
+    MvcResult response = mockMvc.perform(put("/api/admin/sql?enabled=false").with(csrf()))
+        .andExpect(status().isOk()).andReturn();
+
+    verify(queryInstrumentation, times(1)).setEnabled(false);
+    assertEquals(mapper.writeValueAsString(stats), response.getResponse().getContentAsString());
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void admin_can_reset_stats() throws Exception {
+    MvcResult response = mockMvc.perform(delete("/api/admin/sql").with(csrf()))
+        .andExpect(status().isOk()).andReturn();
+
+    verify(queryInstrumentation, times(1)).reset();
+    Map<String, Object> json = responseToJson(response);
+    assertEquals("SQL statistics cleared", json.get("message"));
+  }
+}
@@ -12,6 +12,7 @@ import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MvcResult;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -49,4 +50,51 @@ public class SystemInfoControllerTests extends ControllerTestCase {
     String responseString = response.getResponse().getContentAsString();
     assertEquals(expectedJson, responseString);
   }
+
+  @Test
+  public void systemInfo_is_served_with_a_strong_etag_and_long_max_age() throws Exception {
+
+    // arrange
+
+    SystemInfo systemInfo = SystemInfo
+        .builder()
+        .showSwaggerUILink(false)
+        .springH2ConsoleEnabled(false)
+        .oauthLogin("/oauth2/authorization/google")
+        .build();
+    when(mockSystemInfoService.getSystemInfo()).thenReturn(systemInfo);
+
+    // act
+    MvcResult response = mockMvc.perform(get("/api/systemInfo"))
+        .andExpect(status().isOk())
+        .andExpect(header().string("Cache-Control", "max-age=3600, public"))
+        .andReturn();
+    String etag = response.getResponse().getHeader("ETag");
+
+    // assert
+    assertEquals('"', etag.charAt(0));
+    mockMvc.perform(get("/api/systemInfo").header("If-None-Match", etag))
+        .andExpect(status().isNotModified())
+        .andExpect(header().string("ETag", etag));
+  }
+
+  @Test
+  public void systemInfo_is_serialized_again_after_a_refresh() throws Exception {
+
+    // arrange
+
+    SystemInfo before = SystemInfo.builder().showSwaggerUILink(false).build();
+    SystemInfo after = SystemInfo.builder().showSwaggerUILink(true).build();
+    when(mockSystemInfoService.getSystemInfo()).thenReturn(before, before, after);
+
+    // act
+    MvcResult first = mockMvc.perform(get("/api/systemInfo")).andExpect(status().isOk()).andReturn();
+    MvcResult second = mockMvc.perform(get("/api/systemInfo")).andExpect(status().isOk()).andReturn();
+    MvcResult third = mockMvc.perform(get("/api/systemInfo")).andExpect(status().isOk()).andReturn();
+
+    // assert
+    assertEquals(first.getResponse().getHeader("ETag"), second.getResponse().getHeader("ETag"));
+    assertNotEquals(first.getResponse().getHeader("ETag"), third.getResponse().getHeader("ETag"));
+    assertEquals(mapper.writeValueAsString(after), third.getResponse().getContentAsString());
+  }
 }
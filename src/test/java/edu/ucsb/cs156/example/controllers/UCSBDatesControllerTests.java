@@ -4,17 +4,29 @@ import edu.ucsb.cs156.example.repositories.UserRepository;
 import edu.ucsb.cs156.example.testconfig.TestConfig;
 import edu.ucsb.cs156.example.ControllerTestCase;
 import edu.ucsb.cs156.example.entities.UCSBDate;
+import edu.ucsb.cs156.example.models.EntityBatch;
+import edu.ucsb.cs156.example.models.EntityChangeEvent;
+import edu.ucsb.cs156.example.models.EntityChangeEvent.ChangeType;
+import edu.ucsb.cs156.example.entities.Tombstone;
 import edu.ucsb.cs156.example.repositories.UCSBDateRepository;
+import edu.ucsb.cs156.example.repositories.TombstoneRepository;
+import edu.ucsb.cs156.example.services.CollectionSnapshotService;
 
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.util.List;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Map;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
 import org.springframework.test.web.servlet.MvcResult;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -28,20 +40,31 @@ import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @WebMvcTest(controllers = UCSBDatesController.class)
 @Import(TestConfig.class)
+@RecordApplicationEvents
 public class UCSBDatesControllerTests extends ControllerTestCase {
 
+        @Autowired
+        ApplicationEvents applicationEvents;
+
         @MockBean
         UCSBDateRepository ucsbDateRepository;
 
         @MockBean
         UserRepository userRepository;
 
+        @MockBean
+        TombstoneRepository tombstoneRepository;
+
+        @MockBean
+        CollectionSnapshotService collectionSnapshotService;
+
         // Authorization tests for /api/ucsbdates/admin/all
 
         @Test
@@ -189,6 +212,10 @@ public class UCSBDatesControllerTests extends ControllerTestCase {
 
                 // assert
                 verify(ucsbDateRepository, times(1)).save(ucsbDate1);
+                EntityChangeEvent event = applicationEvents.stream(EntityChangeEvent.class).findFirst().get();
+                assertEquals("UCSBDate", event.getEntityType());
+                assertEquals(ChangeType.CREATED, event.getChangeType());
+                assertEquals(ucsbDate1, event.getEntity());
                 String expectedJson = mapper.writeValueAsString(ucsbDate1);
                 String responseString = response.getResponse().getContentAsString();
                 assertEquals(expectedJson, responseString);
@@ -218,6 +245,10 @@ public class UCSBDatesControllerTests extends ControllerTestCase {
                 // assert
                 verify(ucsbDateRepository, times(1)).findById(15L);
                 verify(ucsbDateRepository, times(1)).delete(any());
+                EntityChangeEvent event = applicationEvents.stream(EntityChangeEvent.class).findFirst().get();
+                assertEquals("UCSBDate", event.getEntityType());
+                assertEquals(ChangeType.DELETED, event.getChangeType());
+                assertEquals(15L, event.getId());
 
                 Map<String, Object> json = responseToJson(response);
                 assertEquals("UCSBDate with id 15 deleted", json.get("message"));
@@ -279,6 +310,10 @@ public class UCSBDatesControllerTests extends ControllerTestCase {
                 // assert
                 verify(ucsbDateRepository, times(1)).findById(67L);
                 verify(ucsbDateRepository, times(1)).save(ucsbDateEdited); // should be saved with correct user
+                EntityChangeEvent event = applicationEvents.stream(EntityChangeEvent.class).findFirst().get();
+                assertEquals("UCSBDate", event.getEntityType());
+                assertEquals(ChangeType.UPDATED, event.getChangeType());
+                assertEquals(ucsbDateEdited, event.getEntity());
                 String responseString = response.getResponse().getContentAsString();
                 assertEquals(requestBody, responseString);
         }
@@ -315,4 +350,99 @@ public class UCSBDatesControllerTests extends ControllerTestCase {
                 assertEquals("UCSBDate with id 67 not found", json.get("message"));
 
         }
+
+        // Tests for /api/ucsbdates/changes
+
+        @Test
+        public void logged_out_users_cannot_get_changes() throws Exception {
+                mockMvc.perform(get("/api/ucsbdates/changes?since=2024-10-01T00:00:00"))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_changes_since_a_watermark() throws Exception {
+
+                // arrange
+
+                LocalDateTime since = LocalDateTime.now().minusDays(1).withNano(0);
+
+                UCSBDate updated = UCSBDate.builder()
+                                .quarterYYYYQ("20222")
+                                .name("firstDayOfClasses")
+                                .localDateTime(LocalDateTime.parse("2022-01-03T00:00:00"))
+                                .build();
+
+                Tombstone tombstone = Tombstone.builder()
+                                .entityType("UCSBDate")
+                                .entityId("2")
+                                .deletedAt(since.plusHours(1))
+                                .build();
+
+                when(ucsbDateRepository.findAllByUpdatedAtAfter(eq(since))).thenReturn(Arrays.asList(updated));
+                when(tombstoneRepository.findAllByEntityTypeAndDeletedAtAfter(eq("UCSBDate"), eq(since)))
+                                .thenReturn(Arrays.asList(tombstone));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/ucsbdates/changes?since=" + since))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+
+                verify(ucsbDateRepository, times(1)).findAllByUpdatedAtAfter(since);
+                Map<String, Object> json = responseToJson(response);
+                assertEquals(mapper.writeValueAsString(Arrays.asList(updated)), mapper.writeValueAsString(json.get("updated")));
+                assertEquals(Arrays.asList("2"), json.get("deleted"));
+        }
+
+        // Tests for snapshot mode
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void get_all_is_served_from_the_snapshot_when_there_is_one() throws Exception {
+
+                // arrange
+
+                when(collectionSnapshotService.serve(eq("UCSBDate"), any(), any())).thenAnswer(invocation -> {
+                        HttpServletResponse response = invocation.getArgument(2);
+                        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                        response.getWriter().write("[]");
+                        return true;
+                });
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/ucsbdates/all"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+
+                verify(ucsbDateRepository, never()).findAll();
+                assertEquals("[]", response.getResponse().getContentAsString());
+        }
+
+        // Tests for /api/ucsbdates/batch
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_a_batch_of_dates() throws Exception {
+
+                // arrange
+
+                UCSBDate noon = UCSBDate.builder().id(4L).quarterYYYYQ("20222").name("noon on June 4th")
+                                .localDateTime(LocalDateTime.parse("2022-06-04T12:00:00")).build();
+                when(ucsbDateRepository.findAllById(any())).thenReturn(List.of(noon));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/ucsbdates/batch?ids=5,4"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+
+                verify(ucsbDateRepository, times(1)).findAllById(any());
+                EntityBatch<UCSBDate> expected = EntityBatch.<UCSBDate>builder()
+                                .items(List.of(noon))
+                                .missing(List.of(5L))
+                                .build();
+                assertEquals(mapper.writeValueAsString(expected), response.getResponse().getContentAsString());
+        }
 }
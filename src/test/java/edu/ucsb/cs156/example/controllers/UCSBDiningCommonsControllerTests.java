@@ -4,17 +4,28 @@ import edu.ucsb.cs156.example.repositories.UserRepository;
 import edu.ucsb.cs156.example.testconfig.TestConfig;
 import edu.ucsb.cs156.example.ControllerTestCase;
 import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
+import edu.ucsb.cs156.example.models.EntityBatch;
+import edu.ucsb.cs156.example.models.EntityChangeEvent;
+import edu.ucsb.cs156.example.models.EntityChangeEvent.ChangeType;
+import edu.ucsb.cs156.example.entities.Tombstone;
+import edu.ucsb.cs156.example.repositories.BatchUpsert;
 import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsRepository;
+import edu.ucsb.cs156.example.repositories.TombstoneRepository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Map;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
 import org.springframework.test.web.servlet.MvcResult;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -26,20 +37,28 @@ import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @WebMvcTest(controllers = UCSBDiningCommonsController.class)
 @Import(TestConfig.class)
+@RecordApplicationEvents
 public class UCSBDiningCommonsControllerTests extends ControllerTestCase {
 
+        @Autowired
+        ApplicationEvents applicationEvents;
+
         @MockBean
         UCSBDiningCommonsRepository ucsbDiningCommonsRepository;
 
         @MockBean
         UserRepository userRepository;
 
+        @MockBean
+        TombstoneRepository tombstoneRepository;
+
         // Authorization tests for /api/ucsbdiningcommons/admin/all
 
         @Test
@@ -197,6 +216,10 @@ public class UCSBDiningCommonsControllerTests extends ControllerTestCase {
 
                 // assert
                 verify(ucsbDiningCommonsRepository, times(1)).save(ortega);
+                EntityChangeEvent event = applicationEvents.stream(EntityChangeEvent.class).findFirst().get();
+                assertEquals("UCSBDiningCommons", event.getEntityType());
+                assertEquals(ChangeType.CREATED, event.getChangeType());
+                assertEquals(ortega, event.getEntity());
                 String expectedJson = mapper.writeValueAsString(ortega);
                 String responseString = response.getResponse().getContentAsString();
                 assertEquals(expectedJson, responseString);
@@ -228,6 +251,10 @@ public class UCSBDiningCommonsControllerTests extends ControllerTestCase {
                 // assert
                 verify(ucsbDiningCommonsRepository, times(1)).findById("portola");
                 verify(ucsbDiningCommonsRepository, times(1)).delete(any());
+                EntityChangeEvent event = applicationEvents.stream(EntityChangeEvent.class).findFirst().get();
+                assertEquals("UCSBDiningCommons", event.getEntityType());
+                assertEquals(ChangeType.DELETED, event.getChangeType());
+                assertEquals("portola", event.getId());
 
                 Map<String, Object> json = responseToJson(response);
                 assertEquals("UCSBDiningCommons with id portola deleted", json.get("message"));
@@ -294,6 +321,10 @@ public class UCSBDiningCommonsControllerTests extends ControllerTestCase {
                 // assert
                 verify(ucsbDiningCommonsRepository, times(1)).findById("carrillo");
                 verify(ucsbDiningCommonsRepository, times(1)).save(carrilloEdited); // should be saved with updated info
+                EntityChangeEvent event = applicationEvents.stream(EntityChangeEvent.class).findFirst().get();
+                assertEquals("UCSBDiningCommons", event.getEntityType());
+                assertEquals(ChangeType.UPDATED, event.getChangeType());
+                assertEquals(carrilloEdited, event.getEntity());
                 String responseString = response.getResponse().getContentAsString();
                 assertEquals(requestBody, responseString);
         }
@@ -332,4 +363,155 @@ public class UCSBDiningCommonsControllerTests extends ControllerTestCase {
                 assertEquals("UCSBDiningCommons with id munger-hall not found", json.get("message"));
 
         }
+
+        // Tests for /api/ucsbdiningcommons/changes
+
+        @Test
+        public void logged_out_users_cannot_get_changes() throws Exception {
+                mockMvc.perform(get("/api/ucsbdiningcommons/changes?since=2024-10-01T00:00:00"))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_changes_since_a_watermark() throws Exception {
+
+                // arrange
+
+                LocalDateTime since = LocalDateTime.now().minusDays(1).withNano(0);
+
+                UCSBDiningCommons updated = UCSBDiningCommons.builder()
+                                .code("ortega")
+                                .name("Ortega")
+                                .hasSackMeal(true)
+                                .hasTakeOutMeal(true)
+                                .hasDiningCam(true)
+                                .latitude(34.410987)
+                                .longitude(-119.84709)
+                                .build();
+
+                Tombstone tombstone = Tombstone.builder()
+                                .entityType("UCSBDiningCommons")
+                                .entityId("carrillo")
+                                .deletedAt(since.plusHours(1))
+                                .build();
+
+                when(ucsbDiningCommonsRepository.findAllByUpdatedAtAfter(eq(since))).thenReturn(Arrays.asList(updated));
+                when(tombstoneRepository.findAllByEntityTypeAndDeletedAtAfter(eq("UCSBDiningCommons"), eq(since)))
+                                .thenReturn(Arrays.asList(tombstone));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/ucsbdiningcommons/changes?since=" + since))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+
+                verify(ucsbDiningCommonsRepository, times(1)).findAllByUpdatedAtAfter(since);
+                Map<String, Object> json = responseToJson(response);
+                assertEquals(mapper.writeValueAsString(Arrays.asList(updated)), mapper.writeValueAsString(json.get("updated")));
+                assertEquals(Arrays.asList("carrillo"), json.get("deleted"));
+        }
+
+        // Tests for /api/ucsbdiningcommons/batch
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_a_batch_of_commons() throws Exception {
+
+                // arrange
+
+                UCSBDiningCommons carrillo = UCSBDiningCommons.builder().name("Carrillo").code("carrillo")
+                                .hasSackMeal(false).hasTakeOutMeal(false).hasDiningCam(true)
+                                .latitude(34.409953).longitude(-119.85277).build();
+                when(ucsbDiningCommonsRepository.findAllById(any())).thenReturn(List.of(carrillo));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/ucsbdiningcommons/batch?codes=carrillo,ortega"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+
+                verify(ucsbDiningCommonsRepository, times(1)).findAllById(any());
+                EntityBatch<UCSBDiningCommons> expected = EntityBatch.<UCSBDiningCommons>builder()
+                                .items(List.of(carrillo))
+                                .missing(List.of("ortega"))
+                                .build();
+                assertEquals(mapper.writeValueAsString(expected), response.getResponse().getContentAsString());
+        }
+
+        // Tests for PUT /api/ucsbdiningcommons/upsert
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_regular_users_cannot_upsert() throws Exception {
+                mockMvc.perform(put("/api/ucsbdiningcommons/upsert")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("[]")
+                                .with(csrf()))
+                                .andExpect(status().is(403)); // only admins can upsert
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_can_upsert_many_commons() throws Exception {
+                // arrange
+
+                UCSBDiningCommons carrillo = UCSBDiningCommons.builder().name("Carrillo").code("carrillo")
+                                .hasSackMeal(false).hasTakeOutMeal(false).hasDiningCam(true)
+                                .latitude(34.409953).longitude(-119.85277).build();
+                UCSBDiningCommons ortega = UCSBDiningCommons.builder().name("Ortega").code("ortega")
+                                .hasSackMeal(true).hasTakeOutMeal(true).hasDiningCam(true)
+                                .latitude(34.410987).longitude(-119.84709).build();
+                // the same code twice: only the later Ortega is written
+                UCSBDiningCommons ortegaAgain = UCSBDiningCommons.builder().name("Ortega Commons").code("ortega")
+                                .hasSackMeal(true).hasTakeOutMeal(true).hasDiningCam(true)
+                                .latitude(34.410987).longitude(-119.84709).build();
+                List<UCSBDiningCommons> commons = List.of(carrillo, ortega, ortegaAgain);
+                when(ucsbDiningCommonsRepository.upsertAll(eq(commons))).thenReturn(
+                                new BatchUpsert.Result<>(Map.of("carrillo", carrillo), Map.of("ortega", ortegaAgain), 0));
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                put("/api/ucsbdiningcommons/upsert")
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .characterEncoding("utf-8")
+                                                .content(mapper.writeValueAsString(commons))
+                                                .with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(ucsbDiningCommonsRepository, times(1)).upsertAll(commons);
+                List<EntityChangeEvent> events = applicationEvents.stream(EntityChangeEvent.class).toList();
+                assertEquals(2, events.size());
+                assertEquals(ChangeType.CREATED, events.get(0).getChangeType());
+                assertEquals("carrillo", events.get(0).getId());
+                assertEquals(carrillo, events.get(0).getEntity());
+                assertEquals(ChangeType.UPDATED, events.get(1).getChangeType());
+                assertEquals("ortega", events.get(1).getId());
+                assertEquals(ortegaAgain, events.get(1).getEntity());
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("1 UCSBDiningCommons created, 1 updated, 0 unchanged", json.get("message"));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void upsert_rejects_commons_without_a_code() throws Exception {
+
+                // act
+                mockMvc.perform(put("/api/ucsbdiningcommons/upsert")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("[{\"code\":\"ortega\",\"name\":\"Ortega\"},{\"code\":\" \",\"name\":\"Blank\"}]")
+                                .with(csrf()))
+                                .andExpect(status().isBadRequest())
+                                .andExpect(status().reason("UCSBDiningCommons 1 has no code"));
+                mockMvc.perform(put("/api/ucsbdiningcommons/upsert")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("[null]")
+                                .with(csrf()))
+                                .andExpect(status().isBadRequest())
+                                .andExpect(status().reason("UCSBDiningCommons 0 has no code"));
+
+                // assert
+                verify(ucsbDiningCommonsRepository, never()).upsertAll(any());
+        }
 }
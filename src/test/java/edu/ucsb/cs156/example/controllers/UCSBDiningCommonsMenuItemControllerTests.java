@@ -4,19 +4,34 @@ import edu.ucsb.cs156.example.repositories.UserRepository;
 import edu.ucsb.cs156.example.testconfig.TestConfig;
 import edu.ucsb.cs156.example.ControllerTestCase;
 import edu.ucsb.cs156.example.entities.UCSBDiningCommonsMenuItem;
+import edu.ucsb.cs156.example.models.EntityBatch;
+import edu.ucsb.cs156.example.models.EntityChangeEvent;
+import edu.ucsb.cs156.example.models.EntityChangeEvent.ChangeType;
+import edu.ucsb.cs156.example.entities.Tombstone;
 import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsMenuItemRepository;
+import edu.ucsb.cs156.example.repositories.TombstoneRepository;
+import edu.ucsb.cs156.example.services.MenuItemStoreService;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Map;
 import java.util.Optional;
 
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
 import org.springframework.test.web.servlet.MvcResult;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -26,21 +41,33 @@ import static org.springframework.security.test.web.servlet.request.SecurityMock
 
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @WebMvcTest(controllers = UCSBDiningCommonsMenuItemController.class)
 @Import(TestConfig.class)
+@RecordApplicationEvents
 public class UCSBDiningCommonsMenuItemControllerTests extends ControllerTestCase {
 
+        @Autowired
+        ApplicationEvents applicationEvents;
+
         @MockBean
         UCSBDiningCommonsMenuItemRepository ucsbDiningCommonsMenuItemRepository;
 
         @MockBean
         UserRepository userRepository;
 
+        @MockBean
+        TombstoneRepository tombstoneRepository;
+
+        @MockBean
+        MenuItemStoreService menuItemStore;
+
         // Authorization tests for /api/ucsbdiningcommonsmenuitem/admin/all
 
         @Test
@@ -128,6 +155,11 @@ public class UCSBDiningCommonsMenuItemControllerTests extends ControllerTestCase
 
                 // assert
                 verify(ucsbDiningCommonsMenuItemRepository, times(1)).save(UCSBDiningCommonsMenuItem1);
+                verify(menuItemStore, times(1)).put(UCSBDiningCommonsMenuItem1);
+                EntityChangeEvent event = applicationEvents.stream(EntityChangeEvent.class).findFirst().get();
+                assertEquals("UCSBDiningCommonsMenuItem", event.getEntityType());
+                assertEquals(ChangeType.CREATED, event.getChangeType());
+                assertEquals(UCSBDiningCommonsMenuItem1, event.getEntity());
                 String expectedJson = mapper.writeValueAsString(UCSBDiningCommonsMenuItem1);
                 String responseString = response.getResponse().getContentAsString();
                 assertEquals(expectedJson, responseString);
@@ -187,4 +219,154 @@ public class UCSBDiningCommonsMenuItemControllerTests extends ControllerTestCase
                 assertEquals("UCSBDiningCommonsMenuItem with id 7 not found", json.get("message"));
         }
 
+        // Tests for binary content negotiation (CBOR and Smile)
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_all_as_cbor_or_smile() throws Exception {
+
+                // arrange
+
+                UCSBDiningCommonsMenuItem item = UCSBDiningCommonsMenuItem.builder()
+                                .id(1L)
+                                .diningCommonsCode("ortega")
+                                .name("Baked Pesto Pasta with Chicken")
+                                .station("Entree Specials")
+                                .build();
+
+                when(ucsbDiningCommonsMenuItemRepository.findAll()).thenReturn(Arrays.asList(item));
+
+                for (ObjectMapper binaryMapper : new ObjectMapper[] { new CBORMapper(), new SmileMapper() }) {
+                        MediaType mediaType = binaryMapper instanceof CBORMapper
+                                        ? MediaType.APPLICATION_CBOR
+                                        : MediaType.parseMediaType("application/x-jackson-smile");
+
+                        // act
+                        MvcResult response = mockMvc.perform(get("/api/ucsbdiningcommonsmenuitem/all").accept(mediaType))
+                                        .andExpect(status().isOk())
+                                        .andExpect(content().contentTypeCompatibleWith(mediaType))
+                                        .andReturn();
+
+                        // assert
+                        // read the expected tree back from JSON, so the small id is an int node as it is in the response
+                        assertEquals(mapper.readTree(mapper.writeValueAsString(Arrays.asList(item))),
+                                        binaryMapper.readTree(response.getResponse().getContentAsByteArray()));
+                }
+        }
+
+        // Tests for /api/ucsbdiningcommonsmenuitem/changes
+
+        @Test
+        public void logged_out_users_cannot_get_changes() throws Exception {
+                mockMvc.perform(get("/api/ucsbdiningcommonsmenuitem/changes?since=2024-10-01T00:00:00"))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_changes_since_a_watermark() throws Exception {
+
+                // arrange
+
+                LocalDateTime since = LocalDateTime.now().minusDays(1).withNano(0);
+
+                UCSBDiningCommonsMenuItem updated = UCSBDiningCommonsMenuItem.builder()
+                                .diningCommonsCode("ortega")
+                                .name("Baked Pesto Pasta with Chicken")
+                                .station("Entree Specials")
+                                .build();
+
+                Tombstone tombstone = Tombstone.builder()
+                                .entityType("UCSBDiningCommonsMenuItem")
+                                .entityId("2")
+                                .deletedAt(since.plusHours(1))
+                                .build();
+
+                when(ucsbDiningCommonsMenuItemRepository.findAllByUpdatedAtAfter(eq(since))).thenReturn(Arrays.asList(updated));
+                when(tombstoneRepository.findAllByEntityTypeAndDeletedAtAfter(eq("UCSBDiningCommonsMenuItem"), eq(since)))
+                                .thenReturn(Arrays.asList(tombstone));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/ucsbdiningcommonsmenuitem/changes?since=" + since))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+
+                verify(ucsbDiningCommonsMenuItemRepository, times(1)).findAllByUpdatedAtAfter(since);
+                Map<String, Object> json = responseToJson(response);
+                assertEquals(mapper.writeValueAsString(Arrays.asList(updated)), mapper.writeValueAsString(json.get("updated")));
+                assertEquals(Arrays.asList("2"), json.get("deleted"));
+        }
+
+        // Tests for the in-memory menu item store
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void get_all_and_get_by_id_come_from_the_store_when_it_is_serving() throws Exception {
+
+                // arrange
+
+                UCSBDiningCommonsMenuItem item = UCSBDiningCommonsMenuItem.builder()
+                                .id(7L)
+                                .diningCommonsCode("ortega")
+                                .name("Baked Pesto Pasta with Chicken")
+                                .station("Entree Specials")
+                                .build();
+
+                when(menuItemStore.isServing()).thenReturn(true);
+                when(menuItemStore.findAll()).thenReturn(Arrays.asList(item));
+                when(menuItemStore.findById(eq(7L))).thenReturn(Optional.of(item));
+                when(menuItemStore.findById(eq(8L))).thenReturn(Optional.empty());
+
+                // act
+                MvcResult all = mockMvc.perform(get("/api/ucsbdiningcommonsmenuitem/all"))
+                                .andExpect(status().isOk()).andReturn();
+                MvcResult one = mockMvc.perform(get("/api/ucsbdiningcommonsmenuitem?id=7"))
+                                .andExpect(status().isOk()).andReturn();
+                mockMvc.perform(get("/api/ucsbdiningcommonsmenuitem?id=8"))
+                                .andExpect(status().isNotFound());
+
+                // assert
+
+                verify(ucsbDiningCommonsMenuItemRepository, never()).findAll();
+                verify(ucsbDiningCommonsMenuItemRepository, never()).findById(any());
+                assertEquals(mapper.writeValueAsString(Arrays.asList(item)), all.getResponse().getContentAsString());
+                assertEquals(mapper.writeValueAsString(item), one.getResponse().getContentAsString());
+        }
+
+        // Tests for /api/ucsbdiningcommonsmenuitem/batch
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_a_batch_of_menu_items_from_the_database_or_the_store() throws Exception {
+
+                // arrange
+
+                UCSBDiningCommonsMenuItem item = UCSBDiningCommonsMenuItem.builder()
+                                .id(7L)
+                                .diningCommonsCode("ortega")
+                                .name("Baked Pesto Pasta with Chicken")
+                                .station("Entree Specials")
+                                .build();
+                when(ucsbDiningCommonsMenuItemRepository.findAllById(any())).thenReturn(List.of(item));
+                when(menuItemStore.findAllById(any())).thenReturn(List.of(item));
+                String expected = mapper.writeValueAsString(EntityBatch.<UCSBDiningCommonsMenuItem>builder()
+                                .items(List.of(item))
+                                .missing(List.of(8L))
+                                .build());
+
+                // act
+                MvcResult fromDatabase = mockMvc.perform(get("/api/ucsbdiningcommonsmenuitem/batch?ids=8,7"))
+                                .andExpect(status().isOk()).andReturn();
+                when(menuItemStore.isServing()).thenReturn(true);
+                MvcResult fromStore = mockMvc.perform(get("/api/ucsbdiningcommonsmenuitem/batch?ids=8,7"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+
+                verify(ucsbDiningCommonsMenuItemRepository, times(1)).findAllById(any());
+                verify(menuItemStore, times(1)).findAllById(any());
+                assertEquals(expected, fromDatabase.getResponse().getContentAsString());
+                assertEquals(expected, fromStore.getResponse().getContentAsString());
+        }
 }
@@ -4,17 +4,27 @@ import edu.ucsb.cs156.example.repositories.UserRepository;
 import edu.ucsb.cs156.example.testconfig.TestConfig;
 import edu.ucsb.cs156.example.ControllerTestCase;
 import edu.ucsb.cs156.example.entities.UCSBOrganization;
+import edu.ucsb.cs156.example.models.EntityBatch;
+import edu.ucsb.cs156.example.models.EntityChangeEvent;
+import edu.ucsb.cs156.example.models.EntityChangeEvent.ChangeType;
+import edu.ucsb.cs156.example.entities.Tombstone;
+import edu.ucsb.cs156.example.repositories.BatchUpsert;
 import edu.ucsb.cs156.example.repositories.UCSBOrganizationRepository;
+import edu.ucsb.cs156.example.repositories.TombstoneRepository;
 
+import java.util.List;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Map;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
 import org.springframework.test.web.servlet.MvcResult;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -28,20 +38,28 @@ import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @WebMvcTest(controllers = UCSBOrganizationController.class)
 @Import(TestConfig.class)
+@RecordApplicationEvents
 public class UCSBOrganizationControllerTests extends ControllerTestCase {
 
+        @Autowired
+        ApplicationEvents applicationEvents;
+
         @MockBean
         UCSBOrganizationRepository ucsbOrganizationRepository;
 
         @MockBean
         UserRepository userRepository;
 
+        @MockBean
+        TombstoneRepository tombstoneRepository;
+
         // Tests for GET /api/ucsborganization/all
 
         @Test
@@ -132,6 +150,10 @@ public class UCSBOrganizationControllerTests extends ControllerTestCase {
 
                 // assert
                 verify(ucsbOrganizationRepository, times(1)).save(muDelta);
+                EntityChangeEvent event = applicationEvents.stream(EntityChangeEvent.class).findFirst().get();
+                assertEquals("UCSBOrganization", event.getEntityType());
+                assertEquals(ChangeType.CREATED, event.getChangeType());
+                assertEquals(muDelta, event.getEntity());
                 String expectedJson = mapper.writeValueAsString(muDelta);
                 String responseString = response.getResponse().getContentAsString();
                 assertEquals(expectedJson, responseString);
@@ -224,6 +246,10 @@ public class UCSBOrganizationControllerTests extends ControllerTestCase {
                 // assert
                 verify(ucsbOrganizationRepository, times(1)).findById("MD");
                 verify(ucsbOrganizationRepository, times(1)).save(muDeltaEdit); // should be saved with updated info
+                EntityChangeEvent event = applicationEvents.stream(EntityChangeEvent.class).findFirst().get();
+                assertEquals("UCSBOrganization", event.getEntityType());
+                assertEquals(ChangeType.UPDATED, event.getChangeType());
+                assertEquals(muDeltaEdit, event.getEntity());
                 String responseString = response.getResponse().getContentAsString();
                 assertEquals(requestBody, responseString);
         }
@@ -283,6 +309,10 @@ public class UCSBOrganizationControllerTests extends ControllerTestCase {
                 // assert
                 verify(ucsbOrganizationRepository, times(1)).findById("MD");
                 verify(ucsbOrganizationRepository, times(1)).delete(any());
+                EntityChangeEvent event = applicationEvents.stream(EntityChangeEvent.class).findFirst().get();
+                assertEquals("UCSBOrganization", event.getEntityType());
+                assertEquals(ChangeType.DELETED, event.getChangeType());
+                assertEquals("MD", event.getId());
 
                 Map<String, Object> json = responseToJson(response);
                 assertEquals("UCSBOrganization with id MD deleted", json.get("message"));
@@ -306,4 +336,144 @@ public class UCSBOrganizationControllerTests extends ControllerTestCase {
                 Map<String, Object> json = responseToJson(response);
                 assertEquals("UCSBOrganization with id munger-hall not found", json.get("message"));
         }
-}
\ No newline at end of file
+
+        // Tests for /api/ucsborganization/changes
+
+        @Test
+        public void logged_out_users_cannot_get_changes() throws Exception {
+                mockMvc.perform(get("/api/ucsborganization/changes?since=2024-10-01T00:00:00"))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_changes_since_a_watermark() throws Exception {
+
+                // arrange
+
+                LocalDateTime since = LocalDateTime.now().minusDays(1).withNano(0);
+
+                UCSBOrganization updated = UCSBOrganization.builder()
+                                .orgCode("ZPR")
+                                .orgTranslationShort("ZETA PHI RHO")
+                                .orgTranslation("ZETA PHI RHO")
+                                .inactive(false)
+                                .build();
+
+                Tombstone tombstone = Tombstone.builder()
+                                .entityType("UCSBOrganization")
+                                .entityId("SKY")
+                                .deletedAt(since.plusHours(1))
+                                .build();
+
+                when(ucsbOrganizationRepository.findAllByUpdatedAtAfter(eq(since))).thenReturn(Arrays.asList(updated));
+                when(tombstoneRepository.findAllByEntityTypeAndDeletedAtAfter(eq("UCSBOrganization"), eq(since)))
+                                .thenReturn(Arrays.asList(tombstone));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/ucsborganization/changes?since=" + since))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+
+                verify(ucsbOrganizationRepository, times(1)).findAllByUpdatedAtAfter(since);
+                Map<String, Object> json = responseToJson(response);
+                assertEquals(mapper.writeValueAsString(Arrays.asList(updated)), mapper.writeValueAsString(json.get("updated")));
+                assertEquals(Arrays.asList("SKY"), json.get("deleted"));
+        }
+
+        // Tests for /api/ucsborganization/batch
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_a_batch_of_organizations() throws Exception {
+
+                // arrange
+
+                UCSBOrganization muDelta = UCSBOrganization.builder().orgCode("MD").orgTranslationShort("Mu Delta")
+                                .orgTranslation("Mu Delta").inactive(true).build();
+                UCSBOrganization thetaTau = UCSBOrganization.builder().orgCode("TT").orgTranslationShort("Theta Tau")
+                                .orgTranslation("Theta Tau").inactive(false).build();
+                when(ucsbOrganizationRepository.findAllById(any())).thenReturn(List.of(muDelta, thetaTau));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/ucsborganization/batch?orgCodes=TT,ZZ,MD"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+
+                verify(ucsbOrganizationRepository, times(1)).findAllById(any());
+                EntityBatch<UCSBOrganization> expected = EntityBatch.<UCSBOrganization>builder()
+                                .items(List.of(thetaTau, muDelta))
+                                .missing(List.of("ZZ"))
+                                .build();
+                assertEquals(mapper.writeValueAsString(expected), response.getResponse().getContentAsString());
+        }
+
+        // Tests for PUT /api/ucsborganization/upsert
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_regular_users_cannot_upsert() throws Exception {
+                mockMvc.perform(put("/api/ucsborganization/upsert")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("[]")
+                                .with(csrf()))
+                                .andExpect(status().is(403)); // only admins can upsert
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_can_upsert_many_organizations() throws Exception {
+                // arrange
+
+                UCSBOrganization muDelta = UCSBOrganization.builder().orgCode("MD").orgTranslationShort("Mu Delta")
+                                .orgTranslation("Mu Delta").inactive(true).build();
+                UCSBOrganization thetaTau = UCSBOrganization.builder().orgCode("TT").orgTranslationShort("Theta Tau")
+                                .orgTranslation("Theta Tau").inactive(false).build();
+                UCSBOrganization sky = UCSBOrganization.builder().orgCode("SKY").orgTranslationShort("Skydiving")
+                                .orgTranslation("Skydiving Club").inactive(false).build();
+                List<UCSBOrganization> organizations = List.of(muDelta, thetaTau, sky);
+                // Mu Delta is new, Theta Tau changed, and Skydiving already held these values
+                when(ucsbOrganizationRepository.upsertAll(eq(organizations))).thenReturn(
+                                new BatchUpsert.Result<>(Map.of("MD", muDelta), Map.of("TT", thetaTau), 1));
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                put("/api/ucsborganization/upsert")
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .characterEncoding("utf-8")
+                                                .content(mapper.writeValueAsString(organizations))
+                                                .with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(ucsbOrganizationRepository, times(1)).upsertAll(organizations);
+                List<EntityChangeEvent> events = applicationEvents.stream(EntityChangeEvent.class).toList();
+                assertEquals(2, events.size());
+                assertEquals(ChangeType.CREATED, events.get(0).getChangeType());
+                assertEquals("MD", events.get(0).getId());
+                assertEquals(muDelta, events.get(0).getEntity());
+                assertEquals(ChangeType.UPDATED, events.get(1).getChangeType());
+                assertEquals("TT", events.get(1).getId());
+                assertEquals(thetaTau, events.get(1).getEntity());
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("1 UCSBOrganization created, 1 updated, 1 unchanged", json.get("message"));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void upsert_rejects_organizations_without_an_org_code() throws Exception {
+
+                // act
+                mockMvc.perform(put("/api/ucsborganization/upsert")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("[{\"orgTranslationShort\":\"Skydiving\"}]")
+                                .with(csrf()))
+                                .andExpect(status().isBadRequest())
+                                .andExpect(status().reason("UCSBOrganization 0 has no orgCode"));
+
+                // assert
+                verify(ucsbOrganizationRepository, never()).upsertAll(any());
+        }
+}
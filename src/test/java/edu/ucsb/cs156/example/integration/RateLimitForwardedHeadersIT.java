@@ -0,0 +1,70 @@
+package edu.ucsb.cs156.example.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.testconfig.TestConfig;
+
+/**
+ * Runs behind a real Tomcat, because X-Forwarded-For is applied by Tomcat's RemoteIpValve
+ * (server.forward-headers-strategy=native, as in the production profile) and MockMvc never sees it.
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "server.forward-headers-strategy=native",
+    "app.ratelimit.enabled=true",
+    "app.ratelimit.capacity=2",
+    "app.ratelimit.refillPerSecond=0.01"
+})
+@ActiveProfiles("integration")
+@Import(TestConfig.class)
+@DirtiesContext(classMode = ClassMode.BEFORE_EACH_TEST_METHOD)
+public class RateLimitForwardedHeadersIT {
+
+        @Autowired
+        TestRestTemplate restTemplate;
+
+        @MockBean
+        UserRepository userRepository;
+
+        @BeforeEach
+        public void doNotRetry() {
+                // Apache HttpClient retries a 429 once it has waited out Retry-After, which would hide the rejection
+                restTemplate.getRestTemplate().setRequestFactory(new SimpleClientHttpRequestFactory());
+        }
+
+        private HttpStatus getSystemInfoFrom(String forwardedFor) {
+                HttpHeaders headers = new HttpHeaders();
+                headers.set("X-Forwarded-For", forwardedFor);
+                return HttpStatus.valueOf(restTemplate.exchange("/api/systemInfo", HttpMethod.GET,
+                                new HttpEntity<>(headers), String.class).getStatusCode().value());
+        }
+
+        @Test
+        public void anonymous_clients_behind_the_proxy_get_their_own_buckets() {
+                assertEquals(HttpStatus.OK, getSystemInfoFrom("203.0.113.5"));
+                assertEquals(HttpStatus.OK, getSystemInfoFrom("203.0.113.5"));
+                assertEquals(HttpStatus.TOO_MANY_REQUESTS, getSystemInfoFrom("203.0.113.5"));
+
+                // same proxy connection, different client
+                assertEquals(HttpStatus.OK, getSystemInfoFrom("198.51.100.7"));
+        }
+}
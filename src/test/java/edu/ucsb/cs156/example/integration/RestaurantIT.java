@@ -1,6 +1,7 @@
 package edu.ucsb.cs156.example.integration;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static edu.ucsb.cs156.example.testconfig.SqlStatementBudget.withinSqlBudget;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -69,7 +70,8 @@ public class RestaurantIT {
 
                 // act
                 MvcResult response = mockMvc.perform(get("/api/restaurants?id=1"))
-                                .andExpect(status().isOk()).andReturn();
+                                .andExpect(status().isOk())
+                                .andExpect(withinSqlBudget()).andReturn();
 
                 // assert
                 String expectedJson = mapper.writeValueAsString(restaurant);
@@ -92,7 +94,8 @@ public class RestaurantIT {
                 MvcResult response = mockMvc.perform(
                                 post("/api/restaurants/post?name=Chipotle&description=Mexican")
                                                 .with(csrf()))
-                                .andExpect(status().isOk()).andReturn();
+                                .andExpect(status().isOk())
+                                .andExpect(withinSqlBudget()).andReturn();
 
                 // assert
                 String expectedJson = mapper.writeValueAsString(restaurant1);
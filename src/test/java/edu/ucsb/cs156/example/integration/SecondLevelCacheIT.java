@@ -0,0 +1,108 @@
+package edu.ucsb.cs156.example.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import edu.ucsb.cs156.example.entities.UCSBDate;
+import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
+import edu.ucsb.cs156.example.repositories.UCSBDateRepository;
+import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsRepository;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.HibernateStatisticsService;
+import edu.ucsb.cs156.example.testconfig.TestConfig;
+
+import java.time.LocalDateTime;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@ActiveProfiles("integration")
+@Import(TestConfig.class)
+@DirtiesContext(classMode = ClassMode.BEFORE_EACH_TEST_METHOD)
+public class SecondLevelCacheIT {
+
+        @Autowired
+        UCSBDiningCommonsRepository ucsbDiningCommonsRepository;
+
+        @Autowired
+        UCSBDateRepository ucsbDateRepository;
+
+        @Autowired
+        HibernateStatisticsService hibernateStatisticsService;
+
+        @Autowired
+        public MockMvc mockMvc;
+
+        @MockBean
+        UserRepository userRepository;
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void repeated_get_by_id_is_served_from_the_second_level_cache() throws Exception {
+                // arrange
+
+                ucsbDiningCommonsRepository.save(UCSBDiningCommons.builder()
+                                .code("ortega")
+                                .name("Ortega")
+                                .hasSackMeal(true)
+                                .hasTakeOutMeal(true)
+                                .hasDiningCam(true)
+                                .latitude(34.410987)
+                                .longitude(-119.84709)
+                                .build());
+                Statistics statistics = hibernateStatisticsService.getStatistics();
+                statistics.clear();
+
+                // act
+
+                for (int i = 0; i < 3; i++) {
+                        mockMvc.perform(get("/api/ucsbdiningcommons?code=ortega")).andExpect(status().isOk());
+                }
+
+                // assert
+
+                assertEquals(0, statistics.getPrepareStatementCount());
+                assertEquals(3, statistics.getCacheRegionStatistics("ucsbDiningCommons").getHitCount());
+        }
+
+        @Test
+        public void repeated_find_by_quarter_is_served_from_the_query_cache() throws Exception {
+                // arrange
+
+                ucsbDateRepository.save(UCSBDate.builder()
+                                .quarterYYYYQ("20244")
+                                .name("firstDayOfClasses")
+                                .localDateTime(LocalDateTime.parse("2024-09-26T00:00:00"))
+                                .build());
+                Statistics statistics = hibernateStatisticsService.getStatistics();
+                statistics.clear();
+
+                // act
+
+                ucsbDateRepository.findAllByQuarterYYYYQ("20244");
+                ucsbDateRepository.findAllByQuarterYYYYQ("20244");
+
+                // assert
+
+                assertEquals(1, statistics.getQueryCacheMissCount());
+                assertEquals(1, statistics.getQueryCacheHitCount());
+                assertEquals(1, statistics.getPrepareStatementCount());
+        }
+}
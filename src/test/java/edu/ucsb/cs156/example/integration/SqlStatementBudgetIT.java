@@ -0,0 +1,142 @@
+package edu.ucsb.cs156.example.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static edu.ucsb.cs156.example.testconfig.SqlStatementBudget.BUDGETS;
+import static edu.ucsb.cs156.example.testconfig.SqlStatementBudget.endpoint;
+import static edu.ucsb.cs156.example.testconfig.SqlStatementBudget.withinSqlBudget;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+
+import edu.ucsb.cs156.example.entities.Restaurant;
+import edu.ucsb.cs156.example.entities.UCSBDate;
+import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
+import edu.ucsb.cs156.example.entities.UCSBDiningCommonsMenuItem;
+import edu.ucsb.cs156.example.entities.UCSBOrganization;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.testconfig.TestConfig;
+
+/**
+ * Sends a request to every endpoint in SqlStatementBudget.BUDGETS, against a real database,
+ * and checks that each one stays within its budget.
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@ActiveProfiles("integration")
+@Import(TestConfig.class)
+@DirtiesContext(classMode = ClassMode.BEFORE_EACH_TEST_METHOD)
+public class SqlStatementBudgetIT {
+
+        @Autowired
+        public MockMvc mockMvc;
+
+        @Autowired
+        public ObjectMapper mapper;
+
+        @MockBean
+        UserRepository userRepository;
+
+        private final Set<String> checked = new TreeSet<>();
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void every_endpoint_stays_within_its_sql_budget() throws Exception {
+                String since = LocalDateTime.now().minusDays(1).withNano(0).toString();
+
+                // restaurants
+                Restaurant restaurant = mapper.readValue(
+                                perform(post("/api/restaurants/post?name=Chipotle&description=Mexican")),
+                                Restaurant.class);
+                perform(get("/api/restaurants/all"));
+                perform(get("/api/restaurants/changes?since=" + since));
+                perform(get("/api/restaurants?id=" + restaurant.getId()));
+                perform(put("/api/restaurants?id=" + restaurant.getId())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(mapper.writeValueAsString(
+                                                Restaurant.builder().name("Chipotle").description("Burritos").build())));
+                perform(delete("/api/restaurants?id=" + restaurant.getId()));
+
+                // ucsbdates
+                UCSBDate date = mapper.readValue(
+                                perform(post("/api/ucsbdates/post?quarterYYYYQ=20221&name=firstDayOfClasses&localDateTime=2022-01-03T00:00:00")),
+                                UCSBDate.class);
+                perform(get("/api/ucsbdates/all"));
+                perform(get("/api/ucsbdates/changes?since=" + since));
+                perform(get("/api/ucsbdates?id=" + date.getId()));
+                perform(put("/api/ucsbdates?id=" + date.getId())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(mapper.writeValueAsString(UCSBDate.builder().quarterYYYYQ("20222")
+                                                .name("firstDayOfClasses").localDateTime(LocalDateTime.parse("2022-03-28T00:00:00")).build())));
+                perform(delete("/api/ucsbdates?id=" + date.getId()));
+
+                // ucsbdiningcommons
+                perform(post("/api/ucsbdiningcommons/post?code=ortega&name=Ortega&hasSackMeal=true&hasTakeOutMeal=true"
+                                + "&hasDiningCam=true&latitude=34.410987&longitude=-119.84709"));
+                perform(get("/api/ucsbdiningcommons/all"));
+                perform(get("/api/ucsbdiningcommons/changes?since=" + since));
+                perform(get("/api/ucsbdiningcommons?code=ortega"));
+                perform(put("/api/ucsbdiningcommons?code=ortega")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(mapper.writeValueAsString(UCSBDiningCommons.builder().code("ortega").name("Ortega")
+                                                .hasSackMeal(false).hasTakeOutMeal(true).hasDiningCam(true)
+                                                .latitude(34.410987).longitude(-119.84709).build())));
+
+                // ucsbdiningcommonsmenuitem
+                UCSBDiningCommonsMenuItem menuItem = mapper.readValue(
+                                perform(post("/api/ucsbdiningcommonsmenuitem/post?diningCommonsCode=ortega&name=Pizza&station=Entrees")),
+                                UCSBDiningCommonsMenuItem.class);
+                perform(get("/api/ucsbdiningcommonsmenuitem/all"));
+                perform(get("/api/ucsbdiningcommonsmenuitem/changes?since=" + since));
+                perform(get("/api/ucsbdiningcommonsmenuitem?id=" + menuItem.getId()));
+                perform(delete("/api/ucsbdiningcommons?code=ortega"));
+
+                // ucsborganization
+                perform(post("/api/ucsborganization/post?orgCode=SKY&orgTranslationShort=Skydiving"
+                                + "&orgTranslation=Skydiving%20Club&inactive=false"));
+                perform(get("/api/ucsborganization/all"));
+                perform(get("/api/ucsborganization/changes?since=" + since));
+                perform(get("/api/ucsborganization?orgCode=SKY"));
+                perform(put("/api/ucsborganization?orgCode=SKY")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(mapper.writeValueAsString(UCSBOrganization.builder().orgCode("SKY")
+                                                .orgTranslationShort("Skydiving").orgTranslation("UCSB Skydiving Club")
+                                                .inactive(false).build())));
+                perform(delete("/api/ucsborganization?orgCode=SKY"));
+
+                // a budget that no request checks would pass without meaning anything
+                assertEquals(new TreeSet<>(BUDGETS.keySet()), checked);
+        }
+
+        private String perform(MockHttpServletRequestBuilder request) throws Exception {
+                MvcResult result = mockMvc.perform(request.with(csrf()))
+                                .andExpect(status().isOk())
+                                .andExpect(withinSqlBudget()).andReturn();
+                checked.add(endpoint(result));
+                return result.getResponse().getContentAsString();
+        }
+}
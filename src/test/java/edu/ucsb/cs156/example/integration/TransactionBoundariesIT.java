@@ -0,0 +1,111 @@
+package edu.ucsb.cs156.example.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static edu.ucsb.cs156.example.testconfig.SqlStatementBudget.withinSqlBudget;
+
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+
+import edu.ucsb.cs156.example.entities.Restaurant;
+import edu.ucsb.cs156.example.repositories.RestaurantRepository;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.HibernateStatisticsService;
+import edu.ucsb.cs156.example.testconfig.TestConfig;
+
+/**
+ * Measures the transactions, flushes and statements that controller requests cost,
+ * using Hibernate's statistics.
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@ActiveProfiles("integration")
+@Import(TestConfig.class)
+@DirtiesContext(classMode = ClassMode.BEFORE_EACH_TEST_METHOD)
+public class TransactionBoundariesIT {
+
+        @Autowired
+        RestaurantRepository restaurantRepository;
+
+        @Autowired
+        HibernateStatisticsService hibernateStatisticsService;
+
+        @Autowired
+        public MockMvc mockMvc;
+
+        @Autowired
+        public ObjectMapper mapper;
+
+        @MockBean
+        UserRepository userRepository;
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void reads_run_in_one_read_only_transaction_with_no_flush() throws Exception {
+                // arrange
+
+                for (int i = 0; i < 10; i++) {
+                        restaurantRepository.save(Restaurant.builder().name("R" + i).description("D" + i).build());
+                }
+                Statistics statistics = hibernateStatisticsService.getStatistics();
+                statistics.clear();
+
+                // act
+
+                mockMvc.perform(get("/api/restaurants/all")).andExpect(status().isOk()).andExpect(withinSqlBudget());
+
+                // assert
+
+                assertEquals(1, statistics.getTransactionCount());
+                assertEquals(0, statistics.getFlushCount());
+                assertEquals(1, statistics.getPrepareStatementCount());
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void update_is_a_single_transaction_with_one_flush() throws Exception {
+                // arrange
+
+                Restaurant restaurant = restaurantRepository.save(
+                                Restaurant.builder().name("Taco Bell").description("Mexican").build());
+                Restaurant edited = Restaurant.builder().name("Freebirds").description("Burritos").build();
+                Statistics statistics = hibernateStatisticsService.getStatistics();
+                statistics.clear();
+
+                // act
+
+                mockMvc.perform(put("/api/restaurants?id=" + restaurant.getId())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(mapper.writeValueAsString(edited))
+                                .with(csrf()))
+                                .andExpect(status().isOk())
+                                .andExpect(withinSqlBudget());
+
+                // assert: one select and one update, where separate find and save
+                // transactions would have needed two transactions and a merge
+
+                assertEquals(1, statistics.getTransactionCount());
+                assertEquals(1, statistics.getFlushCount());
+                assertEquals(1, statistics.getEntityLoadCount());
+                assertEquals(1, statistics.getEntityUpdateCount());
+        }
+}
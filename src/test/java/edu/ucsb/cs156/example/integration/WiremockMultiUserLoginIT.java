@@ -0,0 +1,149 @@
+package edu.ucsb.cs156.example.integration;
+
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.net.URI;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.wiremock.WiremockServiceImpl;
+import edu.ucsb.cs156.example.testconfig.TestConfig;
+
+/**
+ * Logs in through Spring Security's OAuth2 client against the stubs from
+ * WiremockServiceImpl.setupMultiUserOauthMocks, the way the load test does.
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@ActiveProfiles("integration")
+@Import(TestConfig.class)
+@DirtiesContext(classMode = ClassMode.BEFORE_EACH_TEST_METHOD)
+public class WiremockMultiUserLoginIT {
+
+        static final WireMockServer wireMockServer = new WireMockServer(options().dynamicPort().globalTemplating(true));
+
+        static {
+                wireMockServer.start();
+                WiremockServiceImpl.setupMultiUserOauthMocks(wireMockServer, 10);
+        }
+
+        @DynamicPropertySource
+        static void oauthProvider(DynamicPropertyRegistry registry) {
+                String provider = "spring.security.oauth2.client.provider.my-oauth-provider.";
+                registry.add(provider + "authorization-uri", () -> wireMockServer.baseUrl() + "/oauth/authorize");
+                registry.add(provider + "token-uri", () -> wireMockServer.baseUrl() + "/oauth/token");
+                registry.add(provider + "user-info-uri", () -> wireMockServer.baseUrl() + "/userinfo");
+        }
+
+        @AfterAll
+        static void stopWiremock() {
+                wireMockServer.stop();
+        }
+
+        @Autowired
+        public MockMvc mockMvc;
+
+        @MockBean
+        UserRepository userRepository;
+
+        private static Map<String, String> queryParams(URI uri) {
+                return UriComponentsBuilder.fromUri(uri).build().getQueryParams().toSingleValueMap().entrySet().stream()
+                                .collect(Collectors.toMap(Map.Entry::getKey,
+                                                e -> URLDecoder.decode(e.getValue(), StandardCharsets.UTF_8)));
+        }
+
+        private static String encode(String value) {
+                return URLEncoder.encode(value, StandardCharsets.UTF_8);
+        }
+
+        private Authentication logInAs(String username) throws Exception {
+                // the app redirects to the stubbed authorize page
+                MvcResult authorize = mockMvc.perform(get("/oauth2/authorization/my-oauth-provider"))
+                                .andExpect(status().is3xxRedirection()).andReturn();
+                MockHttpSession session = (MockHttpSession) authorize.getRequest().getSession();
+                Map<String, String> authorizeParams = queryParams(URI.create(authorize.getResponse().getRedirectedUrl()));
+
+                // submitting the login form redirects back to the app with the authorization code
+                String form = "username=" + encode(username) + "&password=&state=" + encode(authorizeParams.get("state"))
+                                + "&redirectUri=" + encode(authorizeParams.get("redirect_uri"));
+                HttpResponse<Void> login = HttpClient.newHttpClient().send(
+                                HttpRequest.newBuilder(URI.create(wireMockServer.baseUrl() + "/login"))
+                                                .header("Content-Type", "application/x-www-form-urlencoded")
+                                                .POST(HttpRequest.BodyPublishers.ofString(form)).build(),
+                                HttpResponse.BodyHandlers.discarding());
+                assertEquals(302, login.statusCode());
+                URI callback = URI.create(login.headers().firstValue("Location").get());
+                Map<String, String> callbackParams = queryParams(callback);
+                assertEquals(username, callbackParams.get("code"));
+
+                // the app exchanges the code for a token and fetches /userinfo
+                MvcResult result = mockMvc.perform(get(callback.getPath())
+                                .param("code", callbackParams.get("code"))
+                                .param("state", callbackParams.get("state"))
+                                .session(session))
+                                .andExpect(status().is3xxRedirection()).andReturn();
+                SecurityContext context = (SecurityContext) result.getRequest().getSession()
+                                .getAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY);
+                return context.getAuthentication();
+        }
+
+        private static Set<String> roles(Authentication authentication) {
+                return authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority)
+                                .collect(Collectors.toSet());
+        }
+
+        @Test
+        public void each_username_logs_in_as_its_own_user_and_admingaucho_is_an_admin() throws Exception {
+                Authentication loadtest = logInAs("loadtest3");
+                OAuth2User loadtestUser = (OAuth2User) loadtest.getPrincipal();
+                assertEquals("loadtest3@ucsb.edu", loadtestUser.getAttribute("email"));
+                assertEquals("wiremock-loadtest3", loadtestUser.getAttribute("sub"));
+                assertTrue(roles(loadtest).contains("ROLE_USER"));
+                assertFalse(roles(loadtest).contains("ROLE_ADMIN"));
+
+                Authentication admin = logInAs("admingaucho");
+                OAuth2User adminUser = (OAuth2User) admin.getPrincipal();
+                assertEquals("admingaucho@ucsb.edu", adminUser.getAttribute("email"));
+                assertTrue(roles(admin).contains("ROLE_ADMIN"));
+        }
+}
@@ -0,0 +1,203 @@
+package edu.ucsb.cs156.example.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
+import edu.ucsb.cs156.example.entities.UCSBOrganization;
+
+class BatchUpsertTests {
+
+  private static final Timestamp LONG_AGO = Timestamp.valueOf("2020-01-01 00:00:00");
+
+  private final Cache cache = mock(Cache.class);
+
+  private final EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+
+  private SingleConnectionDataSource dataSource;
+
+  private JdbcTemplate jdbcTemplate;
+
+  @BeforeEach
+  void setup() {
+    when(entityManagerFactory.getCache()).thenReturn(cache);
+    dataSource = new SingleConnectionDataSource("jdbc:h2:mem:" + UUID.randomUUID(), "sa", "", true);
+    jdbcTemplate = new JdbcTemplate(dataSource);
+    jdbcTemplate.execute("CREATE TABLE ucsborganization (org_code VARCHAR(255) PRIMARY KEY,"
+        + " org_translation_short VARCHAR(255), org_translation VARCHAR(255), inactive BOOLEAN NOT NULL,"
+        + " created_at TIMESTAMP, updated_at TIMESTAMP)");
+    jdbcTemplate.execute("CREATE TABLE ucsbdiningcommons (code VARCHAR(255) PRIMARY KEY, name VARCHAR(255),"
+        + " has_sack_meal BOOLEAN NOT NULL, has_take_out_meal BOOLEAN NOT NULL, has_dining_cam BOOLEAN NOT NULL,"
+        + " latitude DOUBLE PRECISION, longitude DOUBLE PRECISION, created_at TIMESTAMP, updated_at TIMESTAMP)");
+  }
+
+  @AfterEach
+  void teardown() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+    dataSource.destroy();
+  }
+
+  private static UCSBOrganization org(String orgCode, String name, boolean inactive) {
+    return UCSBOrganization.builder().orgCode(orgCode).orgTranslationShort(name).orgTranslation(name + " at UCSB")
+        .inactive(inactive).build();
+  }
+
+  private Map<String, Object> row(String orgCode) {
+    return jdbcTemplate.queryForMap("SELECT * FROM ucsborganization WHERE org_code = ?", orgCode);
+  }
+
+  @Test
+  void test_h2_merge_inserts_new_rows_and_updates_only_changed_ones_in_batches() {
+    UCSBOrganizationUpsertRepositoryImpl repository =
+        new UCSBOrganizationUpsertRepositoryImpl(jdbcTemplate, entityManagerFactory, 2);
+    UCSBOrganization zpr = org("ZPR", "Zeta Phi Rho", false);
+    UCSBOrganization sky = org("SKY", "Skydiving", false);
+    UCSBOrganization osli = org("OSLI", "Student Life", false);
+
+    BatchUpsert.Result<UCSBOrganization> first = repository.upsertAll(List.of(zpr, sky, osli));
+    assertEquals(List.of("ZPR", "SKY", "OSLI"), List.copyOf(first.inserted().keySet()));
+    assertEquals(Map.of(), first.updated());
+    assertEquals(0, first.unchanged());
+    assertEquals(3, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM ucsborganization", Integer.class));
+    // every row written by one call gets the same timestamp
+    assertEquals(row("ZPR").get("CREATED_AT"), row("ZPR").get("UPDATED_AT"));
+    assertEquals(row("ZPR").get("UPDATED_AT"), row("OSLI").get("UPDATED_AT"));
+    jdbcTemplate.update("UPDATE ucsborganization SET created_at = ?, updated_at = ?", LONG_AGO, LONG_AGO);
+
+    // the same code twice in one call is written once, with the later values
+    UCSBOrganization krc = org("KRC", "Korean Radio Cl", false);
+    UCSBOrganization skyClub = org("SKY", "Skydiving Club", true);
+    BatchUpsert.Result<UCSBOrganization> second = repository.upsertAll(List.of(org("ZPR", "Zeta Phi Rho", false),
+        org("SKY", "Skydiving", true), krc, org("OSLI", "Student Life", false), skyClub));
+    assertEquals(Map.of("KRC", krc), second.inserted());
+    assertEquals(Map.of("SKY", skyClub), second.updated());
+    assertEquals(2, second.unchanged());
+
+    assertEquals(4, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM ucsborganization", Integer.class));
+    assertEquals(LONG_AGO, row("ZPR").get("UPDATED_AT"));
+    assertEquals(LONG_AGO, row("OSLI").get("UPDATED_AT"));
+    assertEquals("Skydiving Club", row("SKY").get("ORG_TRANSLATION_SHORT"));
+    assertEquals(true, row("SKY").get("INACTIVE"));
+    assertNotEquals(LONG_AGO, row("SKY").get("UPDATED_AT"));
+    assertEquals(LONG_AGO, row("SKY").get("CREATED_AT"));
+    assertEquals(row("KRC").get("UPDATED_AT"), row("SKY").get("UPDATED_AT"));
+    assertEquals(row("KRC").get("CREATED_AT"), row("KRC").get("UPDATED_AT"));
+    assertEquals("Korean Radio Cl at UCSB", row("KRC").get("ORG_TRANSLATION"));
+    // only rows that were written are evicted
+    verify(cache, times(1)).evict(UCSBOrganization.class, "ZPR");
+    verify(cache, times(2)).evict(UCSBOrganization.class, "SKY");
+    verify(cache, times(1)).evict(UCSBOrganization.class, "KRC");
+  }
+
+  @Test
+  void test_h2_merge_writes_dining_commons() {
+    UCSBDiningCommonsUpsertRepositoryImpl repository =
+        new UCSBDiningCommonsUpsertRepositoryImpl(jdbcTemplate, entityManagerFactory, 500);
+    UCSBDiningCommons ortega = UCSBDiningCommons.builder().code("ortega").name("Ortega").hasSackMeal(true)
+        .hasTakeOutMeal(true).hasDiningCam(false).latitude(34.410987).longitude(-119.84709).build();
+
+    assertEquals(Map.of("ortega", ortega), repository.upsertAll(List.of(ortega)).inserted());
+    ortega.setHasDiningCam(true);
+    ortega.setLatitude(null);
+    assertEquals(Map.of("ortega", ortega), repository.upsertAll(List.of(ortega)).updated());
+    assertEquals(1, repository.upsertAll(List.of(ortega)).unchanged());
+
+    Map<String, Object> row = jdbcTemplate.queryForMap("SELECT * FROM ucsbdiningcommons WHERE code = 'ortega'");
+    assertEquals("Ortega", row.get("NAME"));
+    assertEquals(true, row.get("HAS_DINING_CAM"));
+    assertNull(row.get("LATITUDE"));
+    assertEquals(-119.84709, row.get("LONGITUDE"));
+    verify(cache, times(2)).evict(UCSBDiningCommons.class, "ortega");
+  }
+
+  @Test
+  void test_cache_entries_are_evicted_after_commit_when_in_a_transaction() {
+    UCSBOrganizationUpsertRepositoryImpl repository =
+        new UCSBOrganizationUpsertRepositoryImpl(jdbcTemplate, entityManagerFactory, 500);
+    TransactionSynchronizationManager.initSynchronization();
+
+    repository.upsertAll(List.of(org("ZPR", "Zeta Phi Rho", false)));
+    verify(cache, never()).evict(any(), any());
+
+    TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+    verify(cache).evict(UCSBOrganization.class, "ZPR");
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void test_postgres_uses_insert_on_conflict_returning_the_written_rows() throws Exception {
+    JdbcTemplate postgres = mock(JdbcTemplate.class);
+    when(postgres.execute(any(ConnectionCallback.class))).thenReturn(true);
+    // the first call inserts ZPR, the second finds it unchanged and returns no rows
+    AtomicInteger calls = new AtomicInteger();
+    doAnswer(invocation -> {
+      if (calls.incrementAndGet() == 1) {
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.getObject(1)).thenReturn("ZPR");
+        when(resultSet.getBoolean(2)).thenReturn(true);
+        invocation.<RowCallbackHandler>getArgument(1).processRow(resultSet);
+      }
+      return null;
+    }).when(postgres).query(anyString(), any(RowCallbackHandler.class), any(Object[].class));
+    UCSBOrganizationUpsertRepositoryImpl repository =
+        new UCSBOrganizationUpsertRepositoryImpl(postgres, entityManagerFactory, 500);
+    UCSBOrganization zpr = org("ZPR", "Zeta Phi Rho", false);
+
+    assertEquals(Map.of("ZPR", zpr), repository.upsertAll(List.of(zpr)).inserted());
+    assertEquals(1, repository.upsertAll(List.of(zpr)).unchanged());
+
+    // the database is only asked what it is once
+    verify(postgres, times(1)).execute(any(ConnectionCallback.class));
+    ArgumentCaptor<Object[]> parameters = ArgumentCaptor.forClass(Object[].class);
+    verify(postgres, times(2)).query(eq("INSERT INTO ucsborganization"
+        + " (org_code, org_translation_short, org_translation, inactive, created_at, updated_at)"
+        + " VALUES (?, ?, ?, ?, ?, ?)"
+        + " ON CONFLICT (org_code) DO UPDATE SET org_translation_short = EXCLUDED.org_translation_short,"
+        + " org_translation = EXCLUDED.org_translation, inactive = EXCLUDED.inactive,"
+        + " updated_at = EXCLUDED.updated_at"
+        + " WHERE ucsborganization.org_translation_short IS DISTINCT FROM EXCLUDED.org_translation_short"
+        + " OR ucsborganization.org_translation IS DISTINCT FROM EXCLUDED.org_translation"
+        + " OR ucsborganization.inactive IS DISTINCT FROM EXCLUDED.inactive"
+        + " RETURNING org_code, (xmax = 0) AS inserted"),
+        any(RowCallbackHandler.class), parameters.capture());
+    Object[] bound = parameters.getAllValues().get(0);
+    assertEquals(List.of("ZPR", "Zeta Phi Rho", "Zeta Phi Rho at UCSB", false), List.of(bound).subList(0, 4));
+    assertTrue(bound[4] instanceof Timestamp);
+    assertEquals(bound[4], bound[5]);
+    verify(cache, times(1)).evict(UCSBOrganization.class, "ZPR");
+  }
+}
@@ -0,0 +1,164 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.event.TransactionalEventListenerFactory;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+import edu.ucsb.cs156.example.models.EntityChangeEvent;
+import edu.ucsb.cs156.example.models.EntityChangeEvent.ChangeType;
+import edu.ucsb.cs156.example.testconfig.NoOpTransactionManager;
+
+class ChangeFeedServiceTests {
+
+  private final EntityChangeEvent event = EntityChangeEvent.builder()
+      .entityType("Restaurant")
+      .changeType(ChangeType.DELETED)
+      .id(7L)
+      .build();
+
+  @Test
+  void test_subscribe_adds_a_subscriber() {
+    ChangeFeedService service = new ChangeFeedService();
+    SseEmitter emitter = service.subscribe();
+    assertEquals(1, service.getSubscriberCount());
+    assertEquals(1800000L, emitter.getTimeout());
+  }
+
+  @Test
+  void test_event_is_sent_to_every_subscriber() throws Exception {
+    ChangeFeedService service = new ChangeFeedService(Runnable::run);
+    SseEmitter emitter1 = mock(SseEmitter.class);
+    SseEmitter emitter2 = mock(SseEmitter.class);
+    service.register(emitter1);
+    service.register(emitter2);
+
+    service.onEntityChange(event);
+
+    verify(emitter1, times(1)).send(any(SseEventBuilder.class));
+    verify(emitter2, times(1)).send(any(SseEventBuilder.class));
+  }
+
+  @Test
+  void test_slow_subscriber_is_closed_when_its_queue_is_full() throws Exception {
+    List<Runnable> pending = new ArrayList<>();
+    ChangeFeedService service = new ChangeFeedService(pending::add);
+    ReflectionTestUtils.setField(service, "queueCapacity", 1);
+    SseEmitter emitter = mock(SseEmitter.class);
+    service.register(emitter);
+
+    service.onEntityChange(event);
+    service.onEntityChange(event);
+
+    assertEquals(1, pending.size());
+    assertEquals(0, service.getSubscriberCount());
+    verify(emitter, times(1)).complete();
+    verify(emitter, never()).send(any(SseEventBuilder.class));
+  }
+
+  @Test
+  void test_subscriber_is_removed_when_send_fails() throws Exception {
+    ChangeFeedService service = new ChangeFeedService(Runnable::run);
+    SseEmitter emitter = mock(SseEmitter.class);
+    doThrow(new IOException("Broken pipe")).when(emitter).send(any(SseEventBuilder.class));
+    service.register(emitter);
+
+    service.onEntityChange(event);
+
+    assertEquals(0, service.getSubscriberCount());
+  }
+
+  @Test
+  void test_drain_is_rescheduled_when_an_event_arrives_late() throws Exception {
+    ChangeFeedService service = new ChangeFeedService(Runnable::run);
+    SseEmitter emitter = mock(SseEmitter.class);
+    // the first poll misses the event, as if it were queued just after the drain loop finished
+    ArrayBlockingQueue<EntityChangeEvent> queue = new ArrayBlockingQueue<>(4) {
+      private boolean first = true;
+
+      @Override
+      public EntityChangeEvent poll() {
+        if (first) {
+          first = false;
+          return null;
+        }
+        return super.poll();
+      }
+    };
+    service.register(emitter, queue);
+
+    service.onEntityChange(event);
+
+    verify(emitter, times(1)).send(any(SseEventBuilder.class));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void test_emitter_callbacks_remove_the_subscriber() {
+    ChangeFeedService service = new ChangeFeedService(Runnable::run);
+    SseEmitter emitter = mock(SseEmitter.class);
+    service.register(emitter);
+    service.register(emitter);
+    service.register(emitter);
+    assertEquals(3, service.getSubscriberCount());
+
+    ArgumentCaptor<Runnable> completion = ArgumentCaptor.forClass(Runnable.class);
+    ArgumentCaptor<Runnable> timeout = ArgumentCaptor.forClass(Runnable.class);
+    ArgumentCaptor<Consumer<Throwable>> error = ArgumentCaptor.forClass(Consumer.class);
+    verify(emitter, times(3)).onCompletion(completion.capture());
+    verify(emitter, times(3)).onTimeout(timeout.capture());
+    verify(emitter, times(3)).onError(error.capture());
+
+    completion.getAllValues().get(0).run();
+    assertEquals(2, service.getSubscriberCount());
+    timeout.getAllValues().get(1).run();
+    assertEquals(1, service.getSubscriberCount());
+    error.getAllValues().get(2).accept(new IOException("gone"));
+    assertEquals(0, service.getSubscriberCount());
+  }
+
+  @Test
+  void test_events_are_pushed_only_after_the_transaction_commits() throws Exception {
+    ChangeFeedService service = new ChangeFeedService(Runnable::run);
+    SseEmitter emitter = mock(SseEmitter.class);
+    service.register(emitter);
+    TransactionTemplate transaction = new TransactionTemplate(new NoOpTransactionManager());
+
+    try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()) {
+      context.registerBean(TransactionalEventListenerFactory.class);
+      context.registerBean(ChangeFeedService.class, () -> service);
+      context.refresh();
+
+      transaction.executeWithoutResult(status -> {
+        context.publishEvent(event);
+        status.setRollbackOnly();
+      });
+      verify(emitter, never()).send(any(SseEventBuilder.class));
+
+      transaction.executeWithoutResult(status -> context.publishEvent(event));
+      verify(emitter, times(1)).send(any(SseEventBuilder.class));
+
+      // outside a transaction the event is pushed right away
+      context.publishEvent(event);
+      verify(emitter, times(2)).send(any(SseEventBuilder.class));
+    }
+  }
+}
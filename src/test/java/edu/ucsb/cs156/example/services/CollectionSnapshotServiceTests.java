@@ -0,0 +1,244 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import edu.ucsb.cs156.example.models.EntityChangeEvent;
+import edu.ucsb.cs156.example.models.EntityChangeEvent.ChangeType;
+
+class CollectionSnapshotServiceTests {
+
+  @TempDir
+  Path directory;
+
+  private final AtomicInteger reads = new AtomicInteger();
+
+  private final AtomicLong now = new AtomicLong(TimeUnit.SECONDS.toNanos(1000));
+
+  private final ScheduledExecutorService writer = mock(ScheduledExecutorService.class);
+
+  private final List<Runnable> scheduled = new ArrayList<>();
+
+  private CollectionSnapshotService service;
+
+  @BeforeEach
+  void setup() throws Exception {
+    when(writer.schedule(any(Runnable.class), anyLong(), any())).thenAnswer(invocation -> {
+      scheduled.add(invocation.getArgument(0));
+      return null;
+    });
+    Files.writeString(directory.resolve("UCSBDate-7.json"), "left over");
+    Files.writeString(directory.resolve("notes.txt"), "not a snapshot");
+    Supplier<List<String>> dates = () -> List.of("row" + reads.incrementAndGet());
+    service = new CollectionSnapshotService(directory, Duration.ofSeconds(2), Duration.ofSeconds(60),
+        new ObjectMapper(), Map.of("UCSBDate", dates), writer);
+    service.setClock(now::get);
+  }
+
+  @Test
+  void test_each_instance_has_its_own_directory() throws Exception {
+    // files of other instances sharing the parent directory are left alone
+    assertTrue(Files.exists(directory.resolve("UCSBDate-7.json")));
+    assertTrue(Files.exists(directory.resolve("notes.txt")));
+    assertEquals(directory, service.getDirectory().getParent());
+    try (CollectionSnapshotService other = new CollectionSnapshotService(directory, Duration.ofSeconds(2),
+        Duration.ofSeconds(60), new ObjectMapper(), Map.of(), writer)) {
+      assertNotEquals(service.getDirectory(), other.getDirectory());
+    }
+  }
+
+  @Test
+  void test_snapshot_is_written_when_ready_and_served_from_the_mapped_file() throws Exception {
+    assertFalse(service.serve("UCSBDate", get(), new MockHttpServletResponse()));
+
+    service.writeAll();
+    verify(writer).schedule(any(Runnable.class), eq(2000L), eq(TimeUnit.MILLISECONDS));
+    now.addAndGet(TimeUnit.SECONDS.toNanos(2));
+    runScheduled();
+
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    assertTrue(service.serve("UCSBDate", get(), response));
+    assertEquals("[\"row1\"]", response.getContentAsString());
+    assertEquals("application/json", response.getContentType());
+    assertEquals(8, response.getContentLengthLong());
+    assertNull(response.getHeader("Content-Encoding"));
+    assertTrue(response.getHeader("ETag").startsWith("\""));
+    assertTrue(Files.exists(service.getDirectory().resolve("UCSBDate-1.json")));
+    assertTrue(Files.exists(service.getDirectory().resolve("UCSBDate-1.json.gz")));
+  }
+
+  @Test
+  void test_snapshot_is_sent_compressed_when_the_client_accepts_gzip() throws Exception {
+    service.write("UCSBDate");
+
+    MockHttpServletRequest request = get();
+    request.addHeader("Accept-Encoding", "gzip, deflate");
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    assertTrue(service.serve("UCSBDate", request, response));
+    assertEquals("gzip", response.getHeader("Content-Encoding"));
+    assertTrue(response.getHeader("ETag").endsWith("-gzip\""));
+    byte[] json = new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray())).readAllBytes();
+    assertArrayEquals("[\"row1\"]".getBytes("UTF-8"), json);
+
+    request = get();
+    request.addHeader("Accept-Encoding", "identity");
+    response = new MockHttpServletResponse();
+    assertTrue(service.serve("UCSBDate", request, response));
+    assertNull(response.getHeader("Content-Encoding"));
+  }
+
+  @Test
+  void test_snapshot_is_handed_to_the_connector_when_sendfile_is_supported() throws Exception {
+    service.write("UCSBDate");
+
+    MockHttpServletRequest request = get();
+    request.setAttribute(CollectionSnapshotService.SENDFILE_SUPPORTED, Boolean.TRUE);
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    assertTrue(service.serve("UCSBDate", request, response));
+    assertEquals(0, response.getContentAsByteArray().length);
+    assertEquals(service.getDirectory().resolve("UCSBDate-1.json").toAbsolutePath().toString(),
+        request.getAttribute(CollectionSnapshotService.SENDFILE_FILENAME));
+    assertEquals(0L, request.getAttribute(CollectionSnapshotService.SENDFILE_START));
+    assertEquals(8L, request.getAttribute(CollectionSnapshotService.SENDFILE_END));
+  }
+
+  @Test
+  void test_matching_etag_is_answered_with_not_modified() throws Exception {
+    service.write("UCSBDate");
+    MockHttpServletResponse first = new MockHttpServletResponse();
+    service.serve("UCSBDate", get(), first);
+
+    MockHttpServletRequest request = get();
+    request.addHeader("If-None-Match", first.getHeader("ETag"));
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    assertTrue(service.serve("UCSBDate", request, response));
+    assertEquals(304, response.getStatus());
+    assertEquals(0, response.getContentAsByteArray().length);
+  }
+
+  @Test
+  void test_snapshot_is_not_served_after_a_change_until_it_is_rewritten() throws Exception {
+    service.write("UCSBDate");
+
+    service.onEntityChange(change("UCSBDate"));
+    service.onEntityChange(change("UCSBDate"));
+    assertEquals(1, scheduled.size());
+    assertFalse(service.serve("UCSBDate", get(), new MockHttpServletResponse()));
+
+    now.addAndGet(TimeUnit.SECONDS.toNanos(2));
+    runScheduled();
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    assertTrue(service.serve("UCSBDate", get(), response));
+    assertEquals("[\"row2\"]", response.getContentAsString());
+
+    // the replaced files are deleted after the retain period
+    verify(writer).schedule(any(Runnable.class), eq(60000L), eq(TimeUnit.MILLISECONDS));
+    assertTrue(Files.exists(service.getDirectory().resolve("UCSBDate-1.json")));
+    runScheduled();
+    assertFalse(Files.exists(service.getDirectory().resolve("UCSBDate-1.json")));
+    assertFalse(Files.exists(service.getDirectory().resolve("UCSBDate-1.json.gz")));
+    assertTrue(Files.exists(service.getDirectory().resolve("UCSBDate-2.json")));
+  }
+
+  @Test
+  void test_snapshot_waits_until_debounce_after_the_last_change() throws Exception {
+    service.onEntityChange(change("UCSBDate"));
+    now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1500));
+    service.onEntityChange(change("UCSBDate"));
+    assertEquals(1, scheduled.size());
+
+    // 2s after the first change, but only 0.5s after the last one
+    now.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+    runScheduled();
+    assertEquals(0, reads.get());
+    verify(writer).schedule(any(Runnable.class), eq(TimeUnit.MILLISECONDS.toNanos(1500)), eq(TimeUnit.NANOSECONDS));
+
+    now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1500));
+    runScheduled();
+    assertEquals(1, reads.get());
+    assertTrue(service.serve("UCSBDate", get(), new MockHttpServletResponse()));
+  }
+
+  @Test
+  void test_other_types_are_neither_snapshotted_nor_served() throws Exception {
+    service.onEntityChange(change("Restaurant"));
+    assertEquals(0, scheduled.size());
+    assertFalse(service.serve("Restaurant", get(), new MockHttpServletResponse()));
+  }
+
+  @Test
+  void test_failed_write_keeps_serving_without_a_snapshot() throws Exception {
+    CollectionSnapshotService failing = new CollectionSnapshotService(directory, Duration.ofSeconds(2),
+        Duration.ofSeconds(60), new ObjectMapper(), Map.of("UCSBDate", () -> {
+          throw new IllegalStateException("database is down");
+        }), writer);
+
+    failing.write("UCSBDate");
+    assertFalse(failing.serve("UCSBDate", get(), new MockHttpServletResponse()));
+    try (var files = Files.list(failing.getDirectory())) {
+      assertEquals(List.of(), files.map(file -> file.getFileName().toString()).toList());
+    }
+  }
+
+  @Test
+  void test_close_stops_the_writer_and_deletes_the_directory() throws Exception {
+    service.writeAll();
+    now.addAndGet(TimeUnit.SECONDS.toNanos(2));
+    runScheduled();
+    assertTrue(Files.exists(service.getDirectory().resolve("UCSBDate-1.json")));
+
+    service.close();
+    verify(writer).shutdownNow();
+    assertFalse(Files.exists(service.getDirectory()));
+    assertTrue(Files.exists(directory.resolve("notes.txt")));
+
+    // closing twice only logs that the directory is gone
+    service.close();
+  }
+
+  private void runScheduled() {
+    List<Runnable> tasks = new ArrayList<>(scheduled);
+    scheduled.clear();
+    tasks.forEach(Runnable::run);
+  }
+
+  private static MockHttpServletRequest get() {
+    return new MockHttpServletRequest("GET", "/api/ucsbdates/all");
+  }
+
+  private static EntityChangeEvent change(String entityType) {
+    return EntityChangeEvent.builder().entityType(entityType).changeType(ChangeType.UPDATED).id(1L).build();
+  }
+}
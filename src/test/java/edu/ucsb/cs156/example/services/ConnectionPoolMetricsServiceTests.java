@@ -0,0 +1,88 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import edu.ucsb.cs156.example.models.ConnectionPoolStats;
+
+class ConnectionPoolMetricsServiceTests {
+
+  private final ConnectionPoolMetricsService service = new ConnectionPoolMetricsService();
+
+  static class FixedPoolStats extends PoolStats {
+    FixedPoolStats() {
+      super(0);
+    }
+
+    @Override
+    protected void update() {
+      totalConnections = 10;
+      idleConnections = 7;
+      activeConnections = 3;
+      pendingThreads = 2;
+      maxConnections = 10;
+      minConnections = 2;
+    }
+  }
+
+  @Test
+  void test_getStats_is_empty_before_any_pool_starts() {
+    assertEquals(List.of(), service.getStats());
+  }
+
+  @Test
+  void test_pool_with_no_activity_reports_zero_means() {
+    service.create("primary", new FixedPoolStats());
+
+    ConnectionPoolStats stats = service.getStats().get(0);
+
+    assertEquals(0, stats.getAcquisitions());
+    assertEquals(0.0, stats.getMeanAcquireMillis());
+    assertEquals(0.0, stats.getMeanUsageMillis());
+  }
+
+  @Test
+  void test_tracker_records_acquire_usage_timeouts_and_occupancy() {
+    IMetricsTracker tracker = service.create("primary", new FixedPoolStats());
+
+    tracker.recordConnectionCreatedMillis(15);
+    tracker.recordConnectionAcquiredNanos(1_000_000);
+    tracker.recordConnectionAcquiredNanos(3_000_000);
+    tracker.recordConnectionUsageMillis(10);
+    tracker.recordConnectionUsageMillis(30);
+    tracker.recordConnectionUsageMillis(5);
+    tracker.recordConnectionTimeout();
+
+    ConnectionPoolStats expected = ConnectionPoolStats.builder()
+        .pool("primary")
+        .activeConnections(3)
+        .idleConnections(7)
+        .totalConnections(10)
+        .maxConnections(10)
+        .pendingThreads(2)
+        .acquisitions(2)
+        .meanAcquireMillis(2.0)
+        .maxAcquireMillis(3.0)
+        .acquireTimeouts(1)
+        .meanUsageMillis(15.0)
+        .maxUsageMillis(30)
+        .connectionsCreated(1)
+        .build();
+    assertEquals(List.of(expected), service.getStats());
+  }
+
+  @Test
+  void test_getStats_lists_pools_by_name() {
+    service.create("replica", new FixedPoolStats());
+    service.create("primary", new FixedPoolStats());
+
+    assertEquals(List.of("primary", "replica"),
+        service.getStats().stream().map(ConnectionPoolStats::getPool).toList());
+  }
+}
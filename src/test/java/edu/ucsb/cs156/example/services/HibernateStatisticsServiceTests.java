@@ -0,0 +1,80 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import edu.ucsb.cs156.example.models.CacheRegionStats;
+import edu.ucsb.cs156.example.models.CacheStats;
+import jakarta.persistence.EntityManagerFactory;
+
+class HibernateStatisticsServiceTests {
+
+  private final Statistics statistics = mock(Statistics.class);
+
+  private final HibernateStatisticsService service = new HibernateStatisticsService();
+
+  @BeforeEach
+  void setup() {
+    SessionFactory sessionFactory = mock(SessionFactory.class);
+    when(sessionFactory.getStatistics()).thenReturn(statistics);
+    service.entityManagerFactory = mock(EntityManagerFactory.class);
+    when(service.entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+  }
+
+  @Test
+  void test_getStatistics_unwraps_the_session_factory() {
+    assertSame(statistics, service.getStatistics());
+  }
+
+  @Test
+  void test_getCacheStats_reports_totals_and_regions_sorted_by_name() {
+    CacheRegionStatistics organizations = region(5, 1, 2, 3);
+    CacheRegionStatistics commons = region(7, 4, 4, 6);
+    when(statistics.isStatisticsEnabled()).thenReturn(true);
+    when(statistics.getSecondLevelCacheRegionNames()).thenReturn(new String[] { "ucsbOrganization", "ucsbDiningCommons" });
+    when(statistics.getCacheRegionStatistics("ucsbOrganization")).thenReturn(organizations);
+    when(statistics.getCacheRegionStatistics("ucsbDiningCommons")).thenReturn(commons);
+    when(statistics.getSecondLevelCacheHitCount()).thenReturn(12L);
+    when(statistics.getSecondLevelCacheMissCount()).thenReturn(5L);
+    when(statistics.getSecondLevelCachePutCount()).thenReturn(6L);
+    when(statistics.getQueryCacheHitCount()).thenReturn(8L);
+    when(statistics.getQueryCacheMissCount()).thenReturn(2L);
+    when(statistics.getQueryCachePutCount()).thenReturn(2L);
+
+    CacheStats expected = CacheStats.builder()
+        .statisticsEnabled(true)
+        .secondLevelCacheHitCount(12)
+        .secondLevelCacheMissCount(5)
+        .secondLevelCachePutCount(6)
+        .queryCacheHitCount(8)
+        .queryCacheMissCount(2)
+        .queryCachePutCount(2)
+        .regions(List.of(
+            CacheRegionStats.builder().region("ucsbDiningCommons")
+                .hitCount(7).missCount(4).putCount(4).elementCountInMemory(6).build(),
+            CacheRegionStats.builder().region("ucsbOrganization")
+                .hitCount(5).missCount(1).putCount(2).elementCountInMemory(3).build()))
+        .build();
+
+    assertEquals(expected, service.getCacheStats());
+  }
+
+  private static CacheRegionStatistics region(long hits, long misses, long puts, long elements) {
+    CacheRegionStatistics region = mock(CacheRegionStatistics.class);
+    when(region.getHitCount()).thenReturn(hits);
+    when(region.getMissCount()).thenReturn(misses);
+    when(region.getPutCount()).thenReturn(puts);
+    when(region.getElementCountInMemory()).thenReturn(elements);
+    return region;
+  }
+}
@@ -0,0 +1,125 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import edu.ucsb.cs156.example.entities.UCSBDiningCommonsMenuItem;
+import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsMenuItemRepository;
+
+class MenuItemStoreServiceTests {
+
+  private final UCSBDiningCommonsMenuItemRepository repository = mock(UCSBDiningCommonsMenuItemRepository.class);
+
+  private MenuItemStoreService store;
+
+  @BeforeEach
+  void setup() {
+    store = new MenuItemStoreService();
+    ReflectionTestUtils.setField(store, "menuItemRepository", repository);
+    ReflectionTestUtils.setField(store, "enabled", true);
+  }
+
+  @AfterEach
+  void cleanup() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  @Test
+  void test_store_does_not_serve_when_disabled() {
+    ReflectionTestUtils.setField(store, "enabled", false);
+    store.load();
+    store.put(item(1, "Burger"));
+    assertFalse(store.isServing());
+    verify(repository, never()).findAll();
+  }
+
+  @Test
+  void test_store_serves_every_item_loaded_from_the_database() {
+    List<UCSBDiningCommonsMenuItem> items = new ArrayList<>();
+    for (int i = 1; i <= 1000; i++) {
+      items.add(item(i * 31L, "Item " + i));
+    }
+    items.add(UCSBDiningCommonsMenuItem.builder().id(5).name("No station").build());
+    when(repository.findAll()).thenReturn(items);
+
+    store.load();
+
+    assertTrue(store.isServing());
+    assertEquals(items, store.findAll());
+    for (UCSBDiningCommonsMenuItem expected : items) {
+      assertEquals(Optional.of(expected), store.findById(expected.getId()));
+    }
+    assertEquals(Optional.empty(), store.findById(32));
+    assertEquals(List.of(items.get(1), items.get(0)), store.findAllById(List.of(62L, 32L, 31L)));
+    MenuItemStoreService.Rows rows = (MenuItemStoreService.Rows) ReflectionTestUtils.getField(store, "rows");
+    assertEquals(List.of("ortega", "Entree Specials", "carrillo", "Grill"),
+        ReflectionTestUtils.getField(rows, "dictionary"));
+  }
+
+  @Test
+  void test_put_adds_and_replaces_items_without_changing_what_readers_hold() {
+    when(repository.findAll()).thenReturn(List.of(item(1, "Burger")));
+    store.load();
+    List<UCSBDiningCommonsMenuItem> before = store.findAll();
+
+    store.put(item(2, "Fries"));
+    store.put(item(1, "Cheeseburger"));
+
+    assertEquals(List.of(item(1, "Burger")), before);
+    assertEquals(List.of(item(1, "Cheeseburger"), item(2, "Fries")), store.findAll());
+  }
+
+  @Test
+  void test_put_inside_a_transaction_waits_for_the_commit() {
+    when(repository.findAll()).thenReturn(List.of());
+    store.load();
+    TransactionSynchronizationManager.initSynchronization();
+
+    store.put(item(1, "Burger"));
+    assertEquals(Optional.empty(), store.findById(1));
+
+    TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+    assertEquals(Optional.of(item(1, "Burger")), store.findById(1));
+  }
+
+  @Test
+  void test_put_before_load_is_left_to_the_load() {
+    store.put(item(1, "Burger"));
+    assertFalse(store.isServing());
+  }
+
+  @Test
+  void test_unsaved_items_are_rejected() {
+    when(repository.findAll()).thenReturn(List.of());
+    store.load();
+    assertThrows(IllegalArgumentException.class, () -> store.put(UCSBDiningCommonsMenuItem.builder().name("Burger").build()));
+  }
+
+  private static UCSBDiningCommonsMenuItem item(long id, String name) {
+    return UCSBDiningCommonsMenuItem.builder()
+        .id(id)
+        .diningCommonsCode(id % 2 == 0 ? "carrillo" : "ortega")
+        .name(name)
+        .station(id % 2 == 0 ? "Grill" : "Entree Specials")
+        .build();
+  }
+}
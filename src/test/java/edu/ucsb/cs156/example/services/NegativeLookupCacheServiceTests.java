@@ -0,0 +1,189 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import edu.ucsb.cs156.example.entities.Restaurant;
+import edu.ucsb.cs156.example.entities.UCSBDate;
+import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.models.EntityChangeEvent;
+import edu.ucsb.cs156.example.models.EntityChangeEvent.ChangeType;
+import edu.ucsb.cs156.example.models.NegativeLookupStats;
+import edu.ucsb.cs156.example.testconfig.NoOpTransactionManager;
+
+class NegativeLookupCacheServiceTests {
+
+  private final AtomicLong now = new AtomicLong(TimeUnit.SECONDS.toNanos(1000));
+
+  private final AtomicInteger queries = new AtomicInteger();
+
+  private final Restaurant restaurant = Restaurant.builder().id(1L).name("Freebirds").build();
+
+  private final Function<Long, Optional<Restaurant>> findById = id -> {
+    queries.incrementAndGet();
+    return id == 1L ? Optional.of(restaurant) : Optional.empty();
+  };
+
+  private final NoOpTransactionManager transactionManager = new NoOpTransactionManager();
+
+  private NegativeLookupCacheService service;
+
+  @BeforeEach
+  void setup() {
+    service = new NegativeLookupCacheService();
+    ReflectionTestUtils.setField(service, "primaryReads", new PrimaryReadService(transactionManager));
+    service.setClock(now::get);
+  }
+
+  @Test
+  void test_missing_ids_are_answered_without_a_query_until_they_expire() {
+    assertEquals(restaurant, service.findOrThrow(Restaurant.class, 1L, findById));
+    EntityNotFoundException e = assertThrows(EntityNotFoundException.class,
+        () -> service.findOrThrow(Restaurant.class, 7L, findById));
+    assertEquals("Restaurant with id 7 not found", e.getMessage());
+    assertEquals(0, e.getStackTrace().length);
+    assertThrows(EntityNotFoundException.class, () -> service.findOrThrow(Restaurant.class, 7L, findById));
+    assertEquals(2, queries.get());
+
+    now.addAndGet(TimeUnit.SECONDS.toNanos(31));
+    assertThrows(EntityNotFoundException.class, () -> service.findOrThrow(Restaurant.class, 7L, findById));
+    assertEquals(3, queries.get());
+
+    NegativeLookupStats stats = service.getStats();
+    assertEquals(Map.of("Restaurant", 1L), stats.getHitsByType());
+    assertEquals(Map.of("Restaurant", 2L), stats.getMissesByType());
+    assertEquals(1, stats.getEntries());
+  }
+
+  @Test
+  void test_creating_or_updating_an_id_removes_it() {
+    assertThrows(EntityNotFoundException.class, () -> service.findOrThrow(Restaurant.class, 7L, findById));
+    assertThrows(EntityNotFoundException.class, () -> service.findOrThrow(Restaurant.class, 8L, findById));
+
+    service.onEntityChange(change("Restaurant", ChangeType.DELETED, 7L));
+    service.onEntityChange(change("UCSBDate", ChangeType.CREATED, 7L));
+    assertThrows(EntityNotFoundException.class, () -> service.findOrThrow(Restaurant.class, 7L, findById));
+    assertEquals(2, queries.get());
+
+    service.onEntityChange(change("Restaurant", ChangeType.CREATED, 7L));
+    service.onEntityChange(change("Restaurant", ChangeType.UPDATED, 8L));
+    assertThrows(EntityNotFoundException.class, () -> service.findOrThrow(Restaurant.class, 7L, findById));
+    assertThrows(EntityNotFoundException.class, () -> service.findOrThrow(Restaurant.class, 8L, findById));
+    assertEquals(4, queries.get());
+  }
+
+  @Test
+  void test_id_created_during_the_lookup_is_not_remembered() {
+    assertThrows(EntityNotFoundException.class, () -> service.findOrThrow(Restaurant.class, 6L, findById));
+    Function<Long, Optional<Restaurant>> racing = id -> {
+      service.onEntityChange(change("Restaurant", ChangeType.CREATED, id));
+      return findById.apply(id);
+    };
+
+    assertThrows(EntityNotFoundException.class, () -> service.findOrThrow(Restaurant.class, 7L, racing));
+    assertEquals(1, service.getStats().getEntries());
+  }
+
+  @Test
+  void test_miss_in_a_read_only_transaction_is_only_remembered_if_the_primary_misses_too() {
+    TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+    readOnly.setReadOnly(true);
+    // a replica that has not caught up with the insert of id 1 yet
+    Function<Long, Optional<Restaurant>> lagging = id -> {
+      queries.incrementAndGet();
+      boolean replica = TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+      return id == 1L && !replica ? Optional.of(restaurant) : Optional.empty();
+    };
+
+    readOnly.executeWithoutResult(status -> assertEquals(restaurant, service.findOrThrow(Restaurant.class, 1L, lagging)));
+    assertEquals(0, service.getStats().getEntries());
+
+    readOnly.executeWithoutResult(status ->
+        assertThrows(EntityNotFoundException.class, () -> service.findOrThrow(Restaurant.class, 7L, lagging)));
+    assertEquals(1, service.getStats().getEntries());
+    assertEquals(4, queries.get());
+  }
+
+  @Test
+  void test_full_cache_stops_remembering_until_expired_entries_are_swept() {
+    ReflectionTestUtils.setField(service, "maxEntries", 2);
+    assertThrows(EntityNotFoundException.class, () -> service.findOrThrow(Restaurant.class, 7L, findById));
+    now.addAndGet(TimeUnit.SECONDS.toNanos(31));
+    assertThrows(EntityNotFoundException.class, () -> service.findOrThrow(Restaurant.class, 8L, findById));
+
+    // the map is full, so 9 is not remembered
+    assertThrows(EntityNotFoundException.class, () -> service.findOrThrow(Restaurant.class, 9L, findById));
+    assertEquals(2, service.getStats().getEntries());
+
+    // 7 has expired, so sweeping it makes room
+    service.sweep();
+    assertEquals(1, service.getStats().getEntries());
+    assertThrows(EntityNotFoundException.class, () -> service.findOrThrow(Restaurant.class, 9L, findById));
+    assertEquals(2, service.getStats().getEntries());
+  }
+
+  @Test
+  void test_sweeper_runs_only_when_enabled() {
+    ReflectionTestUtils.setField(service, "enabled", false);
+    service.init();
+    assertNull(ReflectionTestUtils.getField(service, "sweeper"));
+    service.shutdown();
+
+    ReflectionTestUtils.setField(service, "sweepInterval", Duration.ZERO);
+    ReflectionTestUtils.setField(service, "enabled", true);
+    service.init();
+    assertNull(ReflectionTestUtils.getField(service, "sweeper"));
+
+    ReflectionTestUtils.setField(service, "sweepInterval", Duration.ofSeconds(10));
+    service.init();
+    service.init();
+    ScheduledExecutorService sweeper = (ScheduledExecutorService) ReflectionTestUtils.getField(service, "sweeper");
+    assertNotNull(sweeper);
+    service.shutdown();
+    assertTrue(sweeper.isShutdown());
+  }
+
+  @Test
+  void test_disabled_cache_always_queries() {
+    ReflectionTestUtils.setField(service, "enabled", false);
+    assertEquals(restaurant, service.findOrThrow(Restaurant.class, 1L, findById));
+    assertThrows(EntityNotFoundException.class, () -> service.findOrThrow(Restaurant.class, 7L, findById));
+    assertThrows(EntityNotFoundException.class, () -> service.findOrThrow(Restaurant.class, 7L, findById));
+    assertEquals(3, queries.get());
+    assertEquals(0, service.getStats().getEntries());
+  }
+
+  @Test
+  void test_clear_forgets_every_type() {
+    assertThrows(EntityNotFoundException.class, () -> service.findOrThrow(Restaurant.class, 7L, findById));
+    assertThrows(EntityNotFoundException.class,
+        () -> service.findOrThrow(UCSBDate.class, 7L, id -> Optional.<UCSBDate>empty()));
+    assertEquals(2, service.getStats().getEntries());
+
+    service.clear();
+    assertEquals(0, service.getStats().getEntries());
+    assertNull(service.getStats().getHitsByType().get("Restaurant"));
+  }
+
+  private static EntityChangeEvent change(String entityType, ChangeType changeType, Object id) {
+    return EntityChangeEvent.builder().entityType(entityType).changeType(changeType).id(id).build();
+  }
+}
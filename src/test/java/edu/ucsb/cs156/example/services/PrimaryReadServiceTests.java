@@ -0,0 +1,62 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import edu.ucsb.cs156.example.testconfig.NoOpTransactionManager;
+
+class PrimaryReadServiceTests {
+
+  @Test
+  void test_query_runs_in_its_own_read_write_transaction() {
+    NoOpTransactionManager transactionManager = new NoOpTransactionManager();
+    PrimaryReadService service = new PrimaryReadService(transactionManager);
+    TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+    readOnly.setReadOnly(true);
+
+    readOnly.executeWithoutResult(status -> {
+      assertEquals("primary", service.read(() -> {
+        assertTrue(TransactionSynchronizationManager.isActualTransactionActive());
+        assertFalse(TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+        return "primary";
+      }));
+      // the caller's read-only transaction is resumed afterwards
+      assertTrue(TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+    });
+  }
+
+  @Test
+  void test_transaction_is_rolled_back_rather_than_committed() {
+    PrimaryReadService service = new PrimaryReadService(new NoOpTransactionManager());
+    AtomicInteger completion = new AtomicInteger(-1);
+
+    service.read(() -> {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCompletion(int status) {
+          completion.set(status);
+        }
+      });
+      return "primary";
+    });
+
+    assertEquals(TransactionSynchronization.STATUS_ROLLED_BACK, completion.get());
+  }
+
+  @Test
+  void test_query_runs_directly_without_a_transaction_manager() {
+    PrimaryReadService service = new PrimaryReadService(null);
+    assertEquals("direct", service.read(() -> {
+      assertFalse(TransactionSynchronizationManager.isActualTransactionActive());
+      return "direct";
+    }));
+  }
+}
@@ -0,0 +1,150 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import edu.ucsb.cs156.example.models.SlowQuery;
+import edu.ucsb.cs156.example.models.SqlStats;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+
+class QueryInstrumentationServiceTests {
+
+  private QueryInstrumentationService service;
+
+  @BeforeEach
+  void setup() {
+    service = new QueryInstrumentationService();
+    ReflectionTestUtils.setField(service, "slowQueryThreshold", Duration.ofMillis(100));
+    ReflectionTestUtils.setField(service, "repeatedStatementThreshold", 3);
+    ReflectionTestUtils.setField(service, "maxDistinctStatements", 2);
+    ReflectionTestUtils.setField(service, "slowQueryHistory", 2);
+  }
+
+  private void run(String sql, long elapsedMillis) {
+    ExecutionInfo info = new ExecutionInfo();
+    info.setElapsedTime(elapsedMillis);
+    service.beforeQuery(info, List.of(new QueryInfo(sql)));
+    service.afterQuery(info, List.of(new QueryInfo(sql)));
+  }
+
+  @Test
+  void test_statements_are_timed_and_sorted_by_total_time() {
+    run("select a", 10);
+    run("select b", 30);
+    run("select a", 5);
+
+    SqlStats stats = service.getStats();
+    assertTrue(stats.getEnabled());
+    assertEquals(100, stats.getSlowQueryThresholdMillis());
+    assertEquals(3, stats.getRepeatedStatementThreshold());
+    assertEquals(2, stats.getStatements().size());
+    assertEquals("select b", stats.getStatements().get(0).getSql());
+    assertEquals("select a", stats.getStatements().get(1).getSql());
+    assertEquals(2, stats.getStatements().get(1).getCount());
+    assertEquals(15, stats.getStatements().get(1).getTotalMillis());
+    assertEquals(10, stats.getStatements().get(1).getMaxMillis());
+  }
+
+  @Test
+  void test_distinct_statements_are_bounded() {
+    run("select a", 1);
+    run("select b", 1);
+    run("select c", 1);
+    run("select a", 1);
+
+    SqlStats stats = service.getStats();
+    assertEquals(2, stats.getStatements().size());
+    assertEquals(2, stats.getStatements().stream().filter(s -> s.getSql().equals("select a")).findFirst().get().getCount());
+  }
+
+  @Test
+  void test_slow_queries_are_remembered_with_their_request() {
+    run("select slow1", 100);
+    service.beginRequest("GET /api/restaurants/all");
+    run("select slow2", 250);
+    run("select fast", 99);
+    run("select slow3", 300);
+    service.endRequest();
+
+    List<SlowQuery> slow = service.getStats().getSlowQueries();
+    assertEquals(2, slow.size());
+    assertEquals("select slow2", slow.get(0).getSql());
+    assertEquals(250, slow.get(0).getElapsedMillis());
+    assertEquals("GET /api/restaurants/all", slow.get(0).getRequest());
+    assertNotNull(slow.get(0).getAt());
+    assertEquals("select slow3", slow.get(1).getSql());
+  }
+
+  @Test
+  void test_slow_query_outside_a_request_has_no_request() {
+    run("select slow", 150);
+    assertNull(service.getStats().getSlowQueries().get(0).getRequest());
+  }
+
+  @Test
+  void test_repeated_statements_in_one_request_are_suspected_n_plus_one() {
+    service.beginRequest("GET /api/things");
+    run("select parent", 1);
+    run("select child", 1);
+    run("select child", 1);
+    assertEquals(3, service.getCurrentRequestStatementCount());
+    run("select child", 1);
+    assertEquals(4, service.endRequest());
+
+    service.beginRequest("GET /api/things");
+    run("select child", 1);
+    run("select child", 1);
+    assertEquals(2, service.endRequest());
+
+    assertEquals(Map.of("GET /api/things :: select child", 1L), service.getStats().getSuspectedNPlusOne());
+  }
+
+  @Test
+  void test_no_request_means_no_counting() {
+    run("select a", 1);
+    assertEquals(0, service.getCurrentRequestStatementCount());
+    assertEquals(0, service.endRequest());
+  }
+
+  @Test
+  void test_disabled_records_nothing() {
+    service.setEnabled(false);
+    run("select slow", 1000);
+    SqlStats stats = service.getStats();
+    assertFalse(stats.getEnabled());
+    assertTrue(stats.getStatements().isEmpty());
+    assertTrue(stats.getSlowQueries().isEmpty());
+
+    service.setEnabled(true);
+    run("select slow", 1000);
+    assertEquals(1, service.getStats().getStatements().size());
+  }
+
+  @Test
+  void test_reset_forgets_everything() {
+    service.beginRequest("GET /api/things");
+    run("select slow", 1000);
+    run("select slow", 1000);
+    run("select slow", 1000);
+    service.endRequest();
+
+    service.reset();
+
+    SqlStats stats = service.getStats();
+    assertTrue(stats.getStatements().isEmpty());
+    assertTrue(stats.getSlowQueries().isEmpty());
+    assertTrue(stats.getSuspectedNPlusOne().isEmpty());
+  }
+}
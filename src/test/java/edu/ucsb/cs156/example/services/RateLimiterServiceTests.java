@@ -0,0 +1,152 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import edu.ucsb.cs156.example.models.RateLimitStats;
+
+class RateLimiterServiceTests {
+
+  private final AtomicLong now = new AtomicLong(TimeUnit.SECONDS.toNanos(1000));
+
+  private RateLimiterService service;
+
+  @BeforeEach
+  void setup() {
+    service = new RateLimiterService();
+    ReflectionTestUtils.setField(service, "capacity", 3L);
+    ReflectionTestUtils.setField(service, "refillPerSecond", 1.0);
+    ReflectionTestUtils.setField(service, "routes", List.of("/api/*/post:1:0.5"));
+    service.setClock(now::get);
+    service.init();
+  }
+
+  @Test
+  void test_disabled_by_default() {
+    assertFalse(new RateLimiterService().isEnabled());
+  }
+
+  @Test
+  void test_admits_a_burst_of_capacity_then_rejects() {
+    assertEquals(0, service.tryAcquire("/api/restaurants/all", "user:a"));
+    assertEquals(0, service.tryAcquire("/api/restaurants/all", "user:a"));
+    assertEquals(0, service.tryAcquire("/api/restaurants/all", "user:a"));
+    assertEquals(TimeUnit.SECONDS.toNanos(1), service.tryAcquire("/api/restaurants/all", "user:a"));
+
+    // other clients have their own buckets
+    assertEquals(0, service.tryAcquire("/api/restaurants/all", "user:b"));
+  }
+
+  @Test
+  void test_tokens_refill_over_time() {
+    for (int i = 0; i < 3; i++) {
+      service.tryAcquire("/api/restaurants/all", "ip:1.2.3.4");
+    }
+    now.addAndGet(TimeUnit.MILLISECONDS.toNanos(400));
+    assertEquals(TimeUnit.MILLISECONDS.toNanos(600), service.tryAcquire("/api/restaurants/all", "ip:1.2.3.4"));
+    now.addAndGet(TimeUnit.MILLISECONDS.toNanos(600));
+    assertEquals(0, service.tryAcquire("/api/restaurants/all", "ip:1.2.3.4"));
+  }
+
+  @Test
+  void test_first_matching_route_limit_is_used() {
+    assertEquals(0, service.tryAcquire("/api/restaurants/post", "user:a"));
+    assertEquals(TimeUnit.SECONDS.toNanos(2), service.tryAcquire("/api/ucsbdates/post", "user:a"));
+    assertEquals("/api/*/post", service.limitFor("/api/ucsbdates/post").pattern());
+    assertEquals(RateLimiterService.DEFAULT_ROUTE, service.limitFor("/api/ucsbdates/all").pattern());
+    assertEquals(RateLimiterService.DEFAULT_ROUTE, service.limitFor("/somewhere/else").pattern());
+  }
+
+  @Test
+  void test_stats_count_rejections_per_route() {
+    service.tryAcquire("/api/restaurants/post", "user:a");
+    service.tryAcquire("/api/restaurants/post", "user:a");
+    service.tryAcquire("/api/restaurants/post", "user:a");
+    for (int i = 0; i < 4; i++) {
+      service.tryAcquire("/api/restaurants/all", "user:a");
+    }
+
+    RateLimitStats stats = service.getStats();
+    assertFalse(stats.getEnabled());
+    assertEquals(2, stats.getBuckets());
+    assertEquals(3, stats.getRejectedTotal());
+    assertEquals(Map.of("/api/*/post", 2L, "/api/**", 1L), stats.getRejectedByRoute());
+  }
+
+  @Test
+  void test_sweep_drops_only_full_buckets() {
+    service.tryAcquire("/api/restaurants/all", "user:a");
+    service.tryAcquire("/api/restaurants/all", "user:b");
+    service.tryAcquire("/api/restaurants/all", "user:b");
+    now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+
+    // user:a's bucket is full again, so it is dropped; user:b's is not
+    service.sweep();
+    assertEquals(1, service.getStats().getBuckets());
+    assertEquals(0, service.tryAcquire("/api/restaurants/all", "user:b"));
+    assertEquals(0, service.tryAcquire("/api/restaurants/all", "user:b"));
+    assertEquals(TimeUnit.SECONDS.toNanos(1), service.tryAcquire("/api/restaurants/all", "user:b"));
+  }
+
+  @Test
+  void test_new_clients_are_rejected_while_the_map_is_full() {
+    ReflectionTestUtils.setField(service, "maxBuckets", 2);
+    service.tryAcquire("/api/restaurants/all", "user:a");
+    service.tryAcquire("/api/restaurants/all", "user:b");
+
+    assertEquals(TimeUnit.SECONDS.toNanos(1), service.tryAcquire("/api/restaurants/all", "user:c"));
+    assertEquals(2, service.getStats().getBuckets());
+    assertEquals(1, service.getStats().getRejectedTotal());
+
+    // clients that already have a bucket are unaffected
+    assertEquals(0, service.tryAcquire("/api/restaurants/all", "user:a"));
+
+    now.addAndGet(TimeUnit.SECONDS.toNanos(3));
+    service.sweep();
+    assertEquals(0, service.tryAcquire("/api/restaurants/all", "user:c"));
+  }
+
+  @Test
+  void test_sweeper_runs_only_when_enabled() {
+    assertNull(ReflectionTestUtils.getField(service, "sweeper"));
+    service.shutdown();
+
+    RateLimiterService enabled = new RateLimiterService();
+    ReflectionTestUtils.setField(enabled, "enabled", true);
+    enabled.init();
+    enabled.init();
+    ScheduledExecutorService sweeper = (ScheduledExecutorService) ReflectionTestUtils.getField(enabled, "sweeper");
+    assertNotNull(sweeper);
+    enabled.shutdown();
+    assertTrue(sweeper.isShutdown());
+
+    RateLimiterService unswept = new RateLimiterService();
+    ReflectionTestUtils.setField(unswept, "enabled", true);
+    ReflectionTestUtils.setField(unswept, "sweepSeconds", 0L);
+    unswept.init();
+    assertNull(ReflectionTestUtils.getField(unswept, "sweeper"));
+  }
+
+  @Test
+  void test_malformed_route_is_rejected() {
+    ReflectionTestUtils.setField(service, "routes", List.of("/api/**:10"));
+    IllegalArgumentException e = assertThrows(IllegalArgumentException.class, service::init);
+    assertEquals(
+        "app.ratelimit.routes entries must look like pattern:capacity:refillPerSecond, got /api/**:10",
+        e.getMessage());
+  }
+}
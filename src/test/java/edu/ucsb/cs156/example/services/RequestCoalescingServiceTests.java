@@ -0,0 +1,133 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import edu.ucsb.cs156.example.models.CoalescedKeyStats;
+import edu.ucsb.cs156.example.models.CoalescingStats;
+
+class RequestCoalescingServiceTests {
+
+  private final RequestCoalescingService service = new RequestCoalescingService();
+
+  private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+  @AfterEach
+  void shutdown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void test_sequential_calls_each_load() {
+    AtomicInteger loads = new AtomicInteger();
+
+    assertEquals(1, service.coalesce("k", loads::incrementAndGet));
+    assertEquals(2, service.coalesce("k", loads::incrementAndGet));
+
+    CoalescingStats stats = service.getStats();
+    assertTrue(stats.getEnabled());
+    assertEquals(0, stats.getInFlight());
+    assertEquals(2, stats.getCallsTotal());
+    assertEquals(0, stats.getCoalescedTotal());
+  }
+
+  @Test
+  void test_concurrent_calls_share_one_load() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    List<String> result = List.of("a", "b");
+    AtomicInteger loads = new AtomicInteger();
+    Supplier<List<String>> loader = () -> {
+      loads.incrementAndGet();
+      started.countDown();
+      await(release);
+      return result;
+    };
+
+    Future<List<String>> leader = executor.submit(() -> service.coalesce("k", loader));
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+    Future<List<String>> follower = executor.submit(() -> service.coalesce("k", loader));
+    waitForCoalesced(1);
+    release.countDown();
+
+    assertSame(result, leader.get(5, TimeUnit.SECONDS));
+    assertSame(result, follower.get(5, TimeUnit.SECONDS));
+    assertEquals(1, loads.get());
+    assertEquals(List.of(CoalescedKeyStats.builder().key("k").calls(2).loads(1).coalesced(1).build()),
+        service.getStats().getKeys());
+    assertEquals(0, service.getStats().getInFlight());
+  }
+
+  @Test
+  void test_followers_get_the_leaders_exception() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    Supplier<String> loader = () -> {
+      started.countDown();
+      await(release);
+      throw new IllegalArgumentException("database is down");
+    };
+
+    Future<String> leader = executor.submit(() -> service.coalesce("k", loader));
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+    Future<String> follower = executor.submit(() -> service.coalesce("k", loader));
+    waitForCoalesced(1);
+    release.countDown();
+
+    ExecutionException leaderFailure = assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+    ExecutionException followerFailure = assertThrows(ExecutionException.class, () -> follower.get(5, TimeUnit.SECONDS));
+    assertEquals("database is down", leaderFailure.getCause().getMessage());
+    assertSame(leaderFailure.getCause(), followerFailure.getCause());
+
+    // a failed load is not remembered
+    assertEquals("ok", service.coalesce("k", () -> "ok"));
+  }
+
+  @Test
+  void test_disabled_always_loads() {
+    ReflectionTestUtils.setField(service, "enabled", false);
+    AtomicInteger loads = new AtomicInteger();
+
+    service.coalesce("k", loads::incrementAndGet);
+    service.coalesce("k", loads::incrementAndGet);
+
+    assertEquals(2, loads.get());
+    CoalescingStats stats = service.getStats();
+    assertFalse(stats.getEnabled());
+    assertEquals(List.of(CoalescedKeyStats.builder().key("k").calls(2).loads(2).coalesced(0).build()),
+        stats.getKeys());
+  }
+
+  private void waitForCoalesced(long expected) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (service.getStats().getCoalescedTotal() < expected && System.nanoTime() < deadline) {
+      Thread.sleep(1);
+    }
+    assertEquals(expected, service.getStats().getCoalescedTotal());
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
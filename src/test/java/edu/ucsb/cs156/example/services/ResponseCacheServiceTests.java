@@ -0,0 +1,258 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import edu.ucsb.cs156.example.models.EntityChangeEvent;
+import edu.ucsb.cs156.example.models.EntityChangeEvent.ChangeType;
+import edu.ucsb.cs156.example.models.ResponseCacheStats;
+import edu.ucsb.cs156.example.services.ResponseCacheService.CachedResponse;
+import edu.ucsb.cs156.example.testconfig.NoOpTransactionManager;
+
+class ResponseCacheServiceTests {
+
+  private final AtomicLong now = new AtomicLong(TimeUnit.SECONDS.toNanos(1000));
+
+  private final AtomicInteger reads = new AtomicInteger();
+
+  private final Supplier<List<String>> findAll = () -> List.of("row" + reads.incrementAndGet());
+
+  private final RequestCoalescingService requestCoalescing = new RequestCoalescingService();
+
+  private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+  private ResponseCacheService service;
+
+  @BeforeEach
+  void setup() {
+    service = new ResponseCacheService();
+    ReflectionTestUtils.setField(service, "mapper", new ObjectMapper());
+    ReflectionTestUtils.setField(service, "requestCoalescing", requestCoalescing);
+    ReflectionTestUtils.setField(service, "primaryReads", new PrimaryReadService(null));
+    service.setClock(now::get);
+  }
+
+  @AfterEach
+  void shutdown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void test_rows_are_read_from_the_primary_inside_a_read_only_transaction() {
+    NoOpTransactionManager transactionManager = new NoOpTransactionManager();
+    ReflectionTestUtils.setField(service, "primaryReads", new PrimaryReadService(transactionManager));
+    TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+    readOnly.setReadOnly(true);
+    AtomicBoolean readOnlyDuringRead = new AtomicBoolean(true);
+
+    readOnly.executeWithoutResult(status -> service.read("Restaurant", null, () -> {
+      readOnlyDuringRead.set(TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+      return List.of();
+    }));
+    assertFalse(readOnlyDuringRead.get());
+  }
+
+  @Test
+  void test_response_is_reused_until_the_type_changes() throws Exception {
+    CachedResponse first = service.get("Restaurant", findAll);
+    assertSame(first, service.get("Restaurant", findAll));
+    assertEquals("[\"row1\"]", new String(first.json(), "UTF-8"));
+
+    // changes to another type do not matter
+    service.onEntityChange(change("UCSBDate"));
+    assertSame(first, service.get("Restaurant", findAll));
+
+    service.onEntityChange(change("Restaurant"));
+    CachedResponse second = service.get("Restaurant", findAll);
+    assertNotSame(first, second);
+    assertEquals("[\"row2\"]", new String(second.json(), "UTF-8"));
+
+    ResponseCacheStats stats = service.getStats();
+    assertEquals(Map.of("Restaurant", 2L), stats.getHitsByType());
+    assertEquals(Map.of("Restaurant", 2L), stats.getMissesByType());
+    assertEquals(Map.of("Restaurant", 1L, "UCSBDate", 1L), stats.getVersionsByType());
+    assertEquals(1, stats.getEntries());
+  }
+
+  @Test
+  void test_response_read_during_a_change_is_not_kept() throws Exception {
+    // the change commits while the rows are being read
+    CachedResponse during = service.get("Restaurant", () -> {
+      service.onEntityChange(change("Restaurant"));
+      return findAll.get();
+    });
+
+    CachedResponse after = service.get("Restaurant", findAll);
+    assertNotSame(during, after);
+    assertSame(after, service.get("Restaurant", findAll));
+  }
+
+  @Test
+  void test_a_late_response_does_not_replace_a_newer_one() throws Exception {
+    // a slow read at version 0 finishes after a change and a read at version 1
+    CachedResponse slow = service.get("Restaurant", () -> {
+      service.onEntityChange(change("Restaurant"));
+      try {
+        assertEquals(1, service.get("Restaurant", findAll).version());
+      } catch (Exception e) {
+        throw new IllegalStateException(e);
+      }
+      return findAll.get();
+    });
+
+    assertEquals(0, slow.version());
+    assertEquals(1, service.get("Restaurant", findAll).version());
+    assertEquals(2, reads.get());
+  }
+
+  @Test
+  void test_concurrent_misses_share_one_read() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    Supplier<List<String>> slowFindAll = () -> {
+      started.countDown();
+      await(release);
+      return findAll.get();
+    };
+
+    Future<CachedResponse> leader = executor.submit(() -> service.get("Restaurant", "Restaurant.findAll", slowFindAll));
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+    Future<CachedResponse> follower = executor.submit(() -> service.get("Restaurant", "Restaurant.findAll", slowFindAll));
+    waitForCoalesced(1);
+    release.countDown();
+
+    assertEquals("[\"row1\"]", new String(leader.get(5, TimeUnit.SECONDS).json(), "UTF-8"));
+    assertEquals("[\"row1\"]", new String(follower.get(5, TimeUnit.SECONDS).json(), "UTF-8"));
+    assertEquals(1, reads.get());
+  }
+
+  @Test
+  void test_a_read_that_started_before_a_change_is_not_shared() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    Supplier<List<String>> slowFindAll = () -> {
+      if (started.getCount() > 0) {
+        started.countDown();
+        await(release);
+      }
+      return findAll.get();
+    };
+
+    // the leader reads at version 0, then a change commits, then a follower joins the leader's read
+    Future<CachedResponse> leader = executor.submit(() -> service.get("Restaurant", "Restaurant.findAll", slowFindAll));
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+    service.onEntityChange(change("Restaurant"));
+    Future<CachedResponse> follower = executor.submit(() -> service.get("Restaurant", "Restaurant.findAll", slowFindAll));
+    waitForCoalesced(1);
+    release.countDown();
+
+    assertEquals(0, leader.get(5, TimeUnit.SECONDS).version());
+    CachedResponse after = follower.get(5, TimeUnit.SECONDS);
+    assertEquals(1, after.version());
+    assertEquals("[\"row2\"]", new String(after.json(), "UTF-8"));
+
+    // the leader's rows were not stored under version 1
+    assertSame(after, service.get("Restaurant", "Restaurant.findAll", findAll));
+    assertEquals(2, reads.get());
+  }
+
+  @Test
+  void test_read_shares_rows_without_serializing_them() {
+    ResponseCacheService.VersionedRows rows = service.read("Restaurant", "Restaurant.findAll", findAll);
+    assertEquals(0, rows.version());
+    assertEquals(List.of("row1"), rows.rows());
+    assertEquals(0, service.getStats().getEntries());
+  }
+
+  @Test
+  void test_responses_expire_after_max_age() throws Exception {
+    CachedResponse first = service.get("Restaurant", findAll);
+    now.addAndGet(TimeUnit.SECONDS.toNanos(59));
+    assertSame(first, service.get("Restaurant", findAll));
+    now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+    assertNotSame(first, service.get("Restaurant", findAll));
+  }
+
+  @Test
+  void test_large_responses_are_also_gzipped() throws Exception {
+    ReflectionTestUtils.setField(service, "gzipMinBytes", 10);
+
+    CachedResponse small = service.get("Small", () -> List.of());
+    CachedResponse large = service.get("Large", () -> List.of("a long enough row"));
+
+    assertNull(small.gzip());
+    assertNotNull(large.gzip());
+    byte[] unzipped = new GZIPInputStream(new ByteArrayInputStream(large.gzip())).readAllBytes();
+    assertArrayEquals(large.json(), unzipped);
+  }
+
+  @Test
+  void test_disabled_always_reads() throws Exception {
+    ReflectionTestUtils.setField(service, "enabled", false);
+
+    service.get("Restaurant", findAll);
+    service.get("Restaurant", findAll);
+
+    assertEquals(2, reads.get());
+    ResponseCacheStats stats = service.getStats();
+    assertFalse(stats.getEnabled());
+    assertEquals(0, stats.getEntries());
+  }
+
+  @Test
+  void test_clear_drops_every_response() throws Exception {
+    service.get("Restaurant", findAll);
+    service.clear();
+    service.get("Restaurant", findAll);
+    assertEquals(2, reads.get());
+  }
+
+  private void waitForCoalesced(long expected) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (requestCoalescing.getStats().getCoalescedTotal() < expected && System.nanoTime() < deadline) {
+      Thread.sleep(1);
+    }
+    assertEquals(expected, requestCoalescing.getStats().getCoalescedTotal());
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static EntityChangeEvent change(String entityType) {
+    return EntityChangeEvent.builder().entityType(entityType).changeType(ChangeType.UPDATED).id(1L).build();
+  }
+}
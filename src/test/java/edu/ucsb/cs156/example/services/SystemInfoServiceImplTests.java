@@ -1,6 +1,8 @@
 package edu.ucsb.cs156.example.services;
 
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -10,11 +12,15 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import edu.ucsb.cs156.example.models.SystemInfo;
 
+import java.util.Map;
+
 // The unit under test relies on property values
 // For hints on testing, see: https://www.baeldung.com/spring-boot-testing-configurationproperties
 
@@ -27,6 +33,9 @@ class SystemInfoServiceImplTests  {
   @Autowired
   private SystemInfoService systemInfoService;
 
+  @Autowired
+  private ConfigurableEnvironment environment;
+
   @Test
   void test_getSystemInfo() {
     SystemInfo si = systemInfoService.getSystemInfo();
@@ -34,4 +43,27 @@ class SystemInfoServiceImplTests  {
     assertTrue(si.getShowSwaggerUILink());
   }
 
+  @Test
+  void test_getSystemInfo_returns_the_same_instance_until_refreshed() {
+    SystemInfoServiceImpl service = (SystemInfoServiceImpl) systemInfoService;
+    SystemInfo before = service.getSystemInfo();
+    assertSame(before, service.getSystemInfo());
+
+    // refreshing with unchanged configuration keeps the instance
+    service.refresh();
+    assertSame(before, service.getSystemInfo());
+
+    environment.getPropertySources().addFirst(
+        new MapPropertySource("refreshed", Map.of("app.showSwaggerUILink", "false")));
+    try {
+      service.refresh();
+      SystemInfo after = service.getSystemInfo();
+      assertNotSame(before, after);
+      assertFalse(after.getShowSwaggerUILink());
+    } finally {
+      environment.getPropertySources().remove("refreshed");
+      service.refresh();
+    }
+  }
+
 }
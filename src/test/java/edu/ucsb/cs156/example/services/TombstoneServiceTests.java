@@ -0,0 +1,110 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import edu.ucsb.cs156.example.entities.Tombstone;
+import edu.ucsb.cs156.example.models.EntityChangeEvent;
+import edu.ucsb.cs156.example.models.EntityChangeEvent.ChangeType;
+import edu.ucsb.cs156.example.repositories.TombstoneRepository;
+
+class TombstoneServiceTests {
+
+  @Test
+  void test_deletes_are_recorded_as_tombstones() {
+    TombstoneService service = new TombstoneService();
+    service.tombstoneRepository = mock(TombstoneRepository.class);
+
+    service.onEntityChange(EntityChangeEvent.builder()
+        .entityType("UCSBDiningCommons")
+        .changeType(ChangeType.DELETED)
+        .id("ortega")
+        .build());
+
+    ArgumentCaptor<Tombstone> captor = ArgumentCaptor.forClass(Tombstone.class);
+    verify(service.tombstoneRepository, times(1)).save(captor.capture());
+    assertEquals("UCSBDiningCommons", captor.getValue().getEntityType());
+    assertEquals("ortega", captor.getValue().getEntityId());
+    assertNotNull(captor.getValue().getDeletedAt());
+  }
+
+  @Test
+  void test_creates_and_updates_are_ignored() {
+    TombstoneService service = new TombstoneService();
+    service.tombstoneRepository = mock(TombstoneRepository.class);
+
+    service.onEntityChange(EntityChangeEvent.builder()
+        .entityType("Restaurant")
+        .changeType(ChangeType.CREATED)
+        .id(1L)
+        .build());
+    service.onEntityChange(EntityChangeEvent.builder()
+        .entityType("Restaurant")
+        .changeType(ChangeType.UPDATED)
+        .id(1L)
+        .build());
+
+    verify(service.tombstoneRepository, never()).save(any());
+  }
+
+  @Test
+  void test_prune_deletes_tombstones_older_than_the_retention() {
+    TombstoneService service = new TombstoneService();
+    service.tombstoneRepository = mock(TombstoneRepository.class);
+    ReflectionTestUtils.setField(service, "retention", Duration.ofDays(7));
+
+    LocalDateTime before = LocalDateTime.now().minusDays(7);
+    service.prune();
+    LocalDateTime after = LocalDateTime.now().minusDays(7);
+
+    ArgumentCaptor<LocalDateTime> captor = ArgumentCaptor.forClass(LocalDateTime.class);
+    verify(service.tombstoneRepository, times(1)).deleteAllByDeletedAtBefore(captor.capture());
+    assertTrue(!captor.getValue().isBefore(before) && !captor.getValue().isAfter(after));
+  }
+
+  @Test
+  void test_a_failed_prune_does_not_throw() {
+    TombstoneService service = new TombstoneService();
+    service.tombstoneRepository = mock(TombstoneRepository.class);
+    when(service.tombstoneRepository.deleteAllByDeletedAtBefore(any()))
+        .thenThrow(new IllegalStateException("database is down"));
+
+    service.prune();
+
+    verify(service.tombstoneRepository, times(1)).deleteAllByDeletedAtBefore(any());
+  }
+
+  @Test
+  void test_pruner_runs_only_when_an_interval_is_set() {
+    TombstoneService service = new TombstoneService();
+    service.shutdown();
+
+    ReflectionTestUtils.setField(service, "pruneInterval", Duration.ZERO);
+    service.init();
+    assertNull(ReflectionTestUtils.getField(service, "pruner"));
+
+    ReflectionTestUtils.setField(service, "pruneInterval", Duration.ofHours(1));
+    service.init();
+    service.init();
+    ScheduledExecutorService pruner = (ScheduledExecutorService) ReflectionTestUtils.getField(service, "pruner");
+    assertNotNull(pruner);
+    service.shutdown();
+    assertTrue(pruner.isShutdown());
+  }
+}
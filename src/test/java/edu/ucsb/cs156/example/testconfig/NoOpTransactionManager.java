@@ -0,0 +1,43 @@
+package edu.ucsb.cs156.example.testconfig;
+
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/** Drives transaction synchronization without any resource behind it. */
+public class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+
+  private static final long serialVersionUID = 1L;
+
+  @Override
+  protected Object doGetTransaction() {
+    return new Object();
+  }
+
+  @Override
+  protected boolean isExistingTransaction(Object transaction) {
+    return TransactionSynchronizationManager.isActualTransactionActive();
+  }
+
+  @Override
+  protected Object doSuspend(Object transaction) {
+    return transaction;
+  }
+
+  @Override
+  protected void doResume(Object transaction, Object suspendedResources) {
+  }
+
+  @Override
+  protected void doBegin(Object transaction, TransactionDefinition definition) {
+  }
+
+  @Override
+  protected void doCommit(DefaultTransactionStatus status) {
+  }
+
+  @Override
+  protected void doRollback(DefaultTransactionStatus status) {
+  }
+}
@@ -0,0 +1,131 @@
+package edu.ucsb.cs156.example.testconfig;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.util.Map;
+
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.web.context.support.WebApplicationContextUtils;
+import org.springframework.web.servlet.HandlerMapping;
+
+import edu.ucsb.cs156.example.services.QueryInstrumentationService;
+
+/**
+ * ResultMatchers that fail a MockMvc request which runs more SQL statements than its endpoint is allowed.
+ *
+ * The counts come from QueryInstrumentationService, which counts the statements each handler runs,
+ * so these only mean something in tests with a real database (e.g. the integration tests);
+ * with mocked repositories every request runs zero statements.  For the same reason they fail
+ * when the instrumentation is switched off (SQL_INSTRUMENTATION=false).  SqlStatementBudgetIT
+ * sends a request to every endpoint in BUDGETS.
+ *
+ * Usage:
+ *   mockMvc.perform(get("/api/restaurants/all")).andExpect(withinSqlBudget());
+ *
+ * If a change legitimately needs more statements, raise the budget here in the same commit,
+ * so the cost is visible in review.
+ */
+public final class SqlStatementBudget {
+
+  /**
+   * Maximum statements per endpoint, keyed by "METHOD pattern".
+   */
+  public static final Map<String, Integer> BUDGETS = Map.ofEntries(
+      // find all: one select
+      Map.entry("GET /api/restaurants/all", 1),
+      Map.entry("GET /api/ucsbdates/all", 1),
+      Map.entry("GET /api/ucsbdiningcommons/all", 1),
+      Map.entry("GET /api/ucsbdiningcommonsmenuitem/all", 1),
+      Map.entry("GET /api/ucsborganization/all", 1),
+      // delta sync: tombstones + updated rows
+      Map.entry("GET /api/restaurants/changes", 2),
+      Map.entry("GET /api/ucsbdates/changes", 2),
+      Map.entry("GET /api/ucsbdiningcommons/changes", 2),
+      Map.entry("GET /api/ucsbdiningcommonsmenuitem/changes", 2),
+      Map.entry("GET /api/ucsborganization/changes", 2),
+      // get by id: at most one select (zero on a second-level cache hit)
+      Map.entry("GET /api/restaurants", 1),
+      Map.entry("GET /api/ucsbdates", 1),
+      Map.entry("GET /api/ucsbdiningcommons", 1),
+      Map.entry("GET /api/ucsbdiningcommonsmenuitem", 1),
+      Map.entry("GET /api/ucsborganization", 1),
+      // create: one insert, plus a select for entities with assigned ids (save merges)
+      Map.entry("POST /api/restaurants/post", 1),
+      Map.entry("POST /api/ucsbdates/post", 1),
+      Map.entry("POST /api/ucsbdiningcommons/post", 2),
+      Map.entry("POST /api/ucsbdiningcommonsmenuitem/post", 1),
+      Map.entry("POST /api/ucsborganization/post", 2),
+      // update: select + update
+      Map.entry("PUT /api/restaurants", 2),
+      Map.entry("PUT /api/ucsbdates", 2),
+      Map.entry("PUT /api/ucsbdiningcommons", 2),
+      Map.entry("PUT /api/ucsborganization", 2),
+      // delete: select + delete + tombstone insert
+      Map.entry("DELETE /api/restaurants", 3),
+      Map.entry("DELETE /api/ucsbdates", 3),
+      Map.entry("DELETE /api/ucsbdiningcommons", 3),
+      Map.entry("DELETE /api/ucsborganization", 3));
+
+  private SqlStatementBudget() {
+  }
+
+  /**
+   * Fails if the request ran more statements than the budget declared for its endpoint in BUDGETS,
+   * or if its endpoint has no declared budget.
+   * @return the matcher
+   */
+  public static ResultMatcher withinSqlBudget() {
+    return result -> {
+      String endpoint = endpoint(result);
+      Integer budget = BUDGETS.get(endpoint);
+      if (budget == null) {
+        fail("no SQL statement budget declared for " + endpoint + " in SqlStatementBudget.BUDGETS");
+      }
+      check(result, endpoint, budget);
+    };
+  }
+
+  /**
+   * Fails if the request ran more than the given number of statements.
+   * @param budget the maximum number of statements
+   * @return the matcher
+   */
+  public static ResultMatcher sqlStatementsAtMost(int budget) {
+    return result -> check(result, endpoint(result), budget);
+  }
+
+  /**
+   * Returns the number of statements the request ran.
+   * @param result the result of a MockMvc request
+   * @return the statement count
+   */
+  public static int statementCount(MvcResult result) {
+    QueryInstrumentationService queryInstrumentation = WebApplicationContextUtils
+        .getRequiredWebApplicationContext(result.getRequest().getServletContext())
+        .getBean(QueryInstrumentationService.class);
+    assertTrue(queryInstrumentation.getStats().getEnabled(),
+        "SQL instrumentation is disabled, so every request would appear to run zero statements");
+    Object count = result.getRequest().getAttribute(QueryInstrumentationService.STATEMENT_COUNT_ATTRIBUTE);
+    assertNotNull(count, "request was not seen by the SQL instrumentation interceptor");
+    return (Integer) count;
+  }
+
+  private static void check(MvcResult result, String endpoint, int budget) {
+    int count = statementCount(result);
+    assertTrue(count <= budget,
+        endpoint + " ran " + count + " SQL statements, over its budget of " + budget);
+  }
+
+  /**
+   * Returns the endpoint that handled a request, in the "METHOD pattern" form used as a key of BUDGETS.
+   * @param result the result of a MockMvc request
+   * @return the endpoint
+   */
+  public static String endpoint(MvcResult result) {
+    return result.getRequest().getMethod() + " "
+        + result.getRequest().getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+  }
+}
@@ -1,6 +1,12 @@
 package edu.ucsb.cs156.example.testconfig;
 
 import edu.ucsb.cs156.example.config.SecurityConfig;
+import edu.ucsb.cs156.example.services.NegativeLookupCacheService;
+import edu.ucsb.cs156.example.services.PrimaryReadService;
+import edu.ucsb.cs156.example.services.QueryInstrumentationService;
+import edu.ucsb.cs156.example.services.RateLimiterService;
+import edu.ucsb.cs156.example.services.RequestCoalescingService;
+import edu.ucsb.cs156.example.services.ResponseCacheService;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
 
@@ -10,7 +16,8 @@ import edu.ucsb.cs156.example.services.GrantedAuthoritiesService;
 import org.springframework.context.annotation.Import;
 
 @TestConfiguration
-@Import(SecurityConfig.class)
+@Import({SecurityConfig.class, RateLimiterService.class, QueryInstrumentationService.class, RequestCoalescingService.class,
+    ResponseCacheService.class, NegativeLookupCacheService.class, PrimaryReadService.class})
 public class TestConfig {
 
     @Bean